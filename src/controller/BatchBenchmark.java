@@ -0,0 +1,90 @@
+package controller;
+
+import model.Difficulty;
+import model.DifficultyProfiles;
+import model.Direction;
+import model.Level;
+import model.LevelGenerator;
+import model.WorldBatch;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A command line program that measures how many environment steps per second a {@link WorldBatch} runs on this
+ * machine. A batch of games plays generated levels with random actions, which are drawn before the measurement,
+ * so only {@link WorldBatch#step(int[], float[], boolean[])} and {@link WorldBatch#observe(float[])} are timed.
+ * No window is opened and no Swing class is loaded.
+ *
+ * Usage: {@code java controller.BatchBenchmark [games] [steps] [EASY|MEDIUM|HARD] [levels] [seed]}
+ * The levels are generated with the difficulty profile file named by {@value DifficultyProfiles#FILE_PROPERTY}, if set.
+ */
+public class BatchBenchmark {
+
+    /** The number of steps run before the measurement starts, so the JIT compiler can catch up. */
+    private static final int WARMUP_STEPS = 200;
+    /** The number of different action rows that are cycled through. Bounds the memory used for actions. */
+    private static final int ACTION_ROWS = 64;
+
+    /**
+     * The entry point of the benchmark.
+     *
+     * @param args Optionally the number of games (default 65536), the number of measured steps (default 1000),
+     *             the difficulty (default MEDIUM), the number of levels (default 16) and the seed (default 1).
+     * @throws IOException if the difficulty profile file cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 65_536;
+        int steps = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        Difficulty difficulty = Difficulty.valueOf(args.length > 2 ? args[2].toUpperCase() : "MEDIUM");
+        int levelCount = args.length > 3 ? Integer.parseInt(args[3]) : 16;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 1;
+        DifficultyProfiles.configure(false);
+
+        LevelGenerator generator = new LevelGenerator();
+        List<Level> levels = new ArrayList<>(levelCount);
+        for (int i = 1; i <= levelCount; i++) {
+            levels.add(generator.generate(difficulty, i, seed));
+        }
+        WorldBatch batch = new WorldBatch(games, levels, seed);
+
+        // Random moves in all four directions, drawn up front so that drawing them is not measured
+        Random random = new Random(seed);
+        int[][] actions = new int[ACTION_ROWS][games];
+        for (int[] row : actions) {
+            for (int i = 0; i < games; i++) {
+                row[i] = Direction.UP.ordinal() + random.nextInt(4);
+            }
+        }
+        float[] rewards = new float[games];
+        boolean[] dones = new boolean[games];
+        float[] observations = new float[games * WorldBatch.OBSERVATION_SIZE];
+
+        for (int s = 0; s < WARMUP_STEPS; s++) {
+            batch.step(actions[s % ACTION_ROWS], rewards, dones);
+            batch.observe(observations);
+        }
+
+        long episodes = 0;
+        double rewardSum = 0;
+        long start = System.nanoTime();
+        for (int s = 0; s < steps; s++) {
+            batch.step(actions[s % ACTION_ROWS], rewards, dones);
+            batch.observe(observations);
+            for (int i = 0; i < games; i++) {
+                if (dones[i]) {
+                    episodes++;
+                }
+                rewardSum += rewards[i];
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("Stepped %d games %d times on %d levels (%s) in %.2f s with %d threads%n",
+                games, steps, levelCount, difficulty, seconds, Runtime.getRuntime().availableProcessors());
+        System.out.printf("Throughput: %.2f million steps/s, %d episodes ended, mean reward per step %.4f%n",
+                (double) games * steps / seconds / 1e6, episodes, rewardSum / ((double) games * steps));
+    }
+}
@@ -3,15 +3,21 @@ package controller;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.FocusAdapter;
+import java.awt.event.FocusEvent;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
+import java.nio.file.Path;
 import javax.swing.*;
 import javax.swing.Timer;
 import model.Direction;
 import model.Difficulty;
+import model.MazeExport;
+import model.SnapshotFile;
 import model.World;
+import model.WorldSnapshot;
 import view.ConsoleView;
 import view.GraphicView;
 import view.InGameMenu;
@@ -29,12 +35,21 @@ public class Controller extends JFrame implements KeyListener, ActionListener, M
 	private World world;
 	/** The dimensions of each field (tile) in the graphical view. */
 	private final Dimension fieldDimensions;
-	/** Timer responsible for controlling enemy movement intervals. */
+	/** Timer that advances the enemy clock; the world moves each enemy when it is due. */
 	private Timer enemyMoveTimer;
+	/** The interval (in milliseconds) at which the enemy clock is advanced. Shorter than any enemy's move interval. */
+	private static final int ENEMY_TICK_MILLIS = 25;
 	/** Timer for general game updates, specifically power-up durations. */
 	private Timer gameTimer;
 	/** Stores the time of the last game update to calculate delta time for timers. */
 	private long lastGameUpdateTime;
+	/**
+	 * The time (in milliseconds) between two moves while an arrow key is held. Can be set with the system property
+	 * {@code labyrinth.moveRepeatMillis}; 0 moves on every key event of the operating system instead.
+	 */
+	private static final long MOVE_REPEAT_MILLIS = Long.getLong("labyrinth.moveRepeatMillis", 100);
+	/** Buffers arrow key presses until the next tick of the timers. */
+	private final InputQueue inputQueue = new InputQueue(MOVE_REPEAT_MILLIS);
 
 	/** The in-game menu, displayed when the game is paused. */
 	private InGameMenu inGameMenu;
@@ -120,8 +135,14 @@ public class Controller extends JFrame implements KeyListener, ActionListener, M
 		this.add(layeredPane, BorderLayout.CENTER);
 
 		// start enemy movement timer
-		enemyMoveTimer = new Timer(1, e -> {
-			world.moveEnemies(); // Move enemies
+		enemyMoveTimer = new Timer(ENEMY_TICK_MILLIS, e -> {
+			world.setViewUpdatesDeferred(true); // The views are updated once for the whole tick
+			try {
+				applyInput(); // The player moves first, so the enemies react to the new position
+				world.updateEnemies(ENEMY_TICK_MILLIS); // Move the enemies that are due
+			} finally {
+				world.setViewUpdatesDeferred(false); // Even if the tick failed, so the views are not stuck
+			}
 			if (world.isGameOver()) {
 				enemyMoveTimer.stop(); // Stop enemy movement if game is over
 				gameOverRestartButton.setVisible(true); // Show restart button
@@ -134,24 +155,21 @@ public class Controller extends JFrame implements KeyListener, ActionListener, M
 			long deltaTime = currentTime - lastGameUpdateTime; // Calculate time elapsed since last update
 			lastGameUpdateTime = currentTime; // Update last update time
 
-			world.decreaseInvincibilityTimer(deltaTime); // Decrease invincibility timer
-			// Only move enemies if they are not frozen
-			if (!world.areEnemiesFrozen()) {
-				world.decreaseEnemyFreezeTimer(deltaTime); // Decrease freeze timer only if already frozen
-			} else {
-				// If enemies are frozen, continue to decrease the freeze timer
-				world.decreaseEnemyFreezeTimer(deltaTime);
-				if (!world.areEnemiesFrozen()) { // If enemies just unfroze
-					enemyMoveTimer.start(); // Restart enemy movement
+			world.setViewUpdatesDeferred(true); // The views are updated once for the whole tick
+			try {
+				applyInput(); // Needed while the enemies are frozen and their timer is stopped
+				world.updateEffects(deltaTime); // Ends power-up effects whose time has run out
+				world.advanceAutoWalk(deltaTime); // Walk towards the exit if auto-walk is on
+
+				// If enemies become frozen, stop their movement timer
+				if (world.areEnemiesFrozen() && enemyMoveTimer.isRunning()) {
+					enemyMoveTimer.stop();
+				} else if (!world.areEnemiesFrozen() && !enemyMoveTimer.isRunning() && !world.isPaused() && !world.isGameOver()) {
+					// If enemies unfroze, and game is not paused/over, restart their movement
+					enemyMoveTimer.start();
 				}
-			}
-
-			// If enemies become frozen, stop their movement timer
-			if (world.areEnemiesFrozen() && enemyMoveTimer.isRunning()) {
-				enemyMoveTimer.stop();
-			} else if (!world.areEnemiesFrozen() && !enemyMoveTimer.isRunning() && !world.isPaused() && !world.isGameOver()) {
-				// If enemies unfroze, and game is not paused/over, restart their movement
-				enemyMoveTimer.start();
+			} finally {
+				world.setViewUpdatesDeferred(false); // Even if the tick failed, so the views are not stuck
 			}
 
 			graphicView.repaint(); // Repaint to show their current timer-based changes (e.g. power-up status)
@@ -160,6 +178,9 @@ public class Controller extends JFrame implements KeyListener, ActionListener, M
 
 		inGameMenu.addResumeButtonListener(e -> handleResumeGame()); // Handles Resume Button
 		inGameMenu.addRestartButtonListener(e -> handleRestartGame()); // Handeles Restart Button
+		inGameMenu.addSaveButtonListener(e -> handleSaveGame()); // Handles Save Button
+		inGameMenu.addLoadButtonListener(e -> handleLoadGame()); // Handles Load Button
+		inGameMenu.addExportButtonListener(e -> handleExportMaze()); // Handles Export Button
 		inGameMenu.addExitButtonListener(e -> handleExitGame()); // Handles Exit button -> Terminates
 		// Add action listener for difficulty box in in-game menu
 		inGameMenu.addDifficultyComboBoxListener(e -> { // Handles difficultyChange()
@@ -173,6 +194,14 @@ public class Controller extends JFrame implements KeyListener, ActionListener, M
 		// Add key and mouse listeners to the controller frame
 		addKeyListener(this);
 		addMouseListener(this);
+		// A key released while the frame has no focus (e.g. after switching windows) never reports its release,
+		// so the held key is let go as soon as the focus is lost. Focus also leaves when the window is deactivated.
+		addFocusListener(new FocusAdapter() {
+			@Override
+			public void focusLost(FocusEvent e) {
+				inputQueue.releaseHeld();
+			}
+		});
 
 		// Ensure the frame can receive keyboard input
 		setFocusable(true);
@@ -187,8 +216,11 @@ public class Controller extends JFrame implements KeyListener, ActionListener, M
 	private void handleStartGameFromMenu() {
 		// Gets the selected difficulty from the main menu
 		Difficulty selectedDifficulty = Difficulty.valueOf(mainMenu.getSelectedDifficulty());
-		// Create a new World instance with the chosen difficulty
+		// Create a new World instance with the chosen difficulty. The world shown behind the main menu is no longer needed.
+		World menuWorld = world;
 		this.world = new World(selectedDifficulty);
+		menuWorld.dispose();
+		this.world.setFogOfWar(mainMenu.isFogOfWarSelected());
 		// Register the graphical view and console view with the new world to receive updates
 		this.world.registerView(graphicView);
 		this.world.registerView(this.consoleView);
@@ -198,9 +230,7 @@ public class Controller extends JFrame implements KeyListener, ActionListener, M
 		graphicView.setVisible(true); // Show the Game
 		this.world.setPaused(false); // game is not paused anymore
 
-		// Configure and start enemy movement timer based on difficulty
-		enemyMoveTimer.setInitialDelay((int) world.getEnemyMoveIntervalMillis());
-		enemyMoveTimer.setDelay((int) world.getEnemyMoveIntervalMillis());
+		// Start enemy movement timer, the world decides when each enemy moves
 		enemyMoveTimer.start();
 
 		// Start the general game timer for power-ups and other effects
@@ -218,7 +248,8 @@ public class Controller extends JFrame implements KeyListener, ActionListener, M
 
 	/**
 	 * Invoked when a key has been pressed.
-	 * Handles player movement (UP, DOWN, LEFT, RIGHT) and pausing/unpausing the game (ESCAPE).
+	 * Queues player movement (UP, DOWN, LEFT, RIGHT) for the next tick, handles auto-walk (A), zooming (PLUS, MINUS)
+	 * and pausing/unpausing the game (ESCAPE).
 	 * @param e the event to be processed
 	 */
 	@Override
@@ -235,9 +266,24 @@ public class Controller extends JFrame implements KeyListener, ActionListener, M
 			case KeyEvent.VK_RIGHT:
 				// Only allow player movement if the game is not paused and not over
 				if (!world.isPaused() && !world.isGameOver()) {
-					world.movePlayer(Direction.fromKeyCode(e.getKeyCode()));
+					world.setAutoWalking(false); // Walking by hand ends auto-walk
+					inputQueue.press(Direction.fromKeyCode(e.getKeyCode()), System.nanoTime()); // Applied in the next tick
+				}
+				break;
+			case KeyEvent.VK_A:
+				if (!world.isPaused() && !world.isGameOver()) {
+					world.setAutoWalking(!world.isAutoWalking()); // Toggle walking to the exit automatically
 				}
 				break;
+			case KeyEvent.VK_PLUS:
+			case KeyEvent.VK_ADD:
+			case KeyEvent.VK_EQUALS:
+				graphicView.zoomIn();
+				break;
+			case KeyEvent.VK_MINUS:
+			case KeyEvent.VK_SUBTRACT:
+				graphicView.zoomOut();
+				break;
 			case KeyEvent.VK_ESCAPE:
 				// Allow pausing/unpausing only if the game is not over
 				if (!world.isGameOver()) {
@@ -246,6 +292,7 @@ public class Controller extends JFrame implements KeyListener, ActionListener, M
 					inGameMenu.setVisible(newPausedState); // Show/hide in-game menu
 
 					if (newPausedState) { // If pausing the game
+						inputQueue.clear(); // Moves must not be applied after resuming
 						enemyMoveTimer.stop(); // Stop enemy movement
 						gameTimer.stop(); // Stop general game timer
 						inGameMenu.setSelectedDifficulty(world.getDifficulty().name()); // Set selected difficulty in menu
@@ -260,9 +307,26 @@ public class Controller extends JFrame implements KeyListener, ActionListener, M
 		}
 	}
 
-	// Not used but necessary for running
+	/**
+	 * Handles key release events. Releasing an arrow key stops moving in its direction.
+	 *
+	 * @param e The KeyEvent generated by the key release.
+	 */
 	@Override
-	public void keyReleased(KeyEvent e) { }
+	public void keyReleased(KeyEvent e) {
+		inputQueue.release(Direction.fromKeyCode(e.getKeyCode()));
+	}
+
+	/**
+	 * Moves the player for the arrow keys pressed since the last tick.
+	 * The graphical view is told when the oldest of these inputs happened, to measure the time until it is shown.
+	 */
+	private void applyInput() {
+		long inputTime = inputQueue.apply(world, System.nanoTime());
+		if (inputTime != 0) {
+			graphicView.markInput(inputTime);
+		}
+	}
 
 	// Not used but necessary for running
 	@Override
@@ -297,30 +361,100 @@ public class Controller extends JFrame implements KeyListener, ActionListener, M
 		}
 		Difficulty newDifficulty = Difficulty.valueOf(selectedDifficultyStr);
 
-		// Create a new World instance with the selected or current difficulty
-		this.world = new World(newDifficulty);
+		// Create a new World instance with the selected or current difficulty.
+		// The seed is kept, so the levels of this game are replayed from the level cache instead of being regenerated.
+		switchToWorld(new World(newDifficulty, world.getSeed()));
+	}
+
+	/**
+	 * Replaces the current world with the given one.
+	 * Registers the views, reconfigures and restarts the timers, and hides any active menus/buttons.
+	 * If the new world is already over (e.g. a loaded game), the game over restart button is shown instead.
+	 * The fog-of-war mode of the current world is kept.
+	 *
+	 * @param newWorld The world to continue with.
+	 */
+	private void switchToWorld(World newWorld) {
+		newWorld.setFogOfWar(world.isFogOfWar());
+		inputQueue.clear(); // Keys pressed in the old game do not move the player in the new one
+		World oldWorld = world;
+		this.world = newWorld;
 		this.world.registerView(graphicView);
 		this.world.registerView(this.consoleView);
+		oldWorld.dispose(); // The views show the new world now, so the old level's storage can be freed
 
-		// Stop and reconfigure enemy movement timer for the new world's settings
+		// Stop the timers, they are restarted for the new world below
 		enemyMoveTimer.stop();
 		gameTimer.stop(); // Stop game timer as well
-		enemyMoveTimer.setInitialDelay((int) world.getEnemyMoveIntervalMillis());
-		enemyMoveTimer.setDelay((int) world.getEnemyMoveIntervalMillis());
-		enemyMoveTimer.start(); // Start enemy movement
+		if (!world.isGameOver()) {
+			enemyMoveTimer.start(); // Start enemy movement
 
-		lastGameUpdateTime = System.currentTimeMillis(); // Reset last update time for accurate delta calculation
-		gameTimer.start(); // Start general game timer
+			lastGameUpdateTime = System.currentTimeMillis(); // Reset last update time for accurate delta calculation
+			gameTimer.start(); // Start general game timer
+		}
 
 		// Reset paused and game over states
 		world.setPaused(false);
 		inGameMenu.setVisible(false); // Hide in-game menu
-		gameOverRestartButton.setVisible(false); // Hide game over restart button
+		gameOverRestartButton.setVisible(world.isGameOver()); // Only show game over restart button if the game is over
 		pack(); // Adjust frame size if necessary
 		requestFocusInWindow(); // Request focus back to the game frame
 		graphicView.repaint(); // Repaint the graphical view
 	}
 
+	/**
+	 * Handles saving the current game.
+	 * The state is captured on the event dispatch thread, which only copies the entity positions,
+	 * and is then written to {@link SnapshotFile#DEFAULT_PATH} on a background thread.
+	 */
+	private void handleSaveGame() {
+		WorldSnapshot snapshot = world.createSnapshot();
+		long start = System.nanoTime();
+		SnapshotFile.saveAsync(snapshot, SnapshotFile.DEFAULT_PATH).whenComplete((file, error) -> {
+			if (error != null) {
+				System.err.println("Could not save the game: " + error.getMessage());
+			} else {
+				System.out.printf("Game saved to %s in %.1f ms%n", file, (System.nanoTime() - start) / 1_000_000.0);
+			}
+		});
+	}
+
+	/**
+	 * Handles loading the last saved game.
+	 * The save file is read on a background thread and the restored world replaces the current one
+	 * on the event dispatch thread once it is ready.
+	 */
+	private void handleLoadGame() {
+		SnapshotFile.loadAsync(SnapshotFile.DEFAULT_PATH).whenComplete((snapshot, error) -> {
+			if (error != null) {
+				System.err.println("Could not load the game: " + error.getMessage());
+				return;
+			}
+			SwingUtilities.invokeLater(() -> switchToWorld(new World(snapshot)));
+		});
+	}
+
+	/**
+	 * Handles exporting the current maze for debugging.
+	 * Like saving, the state is captured on the event dispatch thread. It is then written next to the save file
+	 * as a text file and as an image on a background thread.
+	 */
+	private void handleExportMaze() {
+		WorldSnapshot snapshot = world.createSnapshot();
+		long start = System.nanoTime();
+		String name = "labyrinth-level" + snapshot.getCurrentLevel() + "-" + System.currentTimeMillis();
+		for (MazeExport.Format format : MazeExport.Format.values()) {
+			Path file = SnapshotFile.DEFAULT_PATH.resolveSibling(name + format.getExtension());
+			MazeExport.exportAsync(snapshot, file, format).whenComplete((written, error) -> {
+				if (error != null) {
+					System.err.println("Could not export the maze: " + error.getMessage());
+				} else {
+					System.out.printf("Maze exported to %s in %.1f ms%n", written, (System.nanoTime() - start) / 1_000_000.0);
+				}
+			});
+		}
+	}
+
 	/**
 	 * Handles exiting the game. Terminates the application.
 	 */
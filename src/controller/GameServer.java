@@ -0,0 +1,224 @@
+package controller;
+
+import model.Difficulty;
+import model.DifficultyProfiles;
+import model.World;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A command line program that hosts many games without a window, for bots or thin clients on the same machine.
+ * Every connection plays its own {@link World}. All games are run by one thread with a selector, which ticks
+ * every game every {@value #TICK_MILLIS} ms, like the game timer of the window version.
+ *
+ * Usage: {@code java controller.GameServer [port|unix:<path>] [EASY|MEDIUM|HARD] [seed]}
+ * The difficulties can be tuned with a profile file, see {@link DifficultyProfiles}.
+ *
+ * Protocol (little endian). The client sends single bytes: a {@link model.Direction} ordinal (1 to 4) moves the
+ * player, {@link #COMMAND_RESTART} starts a new game after a game over. The server sends messages of the form
+ * {@code int length, byte type, content}, where the length counts everything after the length field:
+ * <pre>
+ * LEVEL  int tick, int level, int width, int height, int player cell, int exit cell, int status, int max health,
+ *        int word count, long wall words (see {@link model.WallGrid}),
+ *        int enemy count, int cell per enemy, int power-up count, (int cell, byte type) per power-up
+ * DELTA  int tick, int status, int player cell,
+ *        int moved enemy count, (int enemy index, int cell) per moved enemy,
+ *        int collected power-up count, int cell per collected power-up
+ * </pre>
+ * A cell is {@code y * width + x}. The status holds the health in the lowest byte and the {@code FLAG_} bits.
+ * A LEVEL message is sent when the game starts and whenever a new level begins, a DELTA message in all other ticks.
+ */
+public class GameServer {
+
+    /** The time between two ticks in milliseconds. */
+    static final int TICK_MILLIS = 50;
+    /** The command that starts a new game after a game over. */
+    static final byte COMMAND_RESTART = 'R';
+    /** The message with the complete state of a new level. */
+    static final byte MESSAGE_LEVEL = 1;
+    /** The message with the changes of one tick. */
+    static final byte MESSAGE_DELTA = 2;
+    /** Status flag: the game is over. */
+    static final int FLAG_GAME_OVER = 1 << 8;
+    /** Status flag: the player is invincible. */
+    static final int FLAG_INVINCIBLE = 1 << 9;
+    /** Status flag: the enemies are frozen. */
+    static final int FLAG_ENEMIES_FROZEN = 1 << 10;
+    /** The number of connections that may wait to be accepted, so that many bots can connect at once. */
+    private static final int ACCEPT_BACKLOG = 1024;
+    /** The time between two latency reports in milliseconds. */
+    private static final long REPORT_MILLIS = 10_000;
+
+    /**
+     * The entry point of the game server.
+     *
+     * @param args Optionally the TCP port on the loopback address or {@code unix:} and a socket path
+     *             (default 4711), the difficulty (default MEDIUM) and the seed of the first game (default random).
+     *             Game {@code n} uses the seed plus {@code n}.
+     * @throws IOException if the server socket cannot be opened or the difficulty profile file cannot be watched.
+     */
+    public static void main(String[] args) throws IOException {
+        String address = args.length > 0 ? args[0] : "4711";
+        Difficulty difficulty = Difficulty.valueOf(args.length > 1 ? args[1].toUpperCase() : "MEDIUM");
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+        DifficultyProfiles.configure(true); // Lets a load test change the difficulty without restarting the server
+
+        ServerSocketChannel server;
+        SocketAddress bindAddress;
+        if (address.startsWith("unix:")) {
+            Path path = Path.of(address.substring("unix:".length()));
+            Files.deleteIfExists(path); // A socket file left over from an earlier run blocks the bind
+            server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+            bindAddress = UnixDomainSocketAddress.of(path);
+        } else {
+            server = ServerSocketChannel.open();
+            bindAddress = new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(address));
+        }
+        server.bind(bindAddress, ACCEPT_BACKLOG);
+        server.configureBlocking(false);
+        Selector selector = Selector.open();
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        System.out.println("Labyrinth server listening on " + bindAddress + " (" + difficulty + ")");
+
+        ArrayList<GameSession> sessions = new ArrayList<>();
+        int nextId = 0;
+        long nextTick = System.nanoTime();
+        long nextReport = nextTick + REPORT_MILLIS * 1_000_000L;
+        int lateTicks = 0;
+        while (true) {
+            long wait = (nextTick - System.nanoTime()) / 1_000_000L;
+            if (wait > 0) {
+                selector.select(wait);
+            } else {
+                selector.selectNow();
+            }
+
+            // Connections and commands
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                if (!key.isValid()) {
+                    continue;
+                }
+                if (key.isAcceptable()) {
+                    SocketChannel channel;
+                    while ((channel = server.accept()) != null) {
+                        channel.configureBlocking(false);
+                        long gameSeed = seed + nextId;
+                        CompletableFuture<World> world = CompletableFuture.supplyAsync(() -> new World(difficulty, gameSeed));
+                        GameSession session = new GameSession(nextId++, channel, world);
+                        channel.register(selector, SelectionKey.OP_READ, session);
+                        sessions.add(session);
+                    }
+                    continue;
+                }
+                GameSession session = (GameSession) key.attachment();
+                try {
+                    if (key.isReadable() && !session.read()) {
+                        close(session, sessions);
+                        continue;
+                    }
+                    if (key.isWritable() && session.flush()) {
+                        key.interestOps(SelectionKey.OP_READ);
+                    }
+                } catch (IOException e) {
+                    close(session, sessions);
+                }
+            }
+
+            // Tick all games
+            long now = System.nanoTime();
+            if (now - nextTick < 0) {
+                continue;
+            }
+            nextTick += TICK_MILLIS * 1_000_000L;
+            if (now - nextTick > 0) {
+                // The server fell behind: skip the missed ticks instead of running them all at once
+                lateTicks++;
+                nextTick = now + TICK_MILLIS * 1_000_000L;
+            }
+            for (int i = sessions.size() - 1; i >= 0; i--) {
+                GameSession session = sessions.get(i);
+                try {
+                    if (!session.tick(TICK_MILLIS)) {
+                        System.out.println("Session " + session.id + " does not keep up, disconnecting");
+                        close(session, sessions);
+                    } else if (session.hasPendingOutput() && !session.flush()) {
+                        session.channel.keyFor(selector).interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    }
+                } catch (IOException e) {
+                    close(session, sessions);
+                } catch (RuntimeException e) {
+                    // A broken game must not take the other games down
+                    System.out.println("Session " + session.id + " failed: " + e);
+                    close(session, sessions);
+                }
+            }
+
+            if (now - nextReport >= 0) {
+                report(sessions, lateTicks);
+                lateTicks = 0;
+                nextReport = now + REPORT_MILLIS * 1_000_000L;
+            }
+        }
+    }
+
+    /**
+     * Closes the connection of a session, frees its world and removes it.
+     * @param session The session.
+     * @param sessions All sessions.
+     */
+    private static void close(GameSession session, ArrayList<GameSession> sessions) {
+        sessions.remove(session);
+        session.dispose();
+        try {
+            session.channel.close();
+        } catch (IOException e) {
+            // Nothing left to clean up
+        }
+    }
+
+    /**
+     * Prints the tick latency over all sessions and for the slowest session, then starts a new period.
+     * @param sessions All sessions.
+     * @param lateTicks The number of ticks that started late since the last report.
+     */
+    private static void report(ArrayList<GameSession> sessions, int lateTicks) {
+        long ticks = 0;
+        long nanos = 0;
+        GameSession slowest = null;
+        for (GameSession session : sessions) {
+            ticks += session.getTicks();
+            nanos += session.getTickNanos();
+            if (slowest == null || session.getMaxTickNanos() > slowest.getMaxTickNanos()) {
+                slowest = session;
+            }
+        }
+        System.out.printf("%d sessions, %d late ticks, mean tick %.1f us", sessions.size(), lateTicks,
+                ticks == 0 ? 0.0 : nanos / 1e3 / ticks);
+        if (slowest != null) {
+            System.out.printf(", slowest: session %d with mean %.1f us and max %.1f us", slowest.id,
+                    slowest.getTicks() == 0 ? 0.0 : slowest.getTickNanos() / 1e3 / slowest.getTicks(),
+                    slowest.getMaxTickNanos() / 1e3);
+        }
+        System.out.println();
+        for (GameSession session : sessions) {
+            session.resetStatistics();
+        }
+    }
+}
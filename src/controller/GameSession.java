@@ -0,0 +1,350 @@
+package controller;
+
+import model.Direction;
+import model.Powerup;
+import model.WallGrid;
+import model.World;
+
+import java.awt.Point;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * One game hosted by the {@link GameServer}: a {@link World} and the connection of the client playing it.
+ * Every tick the session applies the moves the client sent, advances the world and sends back only what changed.
+ * See {@link GameServer} for the protocol.
+ */
+class GameSession {
+
+    /** The most bytes that may wait for a slow client before it is disconnected. */
+    private static final int MAX_PENDING_OUTPUT = 8 << 20;
+
+    /** The number of the session, counted up by the server. */
+    final int id;
+    /** The connection to the client. */
+    final SocketChannel channel;
+    /** The world, available once its first level is generated. */
+    private final CompletableFuture<World> pendingWorld;
+    /** The world, or null while it is being created. */
+    private World world;
+    /** Receives the commands of the client. */
+    private final ByteBuffer input = ByteBuffer.allocate(256);
+    /** Receives commands that do not fit into {@link #input} any more, which are dropped. */
+    private final ByteBuffer overflow = ByteBuffer.allocate(256);
+    /** Holds the messages that were not yet sent to the client. */
+    private ByteBuffer output = ByteBuffer.allocate(4096).order(ByteOrder.LITTLE_ENDIAN);
+    /** The number of ticks sent so far. */
+    private int tick;
+    /** Whether the client asked for a new game, which is started in the next tick. */
+    private boolean restartRequested;
+
+    // What the client knows, to send only the changes
+
+    /** The walls the client knows, to detect a new level. */
+    private WallGrid sentWalls;
+    /** The enemy cells the client knows, in the order of the world's enemy list. */
+    private int[] sentEnemyCells = new int[0];
+    /** The power-ups the client knows. */
+    private Powerup[] sentPowerups = new Powerup[0];
+    /** The number of entries of {@link #sentPowerups} in use. */
+    private int sentPowerupCount;
+
+    // Latency statistics since the last report
+
+    /** The number of ticks since the last report. */
+    private int ticks;
+    /** The total time of the ticks since the last report, in nanoseconds. */
+    private long tickNanos;
+    /** The longest tick since the last report, in nanoseconds. */
+    private long maxTickNanos;
+
+    /**
+     * Creates a session. The world is created in the background, so a new connection does not hold up
+     * the running games.
+     *
+     * @param id The number of the session.
+     * @param channel The connection to the client.
+     * @param pendingWorld Completes with the world of the session.
+     */
+    GameSession(int id, SocketChannel channel, CompletableFuture<World> pendingWorld) {
+        this.id = id;
+        this.channel = channel;
+        this.pendingWorld = pendingWorld;
+    }
+
+    /**
+     * Reads the commands the client sent so far. They are applied in the next tick.
+     * @return false if the client closed the connection.
+     * @throws IOException if reading fails.
+     */
+    boolean read() throws IOException {
+        if (!input.hasRemaining()) {
+            // More commands than anyone can play in one tick: drop the rest instead of letting the selector spin
+            overflow.clear();
+            return channel.read(overflow) >= 0;
+        }
+        return channel.read(input) >= 0;
+    }
+
+    /**
+     * Advances the game by one tick: applies the received commands, moves the enemies, updates the power-up
+     * timers and queues the changes for the client.
+     *
+     * @param deltaTimeMillis The game time of one tick in milliseconds.
+     * @return false if the session has to be closed because the client does not keep up with the messages.
+     */
+    boolean tick(long deltaTimeMillis) {
+        if (world == null) {
+            if (!pendingWorld.isDone()) {
+                return true;
+            }
+            world = pendingWorld.join();
+        }
+        long start = System.nanoTime();
+
+        input.flip();
+        while (input.hasRemaining()) {
+            int command = input.get();
+            if (command == GameServer.COMMAND_RESTART) {
+                restartRequested = true;
+            } else if (command > 0 && command < Direction.values().length) {
+                world.movePlayer(Direction.values()[command]);
+            }
+        }
+        input.clear();
+        if (restartRequested && world.isGameOver()) {
+            world.setCurrentLevel(1);
+            world.restart(world.getDifficulty(), true);
+            sentWalls = null; // Send the new level even if it is the same maze
+        }
+        restartRequested = false;
+        world.updateEnemies(deltaTimeMillis);
+        world.updateEffects(deltaTimeMillis);
+
+        if (world.getWalls() != sentWalls) {
+            writeLevel();
+        } else {
+            writeDelta();
+        }
+        tick++;
+
+        long nanos = System.nanoTime() - start;
+        ticks++;
+        tickNanos += nanos;
+        maxTickNanos = Math.max(maxTickNanos, nanos);
+        return output.position() <= MAX_PENDING_OUTPUT;
+    }
+
+    /**
+     * Sends as much of the queued messages as the connection takes without blocking.
+     * @return true if everything was sent.
+     * @throws IOException if writing fails.
+     */
+    boolean flush() throws IOException {
+        output.flip();
+        try {
+            channel.write(output);
+            return !output.hasRemaining();
+        } finally {
+            output.compact();
+        }
+    }
+
+    /**
+     * Queues the complete state of a new level.
+     */
+    private void writeLevel() {
+        WallGrid walls = world.getWalls();
+        List<Point> enemies = world.getEnemies();
+        List<Powerup> powerups = world.getPowerups();
+        int width = world.getWidth();
+        int length = 1 + 4 * 9 + walls.getWordCount() * 8 + 4 + enemies.size() * 4 + 4 + powerups.size() * 5;
+        beginMessage(GameServer.MESSAGE_LEVEL, length);
+        output.putInt(tick);
+        output.putInt(world.getCurrentLevel());
+        output.putInt(width);
+        output.putInt(world.getHeight());
+        output.putInt(world.getPlayerY() * width + world.getPlayerX());
+        output.putInt(world.getEndY() * width + world.getEndX());
+        output.putInt(status());
+        output.putInt(world.getMaxPlayerHealth());
+        output.putInt(walls.getWordCount());
+        for (int i = 0; i < walls.getWordCount(); i++) {
+            output.putLong(walls.getWord(i));
+        }
+        output.putInt(enemies.size());
+        if (sentEnemyCells.length != enemies.size()) {
+            sentEnemyCells = new int[enemies.size()];
+        }
+        for (int i = 0; i < enemies.size(); i++) {
+            Point enemy = enemies.get(i);
+            sentEnemyCells[i] = enemy.y * width + enemy.x;
+            output.putInt(sentEnemyCells[i]);
+        }
+        output.putInt(powerups.size());
+        if (sentPowerups.length < powerups.size()) {
+            sentPowerups = new Powerup[powerups.size()];
+        }
+        for (int i = 0; i < powerups.size(); i++) {
+            Powerup powerup = powerups.get(i);
+            sentPowerups[i] = powerup;
+            output.putInt(powerup.y * width + powerup.x);
+            output.put((byte) powerup.type.ordinal());
+        }
+        sentPowerupCount = powerups.size();
+        sentWalls = walls;
+    }
+
+    /**
+     * Queues the changes since the last message: the enemies that moved and the power-ups that were collected,
+     * together with the player cell and the status, which are small enough to be sent every tick. A tick without changes still sends a short message, so clients can count ticks.
+     */
+    private void writeDelta() {
+        int width = world.getWidth();
+        int playerCell = world.getPlayerY() * width + world.getPlayerX();
+        int status = status();
+        List<Point> enemies = world.getEnemies();
+        List<Powerup> powerups = world.getPowerups();
+
+        // The message length is only known at the end, so it is filled in afterwards
+        int start = beginMessage(GameServer.MESSAGE_DELTA, 0);
+        output.putInt(tick);
+        output.putInt(status);
+        output.putInt(playerCell);
+        int enemyCountPosition = output.position();
+        output.putInt(0);
+        int movedEnemies = 0;
+        for (int i = 0; i < enemies.size(); i++) {
+            Point enemy = enemies.get(i);
+            int cell = enemy.y * width + enemy.x;
+            if (cell != sentEnemyCells[i]) {
+                ensureOutput(8);
+                output.putInt(i);
+                output.putInt(cell);
+                sentEnemyCells[i] = cell;
+                movedEnemies++;
+            }
+        }
+        output.putInt(enemyCountPosition, movedEnemies);
+        ensureOutput(4);
+        int powerupCountPosition = output.position();
+        output.putInt(0);
+        int collectedPowerups = 0;
+        if (powerups.size() != sentPowerupCount) {
+            // Power-ups are only ever collected, so the known ones that are gone are reported
+            int kept = 0;
+            for (int i = 0; i < sentPowerupCount; i++) {
+                Powerup powerup = sentPowerups[i];
+                if (world.getPowerupAt(powerup.x, powerup.y) == powerup) {
+                    sentPowerups[kept++] = powerup;
+                } else {
+                    ensureOutput(4);
+                    output.putInt(powerup.y * width + powerup.x);
+                    collectedPowerups++;
+                }
+            }
+            sentPowerupCount = kept;
+        }
+        output.putInt(powerupCountPosition, collectedPowerups);
+        output.putInt(start, output.position() - start - 4);
+    }
+
+    /**
+     * Packs the player's health and the game flags into one value.
+     * @return The health in the lowest byte, followed by the flags of {@link GameServer}.
+     */
+    private int status() {
+        int status = world.getPlayerHealth() & 0xFF;
+        if (world.isGameOver()) {
+            status |= GameServer.FLAG_GAME_OVER;
+        }
+        if (world.isInvincible()) {
+            status |= GameServer.FLAG_INVINCIBLE;
+        }
+        if (world.areEnemiesFrozen()) {
+            status |= GameServer.FLAG_ENEMIES_FROZEN;
+        }
+        return status;
+    }
+
+    /**
+     * Starts a message: writes its length and type.
+     *
+     * @param type The message type.
+     * @param length The length of the message after the length field, if known in advance.
+     * @return The position of the length field.
+     */
+    private int beginMessage(byte type, int length) {
+        ensureOutput(Math.max(length, 1 + 4 * 5) + 4);
+        int position = output.position();
+        output.putInt(length);
+        output.put(type);
+        return position;
+    }
+
+    /**
+     * Makes room for the given number of bytes in the output buffer.
+     * @param bytes The number of bytes about to be written.
+     */
+    private void ensureOutput(int bytes) {
+        if (output.remaining() < bytes) {
+            int capacity = Math.max(output.capacity() * 2, output.position() + bytes);
+            ByteBuffer larger = ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+            output.flip();
+            larger.put(output);
+            output = larger;
+        }
+    }
+
+    /**
+     * Frees the world of the session, once it has been created.
+     */
+    void dispose() {
+        pendingWorld.thenAccept(World::dispose);
+    }
+
+    /**
+     * Returns whether messages wait to be sent.
+     * @return true if the output buffer is not empty.
+     */
+    boolean hasPendingOutput() {
+        return output.position() > 0;
+    }
+
+    /**
+     * Returns the number of ticks since the last {@link #resetStatistics()}.
+     * @return The number of ticks.
+     */
+    int getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Returns the total time of the ticks since the last {@link #resetStatistics()}.
+     * @return The time in nanoseconds.
+     */
+    long getTickNanos() {
+        return tickNanos;
+    }
+
+    /**
+     * Returns the longest tick since the last {@link #resetStatistics()}.
+     * @return The time in nanoseconds.
+     */
+    long getMaxTickNanos() {
+        return maxTickNanos;
+    }
+
+    /**
+     * Starts a new statistics period.
+     */
+    void resetStatistics() {
+        ticks = 0;
+        tickNanos = 0;
+        maxTickNanos = 0;
+    }
+}
@@ -0,0 +1,140 @@
+package controller;
+
+import model.Direction;
+import model.World;
+
+/**
+ * Buffers the player's arrow key presses until the next game tick, instead of moving the player
+ * directly in the key handler. Key presses are only stored when they arrive; the moves are applied
+ * together at the start of a tick, so the views are updated once per tick and not once per key event.
+ *
+ * While an arrow key is held, the player keeps moving at a fixed rate. The repeated key events of the
+ * operating system are ignored then, so holding a key does not flood the queue. If several keys are held,
+ * the most recently pressed one moves the player, and releasing it falls back to the next one still held.
+ * If the queue is full, further presses are dropped, so the player never lags behind the keyboard.
+ */
+class InputQueue {
+
+	/** The most presses kept until the next tick. */
+	private static final int CAPACITY = 4;
+
+	/** The buffered presses, as a ring buffer. */
+	private final Direction[] presses = new Direction[CAPACITY];
+	/** The time (see {@link System#nanoTime()}) of every buffered press. */
+	private final long[] pressTimes = new long[CAPACITY];
+	/** The index of the oldest buffered press. */
+	private int head;
+	/** The number of buffered presses. */
+	private int count;
+	/** The time between two moves while a key is held, in nanoseconds, or 0 to use the key repeat of the system. */
+	private final long repeatNanos;
+	/** The directions of the keys that are held down, in the order they were pressed. */
+	private final Direction[] held = new Direction[Direction.values().length];
+	/** The number of keys that are held down. */
+	private int heldCount;
+	/** The time of the next move of the held key. */
+	private long nextRepeatTime;
+
+	/**
+	 * Creates an empty input queue.
+	 * @param repeatMillis The time between two moves while a key is held, or 0 to move on every key event
+	 *                     of the operating system instead.
+	 */
+	InputQueue(long repeatMillis) {
+		this.repeatNanos = repeatMillis * 1_000_000L;
+	}
+
+	/**
+	 * Buffers a key press.
+	 * @param direction The direction of the pressed key.
+	 * @param time The time of the press (see {@link System#nanoTime()}).
+	 */
+	void press(Direction direction, long time) {
+		if (repeatNanos > 0) {
+			if (indexOfHeld(direction) >= 0) {
+				return; // Key repeat of the system, the held key is moved by apply()
+			}
+			held[heldCount++] = direction;
+			nextRepeatTime = time + repeatNanos;
+		}
+		if (count == CAPACITY) {
+			return;
+		}
+		int tail = (head + count) % CAPACITY;
+		presses[tail] = direction;
+		pressTimes[tail] = time;
+		count++;
+	}
+
+	/**
+	 * Ends holding a key.
+	 * @param direction The direction of the released key.
+	 */
+	void release(Direction direction) {
+		int index = indexOfHeld(direction);
+		if (index >= 0) {
+			System.arraycopy(held, index + 1, held, index, heldCount - index - 1);
+			held[--heldCount] = null;
+		}
+	}
+
+	/**
+	 * Ends holding all keys, e.g. when the window loses the keyboard focus and the releases of the keys
+	 * would never arrive. Presses that are already buffered are still applied.
+	 */
+	void releaseHeld() {
+		while (heldCount > 0) {
+			held[--heldCount] = null;
+		}
+	}
+
+	/**
+	 * Finds a key among the held keys.
+	 * @param direction The direction of the key.
+	 * @return The position of the key in {@link #held}, or -1 if it is not held.
+	 */
+	private int indexOfHeld(Direction direction) {
+		for (int i = 0; i < heldCount; i++) {
+			if (held[i] == direction) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Drops all buffered presses and the held keys, e.g. when the game is paused or a new game starts.
+	 */
+	void clear() {
+		count = 0;
+		releaseHeld();
+	}
+
+	/**
+	 * Moves the player for all buffered presses and for the most recently pressed held key, if it is due.
+	 *
+	 * @param world The world to move the player in.
+	 * @param now The current time (see {@link System#nanoTime()}).
+	 * @return The time of the oldest input that was applied, or 0 if the player was not moved.
+	 */
+	long apply(World world, long now) {
+		long oldest = 0;
+		if (count > 0) {
+			oldest = pressTimes[head];
+		}
+		while (count > 0) {
+			world.movePlayer(presses[head]);
+			head = (head + 1) % CAPACITY;
+			count--;
+		}
+		if (heldCount > 0 && now - nextRepeatTime >= 0) {
+			if (oldest == 0) {
+				oldest = nextRepeatTime;
+			}
+			world.movePlayer(held[heldCount - 1]);
+			// Keep the rate, but do not catch up on moves that were missed while the game stalled
+			nextRepeatTime = Math.max(nextRepeatTime + repeatNanos, now);
+		}
+		return oldest;
+	}
+}
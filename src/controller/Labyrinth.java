@@ -1,11 +1,13 @@
 package controller;
 
 import model.Difficulty;
+import model.DifficultyProfiles;
 import model.World;
 import view.ConsoleView;
 import view.GraphicView;
 import javax.swing.JFrame;
 import java.awt.*;
+import java.io.IOException;
 
 /**
  * This is the main program class for the Labyrinth game.
@@ -24,6 +26,11 @@ public class Labyrinth {
      * @param args Command line arguments (not used).
      */
     public static void main(String[] args) {
+        try {
+            DifficultyProfiles.configure(true); // Reload the difficulty profiles whenever their file changes
+        } catch (IOException e) {
+            System.err.println("Could not watch the difficulty profiles: " + e.getMessage());
+        }
         javax.swing.SwingUtilities.invokeLater(() -> {
             // Create a temporary World and GraphicView initially.
             // The actual World will be instantiated and configured when the "Start Game" button
@@ -0,0 +1,109 @@
+package controller;
+
+import model.Difficulty;
+import model.DifficultyProfiles;
+import model.Level;
+import model.LevelCodec;
+import model.LevelGenerator;
+import model.LevelPackWriter;
+import model.LevelReport;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A command line program that generates level packs without opening the game window.
+ * Levels are generated, validated and encoded in parallel on a fork-join pool, while the main thread
+ * writes them into the pack file in their original order.
+ *
+ * Usage: {@code java controller.LevelPackTool <EASY|MEDIUM|HARD> <firstSeed> <seedCount> [levelsPerSeed] [output] [threads]}
+ * The levels are generated with the difficulty profile file named by {@value DifficultyProfiles#FILE_PROPERTY}, if set.
+ */
+public class LevelPackTool {
+
+    /** The number of tasks that may be ahead of the writer per thread. Bounds the memory used for finished levels. */
+    private static final int TASKS_AHEAD_PER_THREAD = 4;
+
+    /**
+     * The entry point of the level pack generator.
+     *
+     * @param args The difficulty, the first seed, the number of seeds, and optionally the number of levels
+     *             per seed (default 1), the output file (default levels.lpk) and the number of threads
+     *             (default: all cores).
+     * @throws IOException if the pack file cannot be written or the difficulty profile file cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: LevelPackTool <EASY|MEDIUM|HARD> <firstSeed> <seedCount> [levelsPerSeed] [output] [threads]");
+            System.exit(1);
+        }
+        Difficulty difficulty = Difficulty.valueOf(args[0].toUpperCase());
+        long firstSeed = Long.parseLong(args[1]);
+        int seedCount = Integer.parseInt(args[2]);
+        int levelsPerSeed = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+        Path output = Paths.get(args.length > 4 ? args[4] : "levels.lpk");
+        int threads = args.length > 5 ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors();
+        long total = (long) seedCount * levelsPerSeed;
+        DifficultyProfiles.configure(false); // Loaded once, a pack must not mix profiles
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        AtomicInteger rejected = new AtomicInteger();
+        ArrayDeque<ForkJoinTask<byte[]>> pending = new ArrayDeque<>();
+        long next = 0;
+        long start = System.nanoTime();
+        LevelPackWriter writer = new LevelPackWriter(output);
+        try {
+            while (next < total || !pending.isEmpty()) {
+                // Keep every thread busy, but do not run too far ahead of the writer
+                while (next < total && pending.size() < threads * TASKS_AHEAD_PER_THREAD) {
+                    long seed = firstSeed + next / levelsPerSeed;
+                    int levelNumber = (int) (next % levelsPerSeed) + 1;
+                    pending.add(pool.submit(() -> generate(difficulty, levelNumber, seed, rejected)));
+                    next++;
+                }
+                byte[] encoded = pending.poll().join();
+                if (encoded != null) {
+                    writer.add(encoded);
+                }
+            }
+        } finally {
+            writer.close();
+            pool.shutdown();
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double megabytes = writer.getBytesWritten() / (1024.0 * 1024.0);
+        System.out.printf("Wrote %d levels (%d rejected) to %s: %.1f MB in %.2f s with %d threads%n",
+                writer.getCount(), rejected.get(), output, megabytes, seconds, threads);
+        System.out.printf("Throughput: %.0f levels/s, %.1f MB/s%n", writer.getCount() / seconds, megabytes / seconds);
+    }
+
+    /**
+     * Generates, validates and encodes one level. Runs on a pool thread. Levels that miss a quality criterion
+     * of the difficulty (exit reachable, way to it long enough, dead ends and corridors within limits) are rejected.
+     *
+     * @param difficulty The difficulty of the level.
+     * @param levelNumber The level number.
+     * @param seed The game seed.
+     * @param rejected Counts levels that fail the validation.
+     * @return The encoded level, or null if it failed the validation.
+     */
+    private static byte[] generate(Difficulty difficulty, int levelNumber, long seed, AtomicInteger rejected) {
+        Level level = new LevelGenerator().generate(difficulty, levelNumber, seed);
+        try {
+            LevelReport report = level.analyze();
+            if (!report.isInBand(difficulty, level.getWidth(), level.getHeight())) {
+                rejected.incrementAndGet();
+                return null;
+            }
+            return LevelCodec.encode(level);
+        } finally {
+            level.dispose(); // Huge levels are stored off the heap until they are disposed
+        }
+    }
+}
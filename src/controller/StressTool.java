@@ -0,0 +1,270 @@
+package controller;
+
+import model.Difficulty;
+import model.DifficultyProfiles;
+import model.Direction;
+import model.Effect;
+import model.LevelPregenerator;
+import model.LevelStore;
+import model.World;
+import view.GraphicView;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.Random;
+
+/**
+ * A command line program that finds how large a game this machine can run. Starting from the first level of a
+ * difficulty, the world size and the share of enemies grow geometrically from stage to stage, until the game ticks
+ * or the frames take longer than their budget. Every stage reports the time spent in the {@link World} methods of
+ * a tick and in painting a frame, and the run ends with the largest stage that stayed within the budget,
+ * so builds can be compared by a single number.
+ *
+ * Usage: {@code java controller.StressTool [EASY|MEDIUM|HARD] [tickBudgetMicros] [frameBudgetMillis] [growth] [seed]}
+ *
+ * The stages are set up with difficulty profiles (see {@link DifficultyProfiles}), starting from the profile file
+ * named by {@value DifficultyProfiles#FILE_PROPERTY} if it is set. Run with {@code -Dlabyrinth.activityZone=false}
+ * to let every enemy move, not only those near the player, and with {@code -Djava.awt.headless=true} on machines
+ * without a display.
+ */
+public class StressTool {
+
+    /** The game time of one tick in milliseconds, the same as in the {@link GameServer}. */
+    private static final int TICK_MILLIS = GameServer.TICK_MILLIS;
+    /** The number of ticks run before the measurement of a stage starts, so the JIT compiler can catch up. */
+    private static final int WARMUP_TICKS = 200;
+    /** The number of ticks measured per stage. */
+    private static final int MEASURED_TICKS = 400;
+    /** The number of frames painted before the measurement, which fill the caches of the view for the level. */
+    private static final int WARMUP_FRAMES = 10;
+    /** The number of frames painted per stage. */
+    private static final int MEASURED_FRAMES = 50;
+    /** The pixel size of a tile, the same as in the game window. */
+    private static final int TILE_PIXELS = 45;
+    /** The share of enemies used if the difficulty starts without enemies. */
+    private static final double MIN_ENEMY_PERCENTAGE = 0.01;
+    /** The largest share of enemies. Enemies are placed on free floor cells, so there must always be some left. */
+    private static final double MAX_ENEMY_PERCENTAGE = 0.3;
+    /** The largest world size, above which the number of cells no longer fits into an int. */
+    private static final int MAX_SIZE = 46_339;
+    /** The longest time to wait for the distance field of a stage, in milliseconds. */
+    private static final long DISTANCE_FIELD_TIMEOUT_MILLIS = 120_000;
+
+    /**
+     * The entry point of the stress test.
+     *
+     * @param args Optionally the difficulty to start from (default HARD), the budget of the 99th percentile of a
+     *             tick in microseconds (default 1000), the budget of the 99th percentile of a frame in milliseconds
+     *             (default 16), the growth factor per stage (default 1.5) and the seed (default 1).
+     * @throws IOException if the difficulty profile file cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        Difficulty difficulty = Difficulty.valueOf(args.length > 0 ? args[0].toUpperCase() : "HARD");
+        long tickBudgetNanos = (args.length > 1 ? Long.parseLong(args[1]) : 1000) * 1_000L;
+        long frameBudgetNanos = (args.length > 2 ? Long.parseLong(args[2]) : 16) * 1_000_000L;
+        double growth = args.length > 3 ? Double.parseDouble(args[3]) : 1.5;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 1;
+        if (growth <= 1) {
+            throw new IllegalArgumentException("The growth factor must be larger than 1: " + growth);
+        }
+
+        // Nothing may run besides the measured game: no level is generated ahead, and old stages are not cached
+        LevelPregenerator.setEnabled(false);
+        if (System.getProperty(LevelStore.CACHE_BYTES_PROPERTY) == null) {
+            System.setProperty(LevelStore.CACHE_BYTES_PROPERTY, "0");
+        }
+        Properties baseProfiles = new Properties();
+        String profileFile = System.getProperty(DifficultyProfiles.FILE_PROPERTY);
+        if (profileFile != null) {
+            try (Reader reader = Files.newBufferedReader(Paths.get(profileFile))) {
+                baseProfiles.load(reader);
+            }
+            DifficultyProfiles.load(baseProfiles);
+        }
+
+        double size = difficulty.getScaledWorldSize(1, new Random(seed));
+        double enemyPercentage = Math.min(Math.max(difficulty.getScaledEnemyPercentage(1), MIN_ENEMY_PERCENTAGE),
+                MAX_ENEMY_PERCENTAGE);
+        GraphicView view = new GraphicView(new Dimension(TILE_PIXELS, TILE_PIXELS));
+        Dimension frameSize = view.getPreferredSize();
+        view.setSize(frameSize);
+        BufferedImage frame = new BufferedImage(frameSize.width, frameSize.height, BufferedImage.TYPE_INT_RGB);
+        System.out.printf("Stress test from %s, budgets: tick %.0f us, frame %.1f ms (99th percentile), growth %.2f%n",
+                difficulty, tickBudgetNanos / 1e3, frameBudgetNanos / 1e6, growth);
+
+        String capacity = null;
+        for (int stage = 1; ; stage++) {
+            int worldSize = (int) Math.min(Math.round(size), MAX_SIZE) | 1; // Mazes have an odd size
+            Properties profiles = new Properties();
+            profiles.putAll(baseProfiles);
+            String prefix = difficulty.name() + ".";
+            profiles.setProperty(prefix + "baseSize", Integer.toString(worldSize));
+            profiles.setProperty(prefix + "sizeVariance", "0");
+            profiles.setProperty(prefix + "levelSizeIncrement", "0");
+            profiles.setProperty(prefix + "enemyPercentage", Double.toString(enemyPercentage));
+            profiles.setProperty(prefix + "levelEnemyPercentageIncrement", "0");
+            profiles.setProperty(prefix + "maxEnemyPercentage", Double.toString(MAX_ENEMY_PERCENTAGE));
+            DifficultyProfiles.load(profiles);
+
+            String failure;
+            try {
+                failure = runStage(stage, difficulty, seed, view, frame, tickBudgetNanos, frameBudgetNanos);
+            } catch (OutOfMemoryError e) {
+                failure = "out of memory";
+            }
+            if (failure != null) {
+                System.out.printf("Breaking point: stage %d, %dx%d: %s%n", stage, worldSize, worldSize, failure);
+                break;
+            }
+            capacity = String.format("%dx%d (%d cells) with %.3f enemies per cell",
+                    worldSize, worldSize, (long) worldSize * worldSize, enemyPercentage);
+            if (worldSize >= MAX_SIZE) {
+                System.out.println("Reached the largest world size without breaking a budget");
+                break;
+            }
+            size *= growth;
+            enemyPercentage = Math.min(enemyPercentage * growth, MAX_ENEMY_PERCENTAGE);
+        }
+        System.out.println("Capacity: " + (capacity == null ? "none, the first stage already breaks a budget" : capacity));
+    }
+
+    /**
+     * Runs one stage: generates the level, waits for its distance field, runs the game ticks and paints frames,
+     * and prints the timings. The player walks around randomly, but never onto the exit, and stays invincible,
+     * so the level is played all the time.
+     *
+     * @param stage The number of the stage.
+     * @param difficulty The difficulty whose profile was set up for the stage.
+     * @param seed The seed of the game.
+     * @param view The view the frames are painted with.
+     * @param frame The image the frames are painted into.
+     * @param tickBudgetNanos The budget of the 99th percentile of a tick.
+     * @param frameBudgetNanos The budget of the 99th percentile of a frame.
+     * @return Why the stage breaks a budget, or null if it does not.
+     */
+    private static String runStage(int stage, Difficulty difficulty, long seed, GraphicView view, BufferedImage frame,
+                                   long tickBudgetNanos, long frameBudgetNanos) {
+        System.gc(); // Do not let the garbage of the previous stage be collected during this one
+        long start = System.nanoTime();
+        World world = new World(difficulty, seed);
+        long restartNanos = System.nanoTime() - start;
+        try {
+            world.startEffect(Effect.INVINCIBLE, Long.MAX_VALUE / 4);
+            long fieldStart = System.nanoTime();
+            while (world.getPathDistanceToEnd() < 0) {
+                if (System.nanoTime() - fieldStart > DISTANCE_FIELD_TIMEOUT_MILLIS * 1_000_000L) {
+                    return "the distance field was not ready after " + DISTANCE_FIELD_TIMEOUT_MILLIS + " ms";
+                }
+                try {
+                    Thread.sleep(1); // Leave the core to the thread computing the field
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return "interrupted";
+                }
+            }
+            long fieldNanos = System.nanoTime() - fieldStart;
+
+            Random moves = new Random(seed);
+            for (int i = 0; i < WARMUP_TICKS; i++) {
+                tick(world, moves, null);
+            }
+            long[] phaseNanos = new long[3];
+            long[] tickNanos = new long[MEASURED_TICKS];
+            for (int i = 0; i < MEASURED_TICKS; i++) {
+                tickNanos[i] = tick(world, moves, phaseNanos);
+            }
+            view.update(world);
+            long[] frameNanos = new long[MEASURED_FRAMES];
+            for (int i = -WARMUP_FRAMES; i < MEASURED_FRAMES; i++) {
+                tick(world, moves, null);
+                Graphics2D graphics = frame.createGraphics();
+                long frameStart = System.nanoTime();
+                view.paint(graphics);
+                if (i >= 0) {
+                    frameNanos[i] = System.nanoTime() - frameStart;
+                }
+                graphics.dispose();
+            }
+
+            long tickP99 = percentile(tickNanos, 0.99);
+            long frameP99 = percentile(frameNanos, 0.99);
+            System.out.printf("Stage %d: %dx%d, %d enemies (%d awake) | restart %.1f ms, distance field %.1f ms"
+                            + " | tick mean %.1f us, p99 %.1f us (movePlayer %.1f, updateEnemies %.1f, updateEffects %.1f us)"
+                            + " | frame mean %.2f ms, p99 %.2f ms%n",
+                    stage, world.getWidth(), world.getHeight(), world.getEnemies().size(), world.getAwakeEnemyCount(),
+                    restartNanos / 1e6, fieldNanos / 1e6,
+                    mean(tickNanos) / 1e3, tickP99 / 1e3, phaseNanos[0] / 1e3 / MEASURED_TICKS,
+                    phaseNanos[1] / 1e3 / MEASURED_TICKS, phaseNanos[2] / 1e3 / MEASURED_TICKS,
+                    mean(frameNanos) / 1e6, frameP99 / 1e6);
+            if (tickP99 > tickBudgetNanos) {
+                return String.format("tick p99 %.1f us over the budget of %.0f us", tickP99 / 1e3, tickBudgetNanos / 1e3);
+            }
+            if (frameP99 > frameBudgetNanos) {
+                return String.format("frame p99 %.2f ms over the budget of %.1f ms", frameP99 / 1e6, frameBudgetNanos / 1e6);
+            }
+            return null;
+        } finally {
+            world.dispose();
+        }
+    }
+
+    /**
+     * Runs one game tick like the game server: a player move, then the enemies and the power-up effects.
+     *
+     * @param world The world.
+     * @param moves The random number generator choosing the player's moves.
+     * @param phaseNanos The time spent in the three phases is added here, or null if the tick is not measured.
+     * @return The time of the whole tick in nanoseconds.
+     */
+    private static long tick(World world, Random moves, long[] phaseNanos) {
+        Direction direction = Direction.values()[1 + moves.nextInt(4)];
+        if (world.getPlayerX() + direction.deltaX == world.getEndX()
+                && world.getPlayerY() + direction.deltaY == world.getEndY()) {
+            direction = Direction.NONE; // Reaching the exit would start the next level in the middle of the stage
+        }
+        long start = System.nanoTime();
+        world.movePlayer(direction);
+        long moved = System.nanoTime();
+        world.updateEnemies(TICK_MILLIS);
+        long enemiesUpdated = System.nanoTime();
+        world.updateEffects(TICK_MILLIS);
+        long end = System.nanoTime();
+        if (phaseNanos != null) {
+            phaseNanos[0] += moved - start;
+            phaseNanos[1] += enemiesUpdated - moved;
+            phaseNanos[2] += end - enemiesUpdated;
+        }
+        return end - start;
+    }
+
+    /**
+     * Returns a percentile of measured times.
+     * @param nanos The times, sorted by this method.
+     * @param fraction The percentile as a fraction between 0 and 1.
+     * @return The smallest time that is not exceeded by the given fraction of the times.
+     */
+    private static long percentile(long[] nanos, double fraction) {
+        Arrays.sort(nanos);
+        return nanos[Math.min(nanos.length - 1, (int) Math.ceil(nanos.length * fraction) - 1)];
+    }
+
+    /**
+     * Returns the mean of measured times.
+     * @param nanos The times.
+     * @return The mean time in nanoseconds.
+     */
+    private static double mean(long[] nanos) {
+        long sum = 0;
+        for (long value : nanos) {
+            sum += value;
+        }
+        return (double) sum / nanos.length;
+    }
+}
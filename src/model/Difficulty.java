@@ -1,6 +1,7 @@
 package model;
 
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * The Difficulty enum defines various difficulty settings for the Labyrinth game.
@@ -8,27 +9,20 @@ import java.util.Random;
  * such as size, wall density, enemy density, and enemy movement speed.
  * It also provides methods to scale these parameters based on the current game level,
  * making the game progressively harder.
+ * The parameters are kept in a {@link DifficultyProfile}, which can be replaced from a file at runtime.
  */
 public enum Difficulty {
     /** Easy difficulty setting. */
-    EASY(25, 2, 0.6, 0.0, 1500),
+    EASY(25, 2, 0.6, 0.0, 1500, 0.15, 0.03, 0.28),
     /** Medium difficulty setting. */
-    MEDIUM(35, 3, 0.5, 0.02, 1000),
+    MEDIUM(35, 3, 0.5, 0.02, 1000, 0.2, 0.03, 0.38),
     /** Hard difficulty setting. */
-    HARD(45, 4, 0.4, 0.03, 750);
-
-    /** The base size (width/height) of the world for this difficulty. */
-    private final int baseSize;
-    /** The variance added to the base size to create slightly different maze dimensions. */
-    private final int sizeVariance;
-    /** The initial percentage of walls to remove during maze generation for more open paths. */
-    private final double wallPercentage;
-    /** The initial percentage of enemies to spawn relative to the world size. */
-    private final double enemyPercentage;
-    /** The initial interval (in milliseconds) at which enemies move. */
-    private final long enemyMoveIntervalMillis;
-    /** A static Random instance used for generating random values related to difficulty. */
-    private static final Random rand = new Random();
+    HARD(45, 4, 0.4, 0.03, 750, 0.25, 0.035, 0.48);
+
+    /** The built-in parameters of this difficulty. */
+    private final DifficultyProfile defaultProfile;
+    /** The parameters in use, either the built-in ones or those loaded by {@link DifficultyProfiles}. */
+    private volatile DifficultyProfile profile;
 
     // Scaling Constants
     /** Amount by which world size increases per level. */
@@ -55,13 +49,42 @@ public enum Difficulty {
      * @param wallPercentage The percentage of walls to remove.
      * @param enemyPercentage The percentage of enemies to spawn.
      * @param enemyMoveIntervalMillis The delay between enemy moves in milliseconds.
+     * @param minPathFactor The minimum length of the way to the exit, relative to width plus height.
+     * @param maxDeadEndShare The largest share of the reachable floor that may be dead ends.
+     * @param maxCorridorShare The largest share of the reachable floor that may be corridor cells.
+     */
+    Difficulty(int baseSize, int sizeVariance, double wallPercentage, double enemyPercentage, long enemyMoveIntervalMillis,
+               double minPathFactor, double maxDeadEndShare, double maxCorridorShare) {
+        this.defaultProfile = new DifficultyProfile(baseSize, sizeVariance, wallPercentage, enemyPercentage,
+                enemyMoveIntervalMillis, minPathFactor, maxDeadEndShare, maxCorridorShare, LEVEL_SIZE_INCREMENT, LEVEL_WALL_PERCENTAGE_INCREMENT,
+                LEVEL_ENEMY_PERCENTAGE_INCREMENT, LEVEL_SPEED_DECREMENT, MIN_ENEMY_MOVE_INTERVAL, MIN_WALL_PERCENTAGE,
+                MAX_ENEMY_PERCENTAGE);
+        this.profile = defaultProfile;
+    }
+
+    /**
+     * Returns the parameters in use. Levels and enemy speeds are calculated from the profile
+     * that is current when they are needed, so a new profile takes effect from the next level.
+     * @return The current profile.
+     */
+    public DifficultyProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Returns the built-in parameters of this difficulty.
+     * @return The profile used when no profile file is loaded.
      */
-    Difficulty(int baseSize, int sizeVariance, double wallPercentage, double enemyPercentage, long enemyMoveIntervalMillis) {
-        this.baseSize = baseSize;
-        this.sizeVariance = sizeVariance;
-        this.wallPercentage = wallPercentage;
-        this.enemyPercentage = enemyPercentage;
-        this.enemyMoveIntervalMillis = enemyMoveIntervalMillis;
+    public DifficultyProfile getDefaultProfile() {
+        return defaultProfile;
+    }
+
+    /**
+     * Replaces the parameters in use.
+     * @param profile The new profile.
+     */
+    void setProfile(DifficultyProfile profile) {
+        this.profile = profile;
     }
 
     /**
@@ -71,7 +94,8 @@ public enum Difficulty {
      * @return A randomly generated world dimension based on difficulty.
      */
     public int generateRandomSize() {
-        return baseSize + rand.nextInt(sizeVariance + 1) * 2;
+        DifficultyProfile profile = this.profile;
+        return profile.baseSize + ThreadLocalRandom.current().nextInt(profile.sizeVariance + 1) * 2;
     }
 
     /**
@@ -79,7 +103,7 @@ public enum Difficulty {
      * @return The initial wall removal percentage.
      */
     public double getWallPercentage() {
-        return wallPercentage;
+        return profile.wallPercentage;
     }
 
     /**
@@ -87,7 +111,7 @@ public enum Difficulty {
      * @return The initial enemy spawn percentage.
      */
     public double getEnemyPercentage() {
-        return enemyPercentage;
+        return profile.enemyPercentage;
     }
 
     /**
@@ -95,7 +119,7 @@ public enum Difficulty {
      * @return The initial enemy movement interval.
      */
     public long getEnemyMoveIntervalMillis() {
-        return enemyMoveIntervalMillis;
+        return profile.enemyMoveIntervalMillis;
     }
 
     /**
@@ -106,49 +130,98 @@ public enum Difficulty {
      * @return The calculated scaled world size.
      */
     public int getScaledWorldSize(int level) {
+        return getScaledWorldSize(level, ThreadLocalRandom.current());
+    }
+
+    /**
+     * Calculates the scaled world size for a given game level, drawing the size variance
+     * from the given random number generator. Used for reproducible, seeded levels.
+     *
+     * @param level The current game level
+     * @param random The random number generator used for the size variance.
+     * @return The calculated scaled world size.
+     */
+    public int getScaledWorldSize(int level, Random random) {
+        DifficultyProfile profile = this.profile;
         // Size increasement with level, size will be also an odd number
-        int scaledSize = baseSize + (level - 1) * LEVEL_SIZE_INCREMENT;
+        int scaledSize = profile.baseSize + (level - 1) * profile.levelSizeIncrement;
         // Still add random variance and after that it also the size should be odd.
-        int finalSize = scaledSize + rand.nextInt(sizeVariance + 1) * 2;
+        int finalSize = scaledSize + random.nextInt(profile.sizeVariance + 1) * 2;
         return (finalSize % 2 == 0) ? finalSize + 1 : finalSize; // make sure it's odd
     }
 
     /**
      * Calculates the scaled wall removal percentage for a given game level.
      * The percentage decreases with each level, making mazes denser (fewer removed walls).
-     * The value is capped at 20%
+     * The value is capped at the profile's minimum (20% by default).
      *
      * @param level The current game level.
      * @return The calculated scaled wall removal percentage.
      */
     public double getScaledWallPercentage(int level) {
-        double scaled = wallPercentage - (level - 1) * LEVEL_WALL_PERCENTAGE_INCREMENT;
-        return Math.max(scaled, MIN_WALL_PERCENTAGE);
+        DifficultyProfile profile = this.profile;
+        double scaled = profile.wallPercentage - (level - 1) * profile.levelWallPercentageIncrement;
+        return Math.max(scaled, profile.minWallPercentage);
+    }
+
+    /**
+     * Returns the minimum length of the shortest way from the player to the exit for a maze of the given size.
+     * Generated levels with a shorter way get a new exit.
+     *
+     * @param width The width of the maze.
+     * @param height The height of the maze.
+     * @return The minimum number of steps to the exit.
+     */
+    public int getMinPathLength(int width, int height) {
+        return (int) ((width + height) * profile.minPathFactor);
+    }
+
+    /**
+     * Returns the largest number of dead ends a maze may have. Generated levels with more dead ends get more walls opened.
+     *
+     * @param reachableCells The number of floor cells that can be reached from the player's start.
+     * @return The maximum number of dead ends.
+     */
+    public int getMaxDeadEnds(int reachableCells) {
+        return (int) (reachableCells * profile.maxDeadEndShare);
+    }
+
+    /**
+     * Returns the largest number of corridor cells a maze may have. Generated levels with more corridor cells
+     * get more walls opened.
+     *
+     * @param reachableCells The number of floor cells that can be reached from the player's start.
+     * @return The maximum number of corridor cells.
+     */
+    public int getMaxCorridorCells(int reachableCells) {
+        return (int) (reachableCells * profile.maxCorridorShare);
     }
 
     /**
      * Calculates the scaled enemy spawn percentage for a given game level.
      * The percentage increases with each level, leading to more enemies.
-     * The value is capped at 0.20.
+     * The value is capped at the profile's maximum (0.20 by default).
      *
      * @param level The current game level.
      * @return The calculated scaled enemy spawn percentage.
      */
     public double getScaledEnemyPercentage(int level) {
-        double scaled = enemyPercentage + (level - 1) * LEVEL_ENEMY_PERCENTAGE_INCREMENT;
-        return Math.min(scaled, MAX_ENEMY_PERCENTAGE); // Cap at max percentage as ScaledWallPercantage
+        DifficultyProfile profile = this.profile;
+        double scaled = profile.enemyPercentage + (level - 1) * profile.levelEnemyPercentageIncrement;
+        return Math.min(scaled, profile.maxEnemyPercentage); // Cap at max percentage as ScaledWallPercantage
     }
 
     /**
      * Calculates the scaled enemy movement interval for a given game level.
      * The interval decreases with each level, making enemies faster.
-     * The value is capped at 150ms.
+     * The value is capped at the profile's minimum (150ms by default).
      *
      * @param level The current game level.
      * @return The calculated scaled enemy movement interval.
      */
     public long getScaledEnemyMoveIntervalMillis(int level) {
-        long scaled = enemyMoveIntervalMillis - (level - 1) * LEVEL_SPEED_DECREMENT;
-        return Math.max(scaled, MIN_ENEMY_MOVE_INTERVAL); // Ensure it doesn't go below minimum
+        DifficultyProfile profile = this.profile;
+        long scaled = profile.enemyMoveIntervalMillis - (level - 1) * profile.levelSpeedDecrement;
+        return Math.max(scaled, profile.minEnemyMoveInterval); // Ensure it doesn't go below minimum
     }
 }
@@ -0,0 +1,257 @@
+package model;
+
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * A DifficultyProfile holds all parameters of a {@link Difficulty}: the base values of the first level
+ * and the amounts by which they change with every further level.
+ * Profiles are immutable, so a profile can be replaced while levels are generated and games are running
+ * without anybody seeing half of an update.
+ */
+public final class DifficultyProfile {
+
+	/** The names of all parameters, as used in profile files. */
+	static final Set<String> KEYS = Set.of("baseSize", "sizeVariance", "wallPercentage", "enemyPercentage",
+			"enemyMoveIntervalMillis", "minPathFactor", "maxDeadEndShare", "maxCorridorShare", "levelSizeIncrement", "levelWallPercentageIncrement",
+			"levelEnemyPercentageIncrement", "levelSpeedDecrement", "minEnemyMoveInterval", "minWallPercentage",
+			"maxEnemyPercentage");
+
+	/** The base size (width/height) of the world. */
+	final int baseSize;
+	/** The variance added to the base size to create slightly different maze dimensions. */
+	final int sizeVariance;
+	/** The initial percentage of walls to remove during maze generation for more open paths. */
+	final double wallPercentage;
+	/** The initial percentage of enemies to spawn relative to the world size. */
+	final double enemyPercentage;
+	/** The initial interval (in milliseconds) at which enemies move. */
+	final long enemyMoveIntervalMillis;
+	/** The minimum length of the way to the exit, relative to the sum of the maze's width and height. */
+	final double minPathFactor;
+	/** The largest share of the reachable floor cells that may be dead ends. */
+	final double maxDeadEndShare;
+	/** The largest share of the reachable floor cells that may be corridor cells. */
+	final double maxCorridorShare;
+	/** Amount by which world size increases per level. */
+	final int levelSizeIncrement;
+	/** Amount by which wall removal percentage decreases per level (makes mazes denser). */
+	final double levelWallPercentageIncrement;
+	/** Amount by which enemy spawn percentage increases per level. */
+	final double levelEnemyPercentageIncrement;
+	/** Amount by which enemy move interval decreases per level (makes enemies faster). */
+	final long levelSpeedDecrement;
+	/** The minimum allowed enemy move interval (prevents enemies from becoming impossibly fast). */
+	final long minEnemyMoveInterval;
+	/** The minimum allowed wall removal percentage to prevent completely solid mazes. */
+	final double minWallPercentage;
+	/** The maximum allowed enemy percentage to prevent overly crowded mazes. */
+	final double maxEnemyPercentage;
+
+	/**
+	 * Creates a new profile.
+	 *
+	 * @param baseSize The base dimension for the labyrinth.
+	 * @param sizeVariance The random variance added to the base size.
+	 * @param wallPercentage The percentage of walls to remove.
+	 * @param enemyPercentage The percentage of enemies to spawn.
+	 * @param enemyMoveIntervalMillis The delay between enemy moves in milliseconds.
+	 * @param minPathFactor The minimum length of the way to the exit, relative to width plus height.
+	 * @param maxDeadEndShare The largest share of the reachable floor that may be dead ends.
+	 * @param maxCorridorShare The largest share of the reachable floor that may be corridor cells.
+	 * @param levelSizeIncrement The growth of the world size per level.
+	 * @param levelWallPercentageIncrement The decrease of the wall removal percentage per level.
+	 * @param levelEnemyPercentageIncrement The increase of the enemy percentage per level.
+	 * @param levelSpeedDecrement The decrease of the enemy move interval per level.
+	 * @param minEnemyMoveInterval The lower bound of the enemy move interval.
+	 * @param minWallPercentage The lower bound of the wall removal percentage.
+	 * @param maxEnemyPercentage The upper bound of the enemy percentage.
+	 * @throws IllegalArgumentException if a value would break level generation.
+	 */
+	DifficultyProfile(int baseSize, int sizeVariance, double wallPercentage, double enemyPercentage,
+			long enemyMoveIntervalMillis, double minPathFactor, double maxDeadEndShare, double maxCorridorShare,
+			int levelSizeIncrement,
+			double levelWallPercentageIncrement, double levelEnemyPercentageIncrement, long levelSpeedDecrement,
+			long minEnemyMoveInterval, double minWallPercentage, double maxEnemyPercentage) {
+		check(baseSize >= 5, "baseSize", baseSize);
+		check(sizeVariance >= 0, "sizeVariance", sizeVariance);
+		check(wallPercentage >= 0 && wallPercentage <= 1, "wallPercentage", wallPercentage);
+		check(enemyPercentage >= 0 && enemyPercentage <= 1, "enemyPercentage", enemyPercentage);
+		check(enemyMoveIntervalMillis > 0, "enemyMoveIntervalMillis", enemyMoveIntervalMillis);
+		check(minPathFactor >= 0 && minPathFactor <= 1, "minPathFactor", minPathFactor);
+		check(maxDeadEndShare >= 0 && maxDeadEndShare <= 1, "maxDeadEndShare", maxDeadEndShare);
+		check(maxCorridorShare >= 0 && maxCorridorShare <= 1, "maxCorridorShare", maxCorridorShare);
+		check(levelSizeIncrement >= 0, "levelSizeIncrement", levelSizeIncrement);
+		check(Double.isFinite(levelWallPercentageIncrement), "levelWallPercentageIncrement", levelWallPercentageIncrement);
+		check(Double.isFinite(levelEnemyPercentageIncrement), "levelEnemyPercentageIncrement", levelEnemyPercentageIncrement);
+		check(levelSpeedDecrement >= 0, "levelSpeedDecrement", levelSpeedDecrement);
+		check(minEnemyMoveInterval > 0, "minEnemyMoveInterval", minEnemyMoveInterval);
+		check(minWallPercentage >= 0 && minWallPercentage <= 1, "minWallPercentage", minWallPercentage);
+		check(maxEnemyPercentage >= 0 && maxEnemyPercentage <= 1, "maxEnemyPercentage", maxEnemyPercentage);
+		this.baseSize = baseSize;
+		this.sizeVariance = sizeVariance;
+		this.wallPercentage = wallPercentage;
+		this.enemyPercentage = enemyPercentage;
+		this.enemyMoveIntervalMillis = enemyMoveIntervalMillis;
+		this.minPathFactor = minPathFactor;
+		this.maxDeadEndShare = maxDeadEndShare;
+		this.maxCorridorShare = maxCorridorShare;
+		this.levelSizeIncrement = levelSizeIncrement;
+		this.levelWallPercentageIncrement = levelWallPercentageIncrement;
+		this.levelEnemyPercentageIncrement = levelEnemyPercentageIncrement;
+		this.levelSpeedDecrement = levelSpeedDecrement;
+		this.minEnemyMoveInterval = minEnemyMoveInterval;
+		this.minWallPercentage = minWallPercentage;
+		this.maxEnemyPercentage = maxEnemyPercentage;
+	}
+
+	/**
+	 * Throws an exception naming the parameter if a value is out of range.
+	 *
+	 * @param valid Whether the value is in range.
+	 * @param key The name of the parameter.
+	 * @param value The value.
+	 */
+	private static void check(boolean valid, String key, Object value) {
+		if (!valid) {
+			throw new IllegalArgumentException("Invalid " + key + ": " + value);
+		}
+	}
+
+	/**
+	 * Creates a profile that takes its parameters from properties and every parameter not given there from this profile.
+	 * A parameter is looked up under {@code <prefix>.<name>} first, e.g. {@code HARD.baseSize},
+	 * and then under its plain name, so that a plain entry applies to all difficulties.
+	 *
+	 * @param properties The properties to read.
+	 * @param prefix The prefix of the parameters of this difficulty, e.g. its name.
+	 * @return The new profile, or this profile if the properties do not change any parameter.
+	 * @throws IllegalArgumentException if a value is not a number or out of range.
+	 */
+	DifficultyProfile with(Properties properties, String prefix) {
+		DifficultyProfile profile = new DifficultyProfile(
+				(int) readWhole(properties, prefix, "baseSize", baseSize),
+				(int) readWhole(properties, prefix, "sizeVariance", sizeVariance),
+				read(properties, prefix, "wallPercentage", wallPercentage),
+				read(properties, prefix, "enemyPercentage", enemyPercentage),
+				readWhole(properties, prefix, "enemyMoveIntervalMillis", enemyMoveIntervalMillis),
+				read(properties, prefix, "minPathFactor", minPathFactor),
+				read(properties, prefix, "maxDeadEndShare", maxDeadEndShare),
+				read(properties, prefix, "maxCorridorShare", maxCorridorShare),
+				(int) readWhole(properties, prefix, "levelSizeIncrement", levelSizeIncrement),
+				read(properties, prefix, "levelWallPercentageIncrement", levelWallPercentageIncrement),
+				read(properties, prefix, "levelEnemyPercentageIncrement", levelEnemyPercentageIncrement),
+				readWhole(properties, prefix, "levelSpeedDecrement", levelSpeedDecrement),
+				readWhole(properties, prefix, "minEnemyMoveInterval", minEnemyMoveInterval),
+				read(properties, prefix, "minWallPercentage", minWallPercentage),
+				read(properties, prefix, "maxEnemyPercentage", maxEnemyPercentage));
+		return profile.equals(this) ? this : profile;
+	}
+
+	/**
+	 * Reads one parameter.
+	 *
+	 * @param properties The properties to read.
+	 * @param prefix The prefix of the difficulty.
+	 * @param key The name of the parameter.
+	 * @param fallback The value if the parameter is not given.
+	 * @return The value of the parameter.
+	 * @throws IllegalArgumentException if the value is not a number.
+	 */
+	private static double read(Properties properties, String prefix, String key, double fallback) {
+		String name = properties.containsKey(prefix + "." + key) ? prefix + "." + key : key;
+		String value = properties.getProperty(name);
+		if (value == null) {
+			return fallback;
+		}
+		try {
+			return Double.parseDouble(value.trim());
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid " + name + ": " + value);
+		}
+	}
+
+	/**
+	 * Reads one whole-number parameter.
+	 *
+	 * @param properties The properties to read.
+	 * @param prefix The prefix of the difficulty.
+	 * @param key The name of the parameter.
+	 * @param fallback The value if the parameter is not given.
+	 * @return The value of the parameter.
+	 * @throws IllegalArgumentException if the value is not a whole number.
+	 */
+	private static long readWhole(Properties properties, String prefix, String key, long fallback) {
+		String name = properties.containsKey(prefix + "." + key) ? prefix + "." + key : key;
+		String value = properties.getProperty(name);
+		if (value == null) {
+			return fallback;
+		}
+		try {
+			return Integer.parseInt(value.trim());
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid " + name + ": " + value);
+		}
+	}
+
+	/**
+	 * Returns a short fingerprint of the parameters that change generated levels.
+	 * Levels generated with different fingerprints must not be mixed up in caches.
+	 * The enemy speed parameters are left out, they are applied while playing.
+	 * @return The fingerprint as a hexadecimal number.
+	 */
+	public String getFingerprint() {
+		long hash = baseSize;
+		hash = hash * 31 + sizeVariance;
+		hash = hash * 31 + Double.doubleToLongBits(wallPercentage);
+		hash = hash * 31 + Double.doubleToLongBits(enemyPercentage);
+		hash = hash * 31 + Double.doubleToLongBits(minPathFactor);
+		hash = hash * 31 + Double.doubleToLongBits(maxDeadEndShare);
+		hash = hash * 31 + Double.doubleToLongBits(maxCorridorShare);
+		hash = hash * 31 + levelSizeIncrement;
+		hash = hash * 31 + Double.doubleToLongBits(levelWallPercentageIncrement);
+		hash = hash * 31 + Double.doubleToLongBits(levelEnemyPercentageIncrement);
+		hash = hash * 31 + Double.doubleToLongBits(minWallPercentage);
+		hash = hash * 31 + Double.doubleToLongBits(maxEnemyPercentage);
+		return Long.toHexString(hash);
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if (!(other instanceof DifficultyProfile profile)) {
+			return false;
+		}
+		return baseSize == profile.baseSize && sizeVariance == profile.sizeVariance
+				&& Double.compare(wallPercentage, profile.wallPercentage) == 0
+				&& Double.compare(enemyPercentage, profile.enemyPercentage) == 0
+				&& enemyMoveIntervalMillis == profile.enemyMoveIntervalMillis
+				&& Double.compare(minPathFactor, profile.minPathFactor) == 0
+				&& Double.compare(maxDeadEndShare, profile.maxDeadEndShare) == 0
+				&& Double.compare(maxCorridorShare, profile.maxCorridorShare) == 0
+				&& levelSizeIncrement == profile.levelSizeIncrement
+				&& Double.compare(levelWallPercentageIncrement, profile.levelWallPercentageIncrement) == 0
+				&& Double.compare(levelEnemyPercentageIncrement, profile.levelEnemyPercentageIncrement) == 0
+				&& levelSpeedDecrement == profile.levelSpeedDecrement
+				&& minEnemyMoveInterval == profile.minEnemyMoveInterval
+				&& Double.compare(minWallPercentage, profile.minWallPercentage) == 0
+				&& Double.compare(maxEnemyPercentage, profile.maxEnemyPercentage) == 0;
+	}
+
+	@Override
+	public int hashCode() {
+		return getFingerprint().hashCode() * 31 + Long.hashCode(enemyMoveIntervalMillis * 961
+				+ levelSpeedDecrement * 31 + minEnemyMoveInterval);
+	}
+
+	@Override
+	public String toString() {
+		return String.format(Locale.ROOT, "size %d+%d (+%d/level), walls removed %.3f (-%.4f/level, min %.3f), "
+						+ "enemies %.3f (+%.4f/level, max %.3f), enemy interval %d ms (-%d/level, min %d), path factor %.2f, "
+						+ "dead ends max %.3f, corridors max %.3f",
+				baseSize, sizeVariance, levelSizeIncrement, wallPercentage, levelWallPercentageIncrement,
+				minWallPercentage, enemyPercentage, levelEnemyPercentageIncrement, maxEnemyPercentage,
+				enemyMoveIntervalMillis, levelSpeedDecrement, minEnemyMoveInterval, minPathFactor,
+				maxDeadEndShare, maxCorridorShare);
+	}
+}
@@ -0,0 +1,193 @@
+package model;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads the parameters of the difficulties from a properties file, so that difficulty curves can be tuned
+ * without recompiling, and optionally reloads them whenever the file changes while the game is running.
+ * A file contains entries like {@code HARD.baseSize=61} for one difficulty or {@code levelSpeedDecrement=30}
+ * for all of them, using the parameter names of {@link DifficultyProfile}. Parameters that are not given keep
+ * their built-in values. The file is parsed once per change into immutable profiles, which the difficulties
+ * hand out without any further I/O. A file with an error changes nothing.
+ */
+public final class DifficultyProfiles {
+
+	/** System property naming the profile file. The built-in profiles are used if it is not set. */
+	public static final String FILE_PROPERTY = "labyrinth.difficulty.file";
+
+	/** The time without further changes (in milliseconds) after which a changed file is reloaded. */
+	private static final long SETTLE_MILLIS = 200;
+
+	/** The thread watching the profile file, or null if no file is watched. */
+	private static Thread watcher;
+
+	/**
+	 * Not to be instantiated.
+	 */
+	private DifficultyProfiles() {
+	}
+
+	/**
+	 * Loads the profile file named by {@value #FILE_PROPERTY}, if the property is set.
+	 * If the file is watched, errors in it are reported and the file is loaded again as soon as it changes.
+	 * Otherwise an error is thrown to the caller.
+	 *
+	 * @param watch Whether to reload the file whenever it changes.
+	 * @throws IOException if the file cannot be read, or cannot be watched.
+	 * @throws IllegalArgumentException if the file contains an unknown parameter or an invalid value.
+	 */
+	public static void configure(boolean watch) throws IOException {
+		String name = System.getProperty(FILE_PROPERTY);
+		if (name == null) {
+			return;
+		}
+		if (watch) {
+			watch(Paths.get(name));
+		} else {
+			load(Paths.get(name));
+		}
+	}
+
+	/**
+	 * Loads a profile file and replaces the profiles of all difficulties.
+	 * The file is parsed completely before any profile is replaced.
+	 *
+	 * @param file The profile file.
+	 * @return Whether any profile changed.
+	 * @throws IOException if the file cannot be read.
+	 * @throws IllegalArgumentException if the file contains an unknown parameter or an invalid value.
+	 */
+	public static boolean load(Path file) throws IOException {
+		Properties properties = new Properties();
+		try (Reader reader = Files.newBufferedReader(file)) {
+			properties.load(reader);
+		}
+		return load(properties);
+	}
+
+	/**
+	 * Replaces the profiles of all difficulties with those given by properties in the format of a profile file,
+	 * e.g. profiles built by a program. The properties are checked completely before any profile is replaced.
+	 *
+	 * @param properties The parameters.
+	 * @return Whether any profile changed.
+	 * @throws IllegalArgumentException if there is an unknown parameter or an invalid value.
+	 */
+	public static boolean load(Properties properties) {
+		for (String name : properties.stringPropertyNames()) {
+			int dot = name.indexOf('.');
+			if (!DifficultyProfile.KEYS.contains(name.substring(dot + 1)) || dot >= 0 && !isDifficulty(name.substring(0, dot))) {
+				throw new IllegalArgumentException("Unknown parameter " + name);
+			}
+		}
+
+		Difficulty[] difficulties = Difficulty.values();
+		DifficultyProfile[] profiles = new DifficultyProfile[difficulties.length];
+		for (int i = 0; i < difficulties.length; i++) {
+			profiles[i] = difficulties[i].getDefaultProfile().with(properties, difficulties[i].name());
+		}
+		boolean changed = false;
+		for (int i = 0; i < difficulties.length; i++) {
+			if (!profiles[i].equals(difficulties[i].getProfile())) {
+				difficulties[i].setProfile(profiles[i]);
+				changed = true;
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Checks whether a name is the name of a difficulty.
+	 * @param name The name.
+	 * @return Whether a {@link Difficulty} has this name.
+	 */
+	private static boolean isDifficulty(String name) {
+		for (Difficulty difficulty : Difficulty.values()) {
+			if (difficulty.name().equals(name)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Loads a profile file and keeps reloading it on a background thread whenever it is written or replaced.
+	 * The file does not have to exist yet. Running games pick up the new enemy speeds right away,
+	 * new mazes are generated with the new parameters from the next level on.
+	 *
+	 * @param file The profile file.
+	 * @throws IOException if the directory of the file cannot be watched.
+	 * @throws IllegalStateException if a file is already watched.
+	 */
+	public static synchronized void watch(Path file) throws IOException {
+		if (watcher != null) {
+			throw new IllegalStateException("A difficulty profile file is already watched");
+		}
+		Path absolute = file.toAbsolutePath();
+		WatchService service = absolute.getFileSystem().newWatchService();
+		// Editors often save by replacing the file, so the directory is watched instead of the file
+		absolute.getParent().register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+		reload(absolute); // After registering, so that a change in between is not missed
+		watcher = new Thread(() -> watchLoop(service, absolute), "difficulty-watcher");
+		watcher.setDaemon(true); // Never keep the application alive just for the watcher
+		watcher.start();
+	}
+
+	/**
+	 * Waits for changes of the profile file and reloads it.
+	 *
+	 * @param service The watch service the directory of the file is registered with.
+	 * @param file The absolute path of the profile file.
+	 */
+	private static void watchLoop(WatchService service, Path file) {
+		try {
+			boolean changed = false;
+			while (true) {
+				// While the file is being written, e.g. truncated and then filled, it is not reloaded half-way
+				WatchKey key = changed ? service.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS) : service.take();
+				if (key == null) {
+					reload(file);
+					changed = false;
+					continue;
+				}
+				for (WatchEvent<?> event : key.pollEvents()) {
+					changed |= event.kind() == StandardWatchEventKinds.OVERFLOW || file.getFileName().equals(event.context());
+				}
+				if (!key.reset()) {
+					System.err.println("Stopped watching " + file + ", its directory is gone");
+					return;
+				}
+			}
+		} catch (InterruptedException | ClosedWatchServiceException e) {
+			// The watcher was stopped
+		}
+	}
+
+	/**
+	 * Loads the profile file and reports the outcome. An unreadable or invalid file keeps the previous profiles.
+	 * @param file The profile file.
+	 */
+	private static void reload(Path file) {
+		try {
+			if (load(file)) {
+				System.out.println("Loaded difficulty profiles from " + file);
+				for (Difficulty difficulty : Difficulty.values()) {
+					System.out.println("  " + difficulty + ": " + difficulty.getProfile());
+				}
+			}
+		} catch (IOException | IllegalArgumentException e) {
+			System.err.println("Could not load difficulty profiles from " + file + ", keeping the previous ones: " + e);
+		}
+	}
+}
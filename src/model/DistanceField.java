@@ -0,0 +1,227 @@
+package model;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Shortest-path distances from every cell of a maze to one target cell (the exit), used for the
+ * distance shown in the HUD and for auto-walk.
+ * The field is built once per level by a breadth-first search from the target. Because neighbouring cells
+ * of a grid differ in distance by exactly one, only the distance modulo 3 has to be stored (2 bits per cell,
+ * packed into {@code long} words like the {@link WallGrid}): the neighbour one step closer to the target is
+ * always the one whose code is one less. This keeps the field small enough for the largest mazes while
+ * the next step and the distance change of a move are still answered in constant time.
+ */
+class DistanceField {
+
+	/** The code of cells that are walls or cannot reach the target. */
+	private static final int UNREACHABLE = 3;
+	/** The number of cells packed into one word. */
+	private static final int CELLS_PER_WORD = 32;
+
+	/** The background thread that builds distance fields while a level is already being played. */
+	private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "distance-field");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/** The width of the maze. */
+	private final int width;
+	/** The height of the maze. */
+	private final int height;
+	/** The X coordinate of the target. */
+	private final int targetX;
+	/** The Y coordinate of the target. */
+	private final int targetY;
+	/** The distance codes (distance modulo 3, or {@link #UNREACHABLE}) of all cells, 2 bits each, row by row. */
+	private final long[] codes;
+
+	/**
+	 * Creates a field in which no cell is reachable yet.
+	 *
+	 * @param width The width of the maze.
+	 * @param height The height of the maze.
+	 * @param targetX The X coordinate of the target.
+	 * @param targetY The Y coordinate of the target.
+	 */
+	private DistanceField(int width, int height, int targetX, int targetY) {
+		this.width = width;
+		this.height = height;
+		this.targetX = targetX;
+		this.targetY = targetY;
+		this.codes = new long[(int) (((long) width * height + CELLS_PER_WORD - 1) / CELLS_PER_WORD)];
+		Arrays.fill(codes, -1L); // All cells UNREACHABLE
+	}
+
+	/**
+	 * Builds the distance field on the background thread.
+	 *
+	 * @param walls The walls of the maze.
+	 * @param targetX The X coordinate of the target.
+	 * @param targetY The Y coordinate of the target.
+	 * @return A future that completes with the field.
+	 */
+	static CompletableFuture<DistanceField> computeAsync(WallGrid walls, int targetX, int targetY) {
+		return CompletableFuture.supplyAsync(() -> compute(walls, targetX, targetY), EXECUTOR);
+	}
+
+	/**
+	 * Builds the distance field with a breadth-first search from the target.
+	 * The search runs frontier by frontier, so only the current and the next frontier are kept in memory.
+	 *
+	 * @param walls The walls of the maze.
+	 * @param targetX The X coordinate of the target.
+	 * @param targetY The Y coordinate of the target.
+	 * @return The distance field.
+	 */
+	static DistanceField compute(WallGrid walls, int targetX, int targetY) {
+		DistanceField field = new DistanceField(walls.getWidth(), walls.getHeight(), targetX, targetY);
+		if (walls.isWall(targetX, targetY)) {
+			return field;
+		}
+		int width = field.width;
+		int[] frontier = new int[64];
+		int[] next = new int[64];
+		frontier[0] = targetY * width + targetX;
+		int frontierSize = 1;
+		field.setCode(frontier[0], 0);
+		for (int distance = 1; frontierSize > 0; distance++) {
+			int code = distance % 3;
+			int nextSize = 0;
+			for (int i = 0; i < frontierSize; i++) {
+				int cell = frontier[i];
+				int x = cell % width;
+				int y = cell / width;
+				for (Direction direction : Direction.values()) {
+					if (direction == Direction.NONE) {
+						continue;
+					}
+					int nx = x + direction.deltaX;
+					int ny = y + direction.deltaY;
+					int neighbour = ny * width + nx;
+					if (!walls.isWall(nx, ny) && field.getCode(neighbour) == UNREACHABLE) {
+						field.setCode(neighbour, code);
+						if (nextSize == next.length) {
+							next = Arrays.copyOf(next, nextSize * 2);
+						}
+						next[nextSize++] = neighbour;
+					}
+				}
+			}
+			int[] swap = frontier;
+			frontier = next;
+			next = swap;
+			frontierSize = nextSize;
+		}
+		return field;
+	}
+
+	/**
+	 * Returns the distance code of a cell.
+	 * @param cell The cell index ({@code y * width + x}).
+	 * @return The distance modulo 3, or {@link #UNREACHABLE}.
+	 */
+	private int getCode(int cell) {
+		return (int) (codes[cell / CELLS_PER_WORD] >>> ((cell % CELLS_PER_WORD) * 2)) & 3;
+	}
+
+	/**
+	 * Sets the distance code of a cell.
+	 * @param cell The cell index ({@code y * width + x}).
+	 * @param code The distance modulo 3.
+	 */
+	private void setCode(int cell, int code) {
+		int shift = (cell % CELLS_PER_WORD) * 2;
+		codes[cell / CELLS_PER_WORD] = (codes[cell / CELLS_PER_WORD] & ~(3L << shift)) | ((long) code << shift);
+	}
+
+	/**
+	 * Returns the distance code of a cell, treating cells outside the maze as unreachable.
+	 * @param x The X coordinate of the cell.
+	 * @param y The Y coordinate of the cell.
+	 * @return The distance modulo 3, or {@link #UNREACHABLE}.
+	 */
+	private int codeAt(int x, int y) {
+		if (x < 0 || y < 0 || x >= width || y >= height) {
+			return UNREACHABLE;
+		}
+		return getCode(y * width + x);
+	}
+
+	/**
+	 * Checks if the target can be reached from a cell.
+	 * @param x The X coordinate of the cell.
+	 * @param y The Y coordinate of the cell.
+	 * @return true if there is a path from the cell to the target.
+	 */
+	boolean isReachable(int x, int y) {
+		return codeAt(x, y) != UNREACHABLE;
+	}
+
+	/**
+	 * Returns the first step of a shortest path from a cell to the target.
+	 *
+	 * @param x The X coordinate of the cell.
+	 * @param y The Y coordinate of the cell.
+	 * @return The direction to move in, or {@link Direction#NONE} at the target or if the target cannot be reached.
+	 */
+	Direction nextStep(int x, int y) {
+		int code = codeAt(x, y);
+		if (code == UNREACHABLE || (x == targetX && y == targetY)) {
+			return Direction.NONE;
+		}
+		int closer = (code + 2) % 3;
+		for (Direction direction : Direction.values()) {
+			if (direction != Direction.NONE && codeAt(x + direction.deltaX, y + direction.deltaY) == closer) {
+				return direction;
+			}
+		}
+		return Direction.NONE;
+	}
+
+	/**
+	 * Returns the exact distance from a cell to the target by following the shortest path.
+	 * This takes time proportional to the distance, so callers that move step by step
+	 * should use {@link #distanceAfterMove(int, int, int, int, int)} instead.
+	 *
+	 * @param x The X coordinate of the cell.
+	 * @param y The Y coordinate of the cell.
+	 * @return The number of steps to the target, or -1 if it cannot be reached.
+	 */
+	int distance(int x, int y) {
+		if (!isReachable(x, y)) {
+			return -1;
+		}
+		int distance = 0;
+		for (Direction step = nextStep(x, y); step != Direction.NONE; step = nextStep(x, y)) {
+			x += step.deltaX;
+			y += step.deltaY;
+			distance++;
+		}
+		return distance;
+	}
+
+	/**
+	 * Returns the distance of a cell next to a cell whose distance is known, in constant time.
+	 *
+	 * @param fromX The X coordinate of the cell with the known distance.
+	 * @param fromY The Y coordinate of the cell with the known distance.
+	 * @param fromDistance The distance of that cell.
+	 * @param toX The X coordinate of a neighbouring cell.
+	 * @param toY The Y coordinate of a neighbouring cell.
+	 * @return The distance of the neighbouring cell, or -1 if it cannot reach the target.
+	 */
+	int distanceAfterMove(int fromX, int fromY, int fromDistance, int toX, int toY) {
+		int code = codeAt(toX, toY);
+		if (code == UNREACHABLE || fromDistance < 0) {
+			return distance(toX, toY);
+		}
+		if (code == codeAt(fromX, fromY)) {
+			return fromDistance;
+		}
+		return code == (fromDistance + 1) % 3 ? fromDistance + 1 : fromDistance - 1;
+	}
+}
@@ -0,0 +1,13 @@
+package model;
+
+/**
+ * The timed effects that power-ups can have on the game. Which power-up causes which effect for how long
+ * is defined by {@link PowerupType}. The game rules ask {@link World#isEffectActive(Effect)} whether an effect
+ * is active, and every effect ends by itself when its time runs out.
+ */
+public enum Effect {
+    /** The player takes no damage from enemies. */
+    INVINCIBLE,
+    /** The enemies do not move. */
+    ENEMIES_FROZEN
+}
@@ -0,0 +1,127 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Keeps track of the active power-up effects. The end time of every effect is stored in an array indexed by the
+ * effect, and the end times are queued in a binary min-heap of primitive arrays, so a tick only looks at the effects
+ * that run out, and costs nothing at all while no effect is active. New effects need no code here.
+ */
+class EffectTimers {
+
+	/** The game time (in milliseconds) at which every effect ends, indexed by {@link Effect#ordinal()}, 0 if inactive. */
+	private final long[] endTimes = new long[Effect.values().length];
+	/** The queued end times, in heap order. An entry is outdated if the effect was started over since. */
+	private long[] times = new long[8];
+	/** The effect ordinal of every queued end time, parallel to {@link #times}. */
+	private int[] effects = new int[8];
+	/** The number of queued end times. */
+	private int size;
+	/** The game time in milliseconds. It only advances while an effect is active. */
+	private long clock;
+
+	/**
+	 * Starts an effect, or starts it over if it is already active.
+	 * @param effect The effect.
+	 * @param durationMillis The duration of the effect in milliseconds, at least 1.
+	 */
+	void start(Effect effect, long durationMillis) {
+		long end = clock + durationMillis;
+		endTimes[effect.ordinal()] = end;
+		if (size == times.length) {
+			times = Arrays.copyOf(times, size * 2);
+			effects = Arrays.copyOf(effects, size * 2);
+		}
+		// Sift up
+		int i = size++;
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (times[parent] <= end) {
+				break;
+			}
+			times[i] = times[parent];
+			effects[i] = effects[parent];
+			i = parent;
+		}
+		times[i] = end;
+		effects[i] = effect.ordinal();
+	}
+
+	/**
+	 * Advances the game time and ends the effects whose time has run out.
+	 * @param deltaTimeMillis The time that has passed in milliseconds.
+	 * @return true if at least one effect ended.
+	 */
+	boolean advance(long deltaTimeMillis) {
+		if (size == 0) {
+			return false;
+		}
+		clock += deltaTimeMillis;
+		boolean ended = false;
+		while (size > 0 && times[0] <= clock) {
+			long time = times[0];
+			int effect = poll();
+			if (endTimes[effect] == time) {
+				endTimes[effect] = 0;
+				ended = true;
+			}
+		}
+		return ended;
+	}
+
+	/**
+	 * Removes the earliest queued end time.
+	 * @return The ordinal of its effect.
+	 */
+	private int poll() {
+		int first = effects[0];
+		size--;
+		long time = times[size];
+		int effect = effects[size];
+		// Sift the last entry down from the root
+		int i = 0;
+		int half = size >>> 1;
+		while (i < half) {
+			int child = 2 * i + 1;
+			if (child + 1 < size && times[child + 1] < times[child]) {
+				child++;
+			}
+			if (time <= times[child]) {
+				break;
+			}
+			times[i] = times[child];
+			effects[i] = effects[child];
+			i = child;
+		}
+		times[i] = time;
+		effects[i] = effect;
+		return first;
+	}
+
+	/**
+	 * Checks if an effect is active.
+	 * @param effect The effect.
+	 * @return true if the effect has been started and its time has not run out yet.
+	 */
+	boolean isActive(Effect effect) {
+		return endTimes[effect.ordinal()] != 0;
+	}
+
+	/**
+	 * Returns the time left until an effect ends.
+	 * @param effect The effect.
+	 * @return The remaining time in milliseconds, 0 if the effect is not active.
+	 */
+	long getRemainingMillis(Effect effect) {
+		long end = endTimes[effect.ordinal()];
+		return end == 0 ? 0 : end - clock;
+	}
+
+	/**
+	 * Ends all effects at once, e.g. when a new level starts.
+	 */
+	void clear() {
+		Arrays.fill(endTimes, 0);
+		size = 0;
+	}
+}
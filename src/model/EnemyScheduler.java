@@ -0,0 +1,108 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Decides which enemies act next. Every enemy is queued with the game time of its next move in a binary
+ * min-heap made of two primitive arrays, so no objects are created while the game runs.
+ * A tick only looks at the enemies that are due, no matter how many enemies wait further in the future.
+ */
+class EnemyScheduler {
+
+	/** The time of the next move of every queued enemy, in heap order. */
+	private long[] times = new long[16];
+	/** The index of every queued enemy, parallel to {@link #times}. */
+	private int[] enemies = new int[16];
+	/** The number of queued enemies. */
+	private int size;
+
+	/**
+	 * Queues an enemy.
+	 * @param enemy The index of the enemy in the world's enemy list.
+	 * @param time The game time (in milliseconds) at which the enemy acts next.
+	 */
+	void schedule(int enemy, long time) {
+		if (size == times.length) {
+			times = Arrays.copyOf(times, size * 2);
+			enemies = Arrays.copyOf(enemies, size * 2);
+		}
+		// Sift up
+		int i = size++;
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (times[parent] <= time) {
+				break;
+			}
+			times[i] = times[parent];
+			enemies[i] = enemies[parent];
+			i = parent;
+		}
+		times[i] = time;
+		enemies[i] = enemy;
+	}
+
+	/**
+	 * Checks if an enemy is due to act.
+	 * @param now The current game time in milliseconds.
+	 * @return true if the earliest queued enemy acts at or before {@code now}.
+	 */
+	boolean hasDue(long now) {
+		return size > 0 && times[0] <= now;
+	}
+
+	/**
+	 * Returns the time at which the earliest queued enemy acts.
+	 * @return The time in milliseconds, or {@link Long#MAX_VALUE} if no enemy is queued.
+	 */
+	long peekTime() {
+		return size > 0 ? times[0] : Long.MAX_VALUE;
+	}
+
+	/**
+	 * Removes the earliest queued enemy.
+	 * @return The index of the enemy.
+	 * @throws IllegalStateException if no enemy is queued.
+	 */
+	int poll() {
+		if (size == 0) {
+			throw new IllegalStateException("No enemy scheduled");
+		}
+		int first = enemies[0];
+		size--;
+		long time = times[size];
+		int enemy = enemies[size];
+		// Sift the last entry down from the root
+		int i = 0;
+		int half = size >>> 1;
+		while (i < half) {
+			int child = 2 * i + 1;
+			if (child + 1 < size && times[child + 1] < times[child]) {
+				child++;
+			}
+			if (time <= times[child]) {
+				break;
+			}
+			times[i] = times[child];
+			enemies[i] = enemies[child];
+			i = child;
+		}
+		times[i] = time;
+		enemies[i] = enemy;
+		return first;
+	}
+
+	/**
+	 * Removes all queued enemies.
+	 */
+	void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Returns the number of queued enemies.
+	 * @return The number of enemies.
+	 */
+	int size() {
+		return size;
+	}
+}
@@ -0,0 +1,159 @@
+package model;
+
+import java.util.BitSet;
+
+/**
+ * Tracks which cells the player can see and which cells the player has already seen, for the fog-of-war mode.
+ * Visibility is computed with recursive shadowcasting: each of the eight octants around the player is scanned
+ * row by row, and walls cut the scanned slope range, so only cells that can actually be seen are visited.
+ * The visible cells are kept in a small window around the player, the explored cells in a bitset over the whole maze.
+ */
+class FieldOfView {
+
+	/** Multipliers that map the scan coordinates of each of the eight octants to world offsets (xx, xy, yx, yy). */
+	private static final int[][] OCTANTS = {
+			{1, 0, 0, 1}, {0, 1, 1, 0}, {0, -1, 1, 0}, {-1, 0, 0, 1},
+			{-1, 0, 0, -1}, {0, -1, -1, 0}, {0, 1, -1, 0}, {1, 0, 0, -1}
+	};
+
+	/** The walls of the level. */
+	private final WallGrid walls;
+	/** The view distance in cells. */
+	private final int radius;
+	/** The width and height of the visibility window ({@code 2 * radius + 1}). */
+	private final int windowSize;
+	/** The visible cells of the window around {@link #originX}/{@link #originY}, row by row. */
+	private final BitSet visible;
+	/** Every cell of the maze that has been visible at some point, indexed by {@code y * width + x}. */
+	private final BitSet explored;
+	/** The X coordinate the visibility was last computed from. */
+	private int originX;
+	/** The Y coordinate the visibility was last computed from. */
+	private int originY;
+
+	/**
+	 * Creates a field of view for a level. Nothing is visible or explored until {@link #update(int, int)} is called.
+	 *
+	 * @param walls The walls of the level.
+	 * @param radius The view distance in cells.
+	 */
+	FieldOfView(WallGrid walls, int radius) {
+		this.walls = walls;
+		this.radius = radius;
+		this.windowSize = 2 * radius + 1;
+		this.visible = new BitSet(windowSize * windowSize);
+		this.explored = new BitSet(walls.getWidth() * walls.getHeight());
+	}
+
+	/**
+	 * Recomputes the visible cells for a new player position and adds them to the explored cells.
+	 * The cost depends on the number of visible cells, not on the size of the maze.
+	 *
+	 * @param x The X coordinate of the player.
+	 * @param y The Y coordinate of the player.
+	 */
+	void update(int x, int y) {
+		originX = x;
+		originY = y;
+		visible.clear();
+		reveal(x, y);
+		for (int[] octant : OCTANTS) {
+			castLight(1, 1.0, 0.0, octant[0], octant[1], octant[2], octant[3]);
+		}
+	}
+
+	/**
+	 * Scans one octant, starting at the given row, within the given slope range.
+	 * Every run of walls that is found narrows the range; the part above it is scanned recursively.
+	 *
+	 * @param row The distance of the first row to scan.
+	 * @param startSlope The upper slope of the visible range.
+	 * @param endSlope The lower slope of the visible range.
+	 * @param xx Octant multiplier from the column to the world X offset.
+	 * @param xy Octant multiplier from the row to the world X offset.
+	 * @param yx Octant multiplier from the column to the world Y offset.
+	 * @param yy Octant multiplier from the row to the world Y offset.
+	 */
+	private void castLight(int row, double startSlope, double endSlope, int xx, int xy, int yx, int yy) {
+		if (startSlope < endSlope) {
+			return;
+		}
+		int radiusSquared = radius * radius;
+		for (int distance = row; distance <= radius; distance++) {
+			boolean blocked = false;
+			double newStart = 0;
+			for (int dx = -distance, dy = -distance; dx <= 0; dx++) {
+				double leftSlope = (dx - 0.5) / (dy + 0.5);
+				double rightSlope = (dx + 0.5) / (dy - 0.5);
+				if (startSlope < rightSlope) {
+					continue;
+				}
+				if (endSlope > leftSlope) {
+					break;
+				}
+				int x = originX + dx * xx + dy * xy;
+				int y = originY + dx * yx + dy * yy;
+				if (dx * dx + dy * dy <= radiusSquared) {
+					reveal(x, y);
+				}
+				boolean wall = walls.isWall(x, y);
+				if (blocked) {
+					if (wall) {
+						newStart = rightSlope;
+					} else {
+						blocked = false;
+						startSlope = newStart;
+					}
+				} else if (wall && distance < radius) {
+					blocked = true;
+					castLight(distance + 1, startSlope, leftSlope, xx, xy, yx, yy);
+					newStart = rightSlope;
+				}
+			}
+			if (blocked) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Marks a cell as visible and explored. Cells outside the maze are ignored.
+	 * @param x The X coordinate of the cell.
+	 * @param y The Y coordinate of the cell.
+	 */
+	private void reveal(int x, int y) {
+		if (x < 0 || y < 0 || x >= walls.getWidth() || y >= walls.getHeight()) {
+			return;
+		}
+		visible.set((y - originY + radius) * windowSize + (x - originX + radius));
+		explored.set(y * walls.getWidth() + x);
+	}
+
+	/**
+	 * Checks if a cell is currently visible.
+	 * @param x The X coordinate of the cell.
+	 * @param y The Y coordinate of the cell.
+	 * @return true if the player can see the cell.
+	 */
+	boolean isVisible(int x, int y) {
+		int windowX = x - originX + radius;
+		int windowY = y - originY + radius;
+		if (windowX < 0 || windowY < 0 || windowX >= windowSize || windowY >= windowSize) {
+			return false;
+		}
+		return visible.get(windowY * windowSize + windowX);
+	}
+
+	/**
+	 * Checks if a cell has been visible at some point during the level.
+	 * @param x The X coordinate of the cell.
+	 * @param y The Y coordinate of the cell.
+	 * @return true if the player has seen the cell.
+	 */
+	boolean isExplored(int x, int y) {
+		if (x < 0 || y < 0 || x >= walls.getWidth() || y >= walls.getHeight()) {
+			return false;
+		}
+		return explored.get(y * walls.getWidth() + x);
+	}
+}
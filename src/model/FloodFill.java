@@ -0,0 +1,141 @@
+package model;
+
+import java.lang.foreign.Arena;
+import java.util.Arrays;
+
+/**
+ * Finds every floor cell that can be reached from a start cell, working on the packed words of a {@link WallGrid}
+ * instead of single cells. A word of 64 cells is filled along its floor runs with a few shifts, the result is passed on
+ * to the neighbouring words of the same row and to the words above and below, and every word whose reached cells grew
+ * is filled again, until nothing changes any more. The reached cells are kept in a second grid with the same layout,
+ * so that they can be combined with the walls a word at a time.
+ */
+final class FloodFill {
+
+	/** The walls of the maze. */
+	private final WallGrid walls;
+	/** The cells that have not been reached yet are set, laid out like the walls. */
+	private final WallGrid region;
+	/** One bit per word of the grid, set while the word waits on {@link #stack}. */
+	private final long[] queued;
+	/** The indices of the words whose reached cells grew and have to be filled again. */
+	private int[] stack = new int[64];
+	/** The number of words on {@link #stack}. */
+	private int size;
+	/** The number of cells reached so far. */
+	private int reached;
+
+	/**
+	 * Prepares a fill.
+	 *
+	 * @param walls The walls of the maze.
+	 * @param region The grid the reached cells are cleared in.
+	 */
+	private FloodFill(WallGrid walls, WallGrid region) {
+		this.walls = walls;
+		this.region = region;
+		this.queued = new long[(walls.getWordCount() + 63) >>> 6];
+	}
+
+	/**
+	 * Fills the floor region that contains the start cell.
+	 *
+	 * @param walls The walls of the maze.
+	 * @param startX The X coordinate of the start cell.
+	 * @param startY The Y coordinate of the start cell.
+	 * @param region A grid of the same size in which every cell is a wall, e.g. a new grid from
+	 *               {@link WallGrid#create(int, int, Arena)}. The reached cells are cleared, so afterwards it holds
+	 *               the maze with everything that cannot be reached from the start walled up.
+	 * @return The number of reached cells, 0 if the start cell is a wall.
+	 */
+	static int fill(WallGrid walls, int startX, int startY, WallGrid region) {
+		if (walls.isWall(startX, startY)) {
+			return 0;
+		}
+		FloodFill fill = new FloodFill(walls, region);
+		fill.spread(startY * walls.getWordsPerRow() + (startX >>> 6), 1L << startX);
+		fill.run();
+		return fill.reached;
+	}
+
+	/**
+	 * Fills words from the stack until it is empty.
+	 */
+	private void run() {
+		int wordsPerRow = walls.getWordsPerRow();
+		int lastRow = walls.getHeight() - 1;
+		while (size > 0) {
+			int index = stack[--size];
+			queued[index >>> 6] &= ~(1L << index);
+			int y = index / wordsPerRow;
+			int w = index - y * wordsPerRow;
+
+			long before = ~region.getWord(index);
+			long filled = fillRuns(before, ~walls.getWord(index));
+			if (filled != before) {
+				region.setWord(index, ~filled);
+			}
+			reached += Long.bitCount(filled & ~before);
+
+			// Runs that end at the edge of the word continue in the neighbouring word of the same row
+			if (w > 0 && (filled & 1) != 0) {
+				spread(index - 1, 1L << 63);
+			}
+			if (w < wordsPerRow - 1 && filled < 0) {
+				spread(index + 1, 1L);
+			}
+			if (y > 0) {
+				spread(index - wordsPerRow, filled);
+			}
+			if (y < lastRow) {
+				spread(index + wordsPerRow, filled);
+			}
+		}
+	}
+
+	/**
+	 * Marks cells of a word as reached, as far as they are floor, and puts the word on the stack
+	 * if it gained any cells.
+	 *
+	 * @param index The index of the word.
+	 * @param cells The cells that can be entered from a neighbour.
+	 */
+	private void spread(int index, long cells) {
+		long unreached = region.getWord(index);
+		long added = cells & ~walls.getWord(index) & unreached;
+		if (added == 0) {
+			return;
+		}
+		region.setWord(index, unreached & ~added);
+		reached += Long.bitCount(added);
+		if ((queued[index >>> 6] & (1L << index)) == 0) {
+			queued[index >>> 6] |= 1L << index;
+			if (size == stack.length) {
+				stack = Arrays.copyOf(stack, size * 2);
+			}
+			stack[size++] = index;
+		}
+	}
+
+	/**
+	 * Extends the given cells of a word along the floor runs they lie in, in both directions.
+	 * Each direction is an occluded fill: the reach doubles with every step, so six steps cover the whole word.
+	 *
+	 * @param cells The cells to extend, all of them floor.
+	 * @param open The floor cells of the word.
+	 * @return The cells of every run that contains at least one of the given cells.
+	 */
+	static long fillRuns(long cells, long open) {
+		long up = cells;
+		long down = cells;
+		long upOpen = open;
+		long downOpen = open;
+		for (int shift = 1; shift < 64; shift <<= 1) {
+			up |= upOpen & (up << shift);
+			upOpen &= upOpen << shift;
+			down |= downOpen & (down >>> shift);
+			downOpen &= downOpen >>> shift;
+		}
+		return up | down;
+	}
+}
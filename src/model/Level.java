@@ -0,0 +1,228 @@
+package model;
+
+import java.awt.Point;
+import java.lang.foreign.Arena;
+import java.util.List;
+
+/**
+ * A fully generated labyrinth level: the maze walls, the start and exit positions,
+ * and the initial enemy and power-up layout.
+ * Levels are produced by the {@link LevelGenerator}, usually on a background thread,
+ * and handed over to a {@link World} which takes ownership of the contained arrays and lists.
+ * A level must therefore only be applied to one world. The walls of huge mazes are stored off the heap
+ * in an arena of the level, which the world closes when the level ends. A level that is not handed over
+ * has to be {@link #dispose() disposed} instead.
+ */
+public class Level {
+
+	/** The difficulty this level was generated for. */
+	private final Difficulty difficulty;
+	/** The level number this layout was generated for. */
+	private final int levelNumber;
+	/** The game seed this layout was derived from. */
+	private final long seed;
+	/** The width of the maze grid. */
+	private final int width;
+	/** The height of the maze grid. */
+	private final int height;
+	/** The bit-packed maze walls. */
+	private final WallGrid walls;
+	/** Owns the walls if they are stored off the heap, otherwise null. */
+	private final Arena arena;
+	/** The player's starting X position. */
+	private final int playerX;
+	/** The player's starting Y position. */
+	private final int playerY;
+	/** The X coordinate of the exit. */
+	private final int endX;
+	/** The Y coordinate of the exit. */
+	private final int endY;
+	/** The initial enemy positions. */
+	private final List<Point> enemies;
+	/** The initial power-ups. */
+	private final List<Powerup> powerups;
+
+	/**
+	 * Creates a new level from already generated data.
+	 *
+	 * @param difficulty The difficulty the level was generated for.
+	 * @param levelNumber The level number the level was generated for.
+	 * @param seed The game seed the level was derived from.
+	 * @param walls The bit-packed maze walls.
+	 * @param arena The arena owning the walls, see {@link #createArena(int, int)}.
+	 * @param playerX The player's starting X position.
+	 * @param playerY The player's starting Y position.
+	 * @param endX The X coordinate of the exit.
+	 * @param endY The Y coordinate of the exit.
+	 * @param enemies The initial enemy positions.
+	 * @param powerups The initial power-ups.
+	 */
+	Level(Difficulty difficulty, int levelNumber, long seed, WallGrid walls, Arena arena, int playerX, int playerY,
+		  int endX, int endY, List<Point> enemies, List<Powerup> powerups) {
+		this.difficulty = difficulty;
+		this.levelNumber = levelNumber;
+		this.seed = seed;
+		this.width = walls.getWidth();
+		this.height = walls.getHeight();
+		this.walls = walls;
+		this.arena = arena;
+		this.playerX = playerX;
+		this.playerY = playerY;
+		this.endX = endX;
+		this.endY = endY;
+		this.enemies = enemies;
+		this.powerups = powerups;
+	}
+
+	/**
+	 * Creates the arena for the walls of a new level of the given size. The walls of huge mazes
+	 * (see {@link WallGrid#OFF_HEAP_MIN_CELLS}) are generated or decoded off the heap right away,
+	 * so they are never copied when the level is handed over to a world.
+	 *
+	 * @param width The width of the maze grid.
+	 * @param height The height of the maze grid.
+	 * @return A new arena for huge mazes, or null if the walls are kept on the heap.
+	 */
+	static Arena createArena(int width, int height) {
+		if ((long) width * height < WallGrid.OFF_HEAP_MIN_CELLS) {
+			return null;
+		}
+		return Arena.ofShared(); // Shared, since levels are generated on one thread and played on another
+	}
+
+	/**
+	 * Returns the difficulty this level was generated for.
+	 * @return The difficulty of the level.
+	 */
+	public Difficulty getDifficulty() {
+		return difficulty;
+	}
+
+	/**
+	 * Returns the level number this layout was generated for.
+	 * @return The level number.
+	 */
+	public int getLevelNumber() {
+		return levelNumber;
+	}
+
+	/**
+	 * Returns the game seed this layout was derived from.
+	 * @return The seed of the level.
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Returns the width of the maze grid.
+	 * @return The width of the level.
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Returns the height of the maze grid.
+	 * @return The height of the level.
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Returns the bit-packed maze walls.
+	 * @return The wall grid of this level.
+	 */
+	WallGrid getWalls() {
+		return walls;
+	}
+
+	/**
+	 * Returns the arena owning the walls, which the world takes over together with them.
+	 * @return The arena, or null if the walls are stored on the heap.
+	 */
+	Arena getArena() {
+		return arena;
+	}
+
+	/**
+	 * Frees the off-heap walls of a level that is not handed over to a world, e.g. one that was only analysed.
+	 * The level must not be used afterwards.
+	 */
+	public void dispose() {
+		if (arena != null) {
+			arena.close();
+		}
+	}
+
+	/**
+	 * Checks if a given coordinate of the level is a wall.
+	 * Coordinates outside the level bounds are treated as walls.
+	 *
+	 * @param x The X coordinate to check.
+	 * @param y The Y coordinate to check.
+	 * @return true if the coordinate is a wall or out of bounds, false otherwise.
+	 */
+	public boolean isWall(int x, int y) {
+		return walls.isWall(x, y);
+	}
+
+	/**
+	 * Returns the player's starting X position.
+	 * @return The player's starting X position.
+	 */
+	public int getPlayerX() {
+		return playerX;
+	}
+
+	/**
+	 * Returns the player's starting Y position.
+	 * @return The player's starting Y position.
+	 */
+	public int getPlayerY() {
+		return playerY;
+	}
+
+	/**
+	 * Returns the X coordinate of the exit.
+	 * @return The exit X coordinate.
+	 */
+	public int getEndX() {
+		return endX;
+	}
+
+	/**
+	 * Returns the Y coordinate of the exit.
+	 * @return The exit Y coordinate.
+	 */
+	public int getEndY() {
+		return endY;
+	}
+
+	/**
+	 * Returns the initial enemy positions.
+	 * @return A {@link List} of enemy positions.
+	 */
+	public List<Point> getEnemies() {
+		return enemies;
+	}
+
+	/**
+	 * Returns the initial power-ups.
+	 * @return A {@link List} of power-ups.
+	 */
+	public List<Powerup> getPowerups() {
+		return powerups;
+	}
+
+	/**
+	 * Analyses the level: whether the exit can be reached, how far away it is and how the maze is shaped.
+	 * The level is not modified. The cost is linear in the size of the maze.
+	 *
+	 * @return The analysis of the level.
+	 */
+	public LevelReport analyze() {
+		return LevelValidator.validate(walls, playerX, playerY, endX, endY, false);
+	}
+}
@@ -0,0 +1,209 @@
+package model;
+
+import java.awt.Point;
+import java.lang.foreign.Arena;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The LevelCodec converts {@link Level}s to and from a compact binary format.
+ *
+ * Layout (little endian):
+ * <pre>
+ * int   magic "LVL1"
+ * byte  difficulty ordinal
+ * int   level number
+ * long  seed
+ * int   width, height
+ * int   player cell, exit cell        (cell = y * width + x)
+ * long  wall words                    (the packed {@link WallGrid} rows)
+ * var   enemy count, then the zig-zag encoded difference of every enemy cell to the previous one
+ * var   power-up count, then per power-up its type ordinal (byte) and the cell difference
+ * </pre>
+ * The differences keep the original entity order and usually fit into one or two bytes.
+ */
+public class LevelCodec {
+
+	/** Marks the start of an encoded level ("LVL1"). */
+	private static final int MAGIC = 0x314C564C;
+	/** Size of the fixed header in bytes. */
+	private static final int HEADER_BYTES = 4 + 1 + 4 + 8 + 4 * 4;
+
+	/**
+	 * Encodes a level into a new byte array.
+	 * @param level The level to encode.
+	 * @return The encoded level.
+	 */
+	public static byte[] encode(Level level) {
+		WallGrid walls = level.getWalls();
+		int maxBytes = HEADER_BYTES + walls.getWordCount() * 8
+				+ 5 + level.getEnemies().size() * 5
+				+ 5 + level.getPowerups().size() * 6;
+		ByteBuffer buffer = ByteBuffer.allocate(maxBytes).order(ByteOrder.LITTLE_ENDIAN);
+		encode(level, buffer);
+		byte[] bytes = new byte[buffer.position()];
+		buffer.flip().get(bytes);
+		return bytes;
+	}
+
+	/**
+	 * Encodes a level into the given buffer, starting at its current position.
+	 * @param level The level to encode.
+	 * @param buffer The buffer to write to. Must be in little endian order and large enough.
+	 */
+	public static void encode(Level level, ByteBuffer buffer) {
+		int width = level.getWidth();
+		buffer.putInt(MAGIC);
+		buffer.put((byte) level.getDifficulty().ordinal());
+		buffer.putInt(level.getLevelNumber());
+		buffer.putLong(level.getSeed());
+		buffer.putInt(width);
+		buffer.putInt(level.getHeight());
+		buffer.putInt(level.getPlayerY() * width + level.getPlayerX());
+		buffer.putInt(level.getEndY() * width + level.getEndX());
+
+		level.getWalls().copyTo(buffer.asLongBuffer());
+		buffer.position(buffer.position() + level.getWalls().getWordCount() * 8);
+
+		putVarInt(buffer, level.getEnemies().size());
+		int previous = 0;
+		for (Point enemy : level.getEnemies()) {
+			int cell = enemy.y * width + enemy.x;
+			putVarInt(buffer, zigZag(cell - previous));
+			previous = cell;
+		}
+
+		putVarInt(buffer, level.getPowerups().size());
+		previous = 0;
+		for (Powerup powerup : level.getPowerups()) {
+			int cell = powerup.y * width + powerup.x;
+			buffer.put((byte) powerup.type.ordinal());
+			putVarInt(buffer, zigZag(cell - previous));
+			previous = cell;
+		}
+	}
+
+	/**
+	 * Decodes a level from the given buffer, starting at its current position.
+	 * The buffer is advanced to the end of the encoded level. The walls of huge mazes are decoded off the heap.
+	 *
+	 * @param buffer The buffer containing the encoded level. Its byte order is set to little endian.
+	 * @return The decoded level.
+	 * @throws IllegalArgumentException if the buffer does not contain an encoded level.
+	 */
+	public static Level decode(ByteBuffer buffer) {
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		if (buffer.getInt() != MAGIC) {
+			throw new IllegalArgumentException("Not an encoded level");
+		}
+		Difficulty difficulty = Difficulty.values()[buffer.get()];
+		int levelNumber = buffer.getInt();
+		long seed = buffer.getLong();
+		int width = buffer.getInt();
+		int height = buffer.getInt();
+		int playerCell = buffer.getInt();
+		int endCell = buffer.getInt();
+
+		// Huge mazes are decoded straight into off-heap storage, which the world takes over without copying
+		Arena arena = Level.createArena(width, height);
+		try {
+			WallGrid walls = WallGrid.create(width, height, arena);
+			walls.asLongBuffer().put(buffer.asLongBuffer().limit(walls.getWordCount()));
+			buffer.position(buffer.position() + walls.getWordCount() * 8);
+			return decodeEntities(buffer, difficulty, levelNumber, seed, walls, arena, playerCell, endCell);
+		} catch (RuntimeException e) {
+			if (arena != null) {
+				arena.close();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Decodes the enemies and power-ups of a level, which follow its walls, and creates the level.
+	 *
+	 * @param buffer The buffer positioned after the walls of the level.
+	 * @param difficulty The difficulty of the level.
+	 * @param levelNumber The level number.
+	 * @param seed The game seed.
+	 * @param walls The decoded walls.
+	 * @param arena The arena owning the walls, or null if they are stored on the heap.
+	 * @param playerCell The cell index of the player's start.
+	 * @param endCell The cell index of the exit.
+	 * @return The decoded level.
+	 */
+	private static Level decodeEntities(ByteBuffer buffer, Difficulty difficulty, int levelNumber, long seed,
+			WallGrid walls, Arena arena, int playerCell, int endCell) {
+		int width = walls.getWidth();
+
+		int enemyCount = getVarInt(buffer);
+		List<Point> enemies = new ArrayList<>(enemyCount);
+		int cell = 0;
+		for (int i = 0; i < enemyCount; i++) {
+			cell += unZigZag(getVarInt(buffer));
+			enemies.add(new Point(cell % width, cell / width));
+		}
+
+		int powerupCount = getVarInt(buffer);
+		List<Powerup> powerups = new ArrayList<>(powerupCount);
+		cell = 0;
+		for (int i = 0; i < powerupCount; i++) {
+			PowerupType type = PowerupType.values()[buffer.get()];
+			cell += unZigZag(getVarInt(buffer));
+			powerups.add(new Powerup(cell % width, cell / width, type));
+		}
+
+		return new Level(difficulty, levelNumber, seed, walls, arena,
+				playerCell % width, playerCell / width, endCell % width, endCell / width, enemies, powerups);
+	}
+
+	/**
+	 * Writes an unsigned variable-length integer, 7 bits per byte.
+	 * @param buffer The buffer to write to.
+	 * @param value The value to write.
+	 */
+	private static void putVarInt(ByteBuffer buffer, int value) {
+		while ((value & ~0x7F) != 0) {
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+	}
+
+	/**
+	 * Reads an unsigned variable-length integer written by {@link #putVarInt(ByteBuffer, int)}.
+	 * @param buffer The buffer to read from.
+	 * @return The value read.
+	 */
+	private static int getVarInt(ByteBuffer buffer) {
+		int value = 0;
+		int shift = 0;
+		byte b;
+		do {
+			b = buffer.get();
+			value |= (b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+		return value;
+	}
+
+	/**
+	 * Maps signed values to unsigned ones so that small negative differences stay small.
+	 * @param value The signed value.
+	 * @return The zig-zag encoded value.
+	 */
+	private static int zigZag(int value) {
+		return (value << 1) ^ (value >> 31);
+	}
+
+	/**
+	 * Reverses {@link #zigZag(int)}.
+	 * @param value The zig-zag encoded value.
+	 * @return The signed value.
+	 */
+	private static int unZigZag(int value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+}
@@ -0,0 +1,323 @@
+package model;
+
+import java.awt.Point;
+import java.lang.foreign.Arena;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Stack;
+
+/**
+ * The LevelGenerator creates new labyrinth levels.
+ * It carves the maze, places the player and the exit, and distributes enemies and power-ups.
+ * The generator does not touch any {@link World} state, so it can safely run on a background thread.
+ */
+public class LevelGenerator {
+
+	/** The number of power-ups to spawn at the beginning of each level. */
+	static final int INITIAL_POWERUPS_PER_LEVEL = 5;
+	/** The version of the generator. Changes whenever the same seed starts producing different levels. */
+	static final int VERSION = 4;
+	/** The number of exit positions tried before a level with a too short way to the exit is accepted. */
+	private static final int MAX_EXIT_ATTEMPTS = 8;
+	/** The number of times more walls are opened before a level with too many dead ends or corridors is accepted. */
+	private static final int MAX_REPAIR_ATTEMPTS = 4;
+	/** The share of the cells opened by every repair of a level with too many dead ends or corridors. */
+	private static final double REPAIR_WALL_PERCENTAGE = 0.02;
+
+	/**
+	 * Generates a new level for the given difficulty and level number.
+	 * The same seed, difficulty and level number always produce the same level.
+	 *
+	 * @param difficulty The difficulty setting to generate the level for.
+	 * @param levelNumber The level number, used to scale size, wall density and enemy count.
+	 * @param seed The game seed the level is derived from.
+	 * @return The newly generated {@link Level}.
+	 */
+	public Level generate(Difficulty difficulty, int levelNumber, long seed) {
+		Random rand = new Random(levelSeed(difficulty, levelNumber, seed));
+
+		// Use scaled dimensions based on the level for difficulty.
+		// Ensure dimensions are odd for better maze generation (algorithm).
+		int width = difficulty.getScaledWorldSize(levelNumber, rand);
+		int height = difficulty.getScaledWorldSize(levelNumber, rand);
+		if (width % 2 == 0) width++; // Make width odd
+		if (height % 2 == 0) height++; // Make height odd
+
+		// All cells are walls initially. Huge mazes are generated off the heap, in an arena the level hands on to the world.
+		Arena levelArena = Level.createArena(width, height);
+		try {
+			return generate(difficulty, levelNumber, seed, WallGrid.create(width, height, levelArena), levelArena, rand);
+		} catch (RuntimeException | Error e) {
+			if (levelArena != null) {
+				levelArena.close();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Carves the maze into a grid of walls and places the player, the exit, the enemies and the power-ups.
+	 *
+	 * @param difficulty The difficulty setting to generate the level for.
+	 * @param levelNumber The level number.
+	 * @param seed The game seed the level is derived from.
+	 * @param walls The walls of the level, all cells are walls initially.
+	 * @param levelArena The arena owning the walls, or null if they are stored on the heap.
+	 * @param rand The random number generator of the level.
+	 * @return The newly generated {@link Level}.
+	 */
+	private Level generate(Difficulty difficulty, int levelNumber, long seed, WallGrid walls, Arena levelArena, Random rand) {
+		int width = walls.getWidth();
+		int height = walls.getHeight();
+
+		// Set player and end positions on valid 'path' cells.
+		// Randomly choose valid odd coordinates within the bounds.
+		int playerX = rand.nextInt((width - 1) / 2) * 2 + 1;
+		int playerY = rand.nextInt((height - 1) / 2) * 2 + 1;
+
+		// Ensure the end point is different from the player's starting position
+		int endX, endY;
+		do {
+			endX = rand.nextInt((width - 1) / 2) * 2 + 1;
+			endY = rand.nextInt((height - 1) / 2) * 2 + 1;
+		} while (endX == playerX && endY == playerY);
+
+		// Generate the maze using the Depth-First Search (Recursive Backtracker) algorithm,
+		// starting from the player's initial position.
+		generateMazeDFS(walls, playerX, playerY, rand);
+
+		// Post-processing: Remove a percentage of walls to make the labyrinth more open
+		// and prevent it from being too constricting. The percentage scales with level.
+		removeRandomWalls(walls, difficulty.getScaledWallPercentage(levelNumber), rand);
+
+		// Validate the maze: close floor pockets the player can never reach, so nothing is placed there.
+		// A maze with more dead ends or corridor cells than the difficulty allows is repaired by opening more walls,
+		// which turns dead ends and corridors into junctions. The exit is moved if the way to it is too short
+		// for the difficulty (keeping the farthest exit tried). Both are bounded, so the last try is accepted.
+		LevelReport report = LevelValidator.validate(walls, playerX, playerY, endX, endY, true);
+		for (int attempt = 0; attempt < MAX_REPAIR_ATTEMPTS && !report.hasShapeInBand(difficulty); attempt++) {
+			removeRandomWalls(walls, REPAIR_WALL_PERCENTAGE, rand);
+			report = LevelValidator.validate(walls, playerX, playerY, endX, endY, true);
+		}
+		int minPathLength = difficulty.getMinPathLength(width, height);
+		for (int attempt = 1; attempt < MAX_EXIT_ATTEMPTS && report.getPathLength() < minPathLength; attempt++) {
+			int candidateX = rand.nextInt((width - 1) / 2) * 2 + 1;
+			int candidateY = rand.nextInt((height - 1) / 2) * 2 + 1;
+			LevelReport candidate = LevelValidator.validate(walls, playerX, playerY, candidateX, candidateY, false);
+			if (candidate.getPathLength() > report.getPathLength()) {
+				endX = candidateX;
+				endY = candidateY;
+				report = candidate;
+			}
+		}
+		try (Arena arena = Arena.ofConfined()) {
+			// Tracks cells taken by the player, the exit, enemies or power-ups (a set bit is taken).
+			// Huge levels keep it off the heap, it is freed as soon as everything is placed.
+			WallGrid occupied = WallGrid.create(width, height, arena);
+			occupied.fill(false);
+			occupied.setWall(playerX, playerY, true);
+			occupied.setWall(endX, endY, true);
+			return placeEntities(difficulty, levelNumber, seed, walls, levelArena, occupied, playerX, playerY, endX, endY, rand);
+		}
+	}
+
+	/**
+	 * Places the enemies and power-ups of a new level on free floor cells and creates the level.
+	 *
+	 * @param difficulty The difficulty of the level.
+	 * @param levelNumber The level number.
+	 * @param seed The game seed the level is derived from.
+	 * @param walls The finished walls of the level.
+	 * @param levelArena The arena owning the walls, or null if they are stored on the heap.
+	 * @param occupied The cells already taken, updated while placing.
+	 * @param playerX The X coordinate of the player's start.
+	 * @param playerY The Y coordinate of the player's start.
+	 * @param endX The X coordinate of the exit.
+	 * @param endY The Y coordinate of the exit.
+	 * @param rand The random number generator of the level.
+	 * @return The new level.
+	 */
+	private Level placeEntities(Difficulty difficulty, int levelNumber, long seed, WallGrid walls, Arena levelArena,
+			WallGrid occupied, int playerX, int playerY, int endX, int endY, Random rand) {
+		int width = walls.getWidth();
+		int height = walls.getHeight();
+
+		// Place enemies randomly throughout the maze.
+		// Number of enemies scales with difficulty and level.
+		List<Point> enemies = new ArrayList<>();
+		int numberOfEnemies = (int) (width * height * difficulty.getScaledEnemyPercentage(levelNumber));
+		for (int i = 0; i < numberOfEnemies; i++) {
+			int enemyX, enemyY;
+			do {
+				enemyX = rand.nextInt(width);
+				enemyY = rand.nextInt(height);
+				// Ensure enemy is not placed on a wall, player, end, or another enemy
+			} while (walls.isWall(enemyX, enemyY) || occupied.isWall(enemyX, enemyY));
+			occupied.setWall(enemyX, enemyY, true);
+			enemies.add(new Point(enemyX, enemyY)); // Add the new enemy
+		}
+
+		// Place power-ups randomly throughout the maze.
+		// The number of power-ups is fixed per level.
+		List<Powerup> powerups = new ArrayList<>();
+		for (int i = 0; i < INITIAL_POWERUPS_PER_LEVEL; i++) {
+			int powerupX, powerupY;
+			PowerupType type;
+			// Assign specific types to power-ups for consistent distribution
+			if (i == 0) {
+				type = PowerupType.HEALTH;
+			} else if (i == 1) {
+				type = PowerupType.INVINCIBILITY;
+			} else {
+				type = PowerupType.FREEZE_ENEMIES;
+			}
+
+			do {
+				powerupX = rand.nextInt(width);
+				powerupY = rand.nextInt(height);
+				// Ensure power-up is not placed on a wall, player, end, enemy, or another power-up
+			} while (walls.isWall(powerupX, powerupY) || occupied.isWall(powerupX, powerupY));
+			occupied.setWall(powerupX, powerupY, true);
+			powerups.add(new Powerup(powerupX, powerupY, type)); // Add the new power-up
+		}
+
+		return new Level(difficulty, levelNumber, seed, walls, levelArena, playerX, playerY, endX, endY, enemies, powerups);
+	}
+
+	/**
+	 * Generates a maze using the Depth-First Search (Recursive Backtracker) algorithm.
+	 * This algorithm carves paths by setting wall cells to false, starting from a given point.
+	 * It ensures that a single, continuous path exists through the maze.
+	 *
+	 * @param walls The wall grid to carve the maze into.
+	 * @param startX The starting X coordinate for maze generation. This cell will be a path.
+	 * @param startY The starting Y coordinate for maze generation. This cell will be a path.
+	 * @param rand The random number generator to use.
+	 */
+	private void generateMazeDFS(WallGrid walls, int startX, int startY, Random rand) {
+		int width = walls.getWidth();
+		int height = walls.getHeight();
+		Stack<Point> stack = new Stack<>(); // Stack to keep track of visited cells for backtracking
+
+		// A cell (two steps from the last one) has been visited exactly if it has been carved,
+		// so the walls themselves track the visited cells and no separate grid is needed
+		stack.push(new Point(startX, startY));
+		walls.setWall(startX, startY, false); // Carve out the starting cell, making it a path
+
+		while (!stack.isEmpty()) {
+			Point current = stack.peek(); // Get current cell without removing it (for neighbor checking)
+
+			// Get a list of unvisited neighbors (cells two steps away, as per maze generation rules)
+			List<Direction> unvisitedNeighbors = getUnvisitedNeighbors(current.x, current.y, walls, rand);
+
+			if (!unvisitedNeighbors.isEmpty()) {
+				// Choose a random unvisited neighbor
+				Direction chosenDirection = unvisitedNeighbors.get(rand.nextInt(unvisitedNeighbors.size()));
+				int nextX = current.x + chosenDirection.deltaX * 2; // Calculate X of the next cell
+				int nextY = current.y + chosenDirection.deltaY * 2; // Calculate Y of the next cell
+
+				// Carve out the wall cell between the current cell and the next cell
+				walls.setWall(current.x + chosenDirection.deltaX, current.y + chosenDirection.deltaY, false);
+				walls.setWall(nextX, nextY, false); // Carve out the next cell itself, which marks it as visited
+				stack.push(new Point(nextX, nextY)); // Push the new cell onto the stack
+			} else {
+				stack.pop(); // If no unvisited neighbors, backtrack by popping from the stack
+			}
+		}
+	}
+
+	/**
+	 * Gets a list of unvisited neighbor cells (cells two steps away) from the given coordinates.
+	 * This method is used by the DFS maze generation algorithm to find new paths to carve.
+	 * It checks all four cardinal directions.
+	 *
+	 * @param x The current X coordinate.
+	 * @param y The current Y coordinate.
+	 * @param walls The walls carved so far. Cells that are not walls any more have been visited by DFS.
+	 * @param rand The random number generator used to shuffle the neighbors.
+	 * @return A list of {@link Direction} enum constants, each representing a valid, unvisited neighbor.
+	 */
+	private List<Direction> getUnvisitedNeighbors(int x, int y, WallGrid walls, Random rand) {
+		int width = walls.getWidth();
+		int height = walls.getHeight();
+		List<Direction> neighbors = new ArrayList<>();
+		// Define all four cardinal directions
+		Direction[] cardinalDirections = {Direction.UP, Direction.DOWN, Direction.LEFT, Direction.RIGHT};
+
+		for (Direction dir : cardinalDirections) {
+			int neighborX = x + dir.deltaX * 2; // Calculate X of the potential new cell (2 steps away)
+			int neighborY = y + dir.deltaY * 2; // Calculate Y of the potential new cell (2 steps away)
+
+			// Check if the potential neighbor is within the world bounds and has not been visited yet
+			if (neighborX >= 0 && neighborX < width && neighborY >= 0 && neighborY < height && walls.isWall(neighborX, neighborY)) {
+				neighbors.add(dir); // Add this direction as a valid unvisited neighbor
+			}
+		}
+		Collections.shuffle(neighbors, rand); // Shuffle the list to introduce randomness in maze generation
+		return neighbors;
+	}
+
+	/**
+	 * Removes a percentage of the existing walls to make the labyrinth more open and less constricting.
+	 * Only as many distinct cells as are opened are drawn at random, remembered in a temporary bit grid,
+	 * so neither memory nor random numbers grow with the cells that stay untouched. If more than half of
+	 * the cells are opened, the cells to leave alone are drawn instead and everything else is opened a word at a time.
+	 *
+	 * @param walls The wall grid to open up.
+	 * @param percentageToOpen The percentage of existing interior walls to potentially remove.
+	 * @param rand The random number generator to use.
+	 */
+	private void removeRandomWalls(WallGrid walls, double percentageToOpen, Random rand) {
+		int width = walls.getWidth();
+		int height = walls.getHeight();
+		long cells = (long) width * height;
+
+		// Calculate the number of walls to remove based on the given percentage
+		long wallsToRemoveCount = Math.min(cells, (long) (cells * percentageToOpen));
+		boolean pickKept = wallsToRemoveCount > cells / 2;
+		long picks = pickKept ? cells - wallsToRemoveCount : wallsToRemoveCount;
+
+		try (Arena arena = Arena.ofConfined()) {
+			// The cells drawn so far (a set bit is drawn), so that no cell is counted twice
+			WallGrid picked = WallGrid.create(width, height, arena);
+			picked.fill(false);
+			for (long i = 0; i < picks; ) {
+				long cell = rand.nextLong(cells);
+				int x = (int) (cell % width);
+				int y = (int) (cell / width);
+				if (!picked.isWall(x, y)) {
+					picked.setWall(x, y, true);
+					if (!pickKept) {
+						walls.setWall(x, y, false); // Set the cell to a path (remove the wall)
+					}
+					i++;
+				}
+			}
+			if (pickKept) {
+				// Open every cell that was not drawn. The padding bits are set in both grids, so they stay set.
+				for (int i = 0; i < walls.getWordCount(); i++) {
+					walls.setWord(i, walls.getWord(i) & picked.getWord(i));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Derives the seed of a single level from the game seed, so that every difficulty
+	 * and level number of a game gets its own independent random sequence.
+	 *
+	 * @param difficulty The difficulty of the level.
+	 * @param levelNumber The level number.
+	 * @param seed The game seed.
+	 * @return The seed used to generate the level.
+	 */
+	static long levelSeed(Difficulty difficulty, int levelNumber, long seed) {
+		// SplitMix64 finalizer, spreads small differences in the inputs over all bits
+		long z = seed + 0x9E3779B97F4A7C15L * (levelNumber * 4L + difficulty.ordinal() + 1);
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
@@ -0,0 +1,91 @@
+package model;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A read-only level pack: many pre-generated levels in one file, e.g. for tournaments.
+ * The file is memory-mapped and levels are decoded on demand, so opening a pack does not depend on its size.
+ *
+ * Layout (little endian):
+ * <pre>
+ * int   magic "LPK1"
+ * int   format version
+ * then per level:  int length, the level encoded by {@link LevelCodec}
+ * long  file offset of every level
+ * int   level count
+ * int   magic "LPK1"
+ * </pre>
+ * Packs are written by {@link LevelPackWriter} and are limited to 2 GB.
+ */
+public class LevelPack {
+
+	/** Marks the start and the end of a level pack ("LPK1"). */
+	static final int MAGIC = 0x314B504C;
+	/** The current version of the file format. */
+	static final int VERSION = 1;
+	/** Size of the header in bytes. */
+	static final int HEADER_BYTES = 8;
+
+	/** The mapped file. */
+	private final MappedByteBuffer mapped;
+	/** The number of levels in the pack. */
+	private final int count;
+	/** The position of the offset index in the file. */
+	private final int indexPosition;
+
+	/**
+	 * Opens a level pack.
+	 * @param file The pack file.
+	 * @throws IOException if the file cannot be read or is not a level pack.
+	 */
+	public LevelPack(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if (channel.size() < HEADER_BYTES + 8 || channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("Not a level pack: " + file);
+			}
+			// The mapping stays valid after the channel is closed
+			mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		mapped.order(ByteOrder.LITTLE_ENDIAN);
+		int size = mapped.capacity();
+		if (mapped.getInt(0) != MAGIC || mapped.getInt(size - 4) != MAGIC) {
+			throw new IOException("Not a level pack: " + file);
+		}
+		if (mapped.getInt(4) != VERSION) {
+			throw new IOException("Unsupported level pack version " + mapped.getInt(4) + ": " + file);
+		}
+		count = mapped.getInt(size - 8);
+		indexPosition = size - 8 - count * 8;
+		if (count < 0 || indexPosition < HEADER_BYTES) {
+			throw new IOException("Level pack is corrupted: " + file);
+		}
+	}
+
+	/**
+	 * Returns the number of levels in the pack.
+	 * @return The number of levels.
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Decodes a level of the pack. A huge level has to be handed over to a world or {@link Level#dispose() disposed}.
+	 * @param index The index of the level, from 0 to {@code size() - 1}.
+	 * @return The level.
+	 * @throws IndexOutOfBoundsException if the index is outside the pack.
+	 */
+	public Level get(int index) {
+		if (index < 0 || index >= count) {
+			throw new IndexOutOfBoundsException("Level " + index + " of " + count);
+		}
+		int offset = (int) mapped.getLong(indexPosition + index * 8);
+		int length = mapped.getInt(offset);
+		return LevelCodec.decode(mapped.slice(offset + 4, length));
+	}
+}
@@ -0,0 +1,133 @@
+package model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Streams encoded levels into a level pack file, one after the other, as they are produced.
+ * Small entries are collected in a staging buffer so the file is written in large blocks.
+ * The index of entry offsets is appended when the writer is closed, see {@link LevelPack} for the layout.
+ */
+public class LevelPackWriter implements Closeable {
+
+	/** The size of the staging buffer in bytes. */
+	private static final int BUFFER_BYTES = 1 << 20;
+
+	/** The channel of the pack file. */
+	private final FileChannel channel;
+	/** Collects small entries before they are written. */
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+	/** The file offset of every entry written so far. */
+	private long[] offsets = new long[1024];
+	/** The number of entries written so far. */
+	private int count;
+	/** The number of bytes written so far, including the header. */
+	private long bytesWritten;
+
+	/**
+	 * Creates a new pack file, replacing an existing one.
+	 * @param file The file to write.
+	 * @throws IOException if the file cannot be created.
+	 */
+	public LevelPackWriter(Path file) throws IOException {
+		channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		buffer.putInt(LevelPack.MAGIC);
+		buffer.putInt(LevelPack.VERSION);
+		bytesWritten = LevelPack.HEADER_BYTES;
+	}
+
+	/**
+	 * Appends an encoded level.
+	 * @param encodedLevel The level, encoded by {@link LevelCodec#encode(Level)}.
+	 * @throws IOException if the level cannot be written or the pack, including its index, would exceed 2 GB.
+	 */
+	public void add(byte[] encodedLevel) throws IOException {
+		// The reader maps the whole pack and addresses it with int offsets
+		long packSize = bytesWritten + 4 + encodedLevel.length + (count + 1) * 8L + 8;
+		if (packSize > Integer.MAX_VALUE) {
+			throw new IOException("Level " + count + " does not fit into the level pack, which is limited to 2 GB");
+		}
+		if (count == offsets.length) {
+			offsets = Arrays.copyOf(offsets, count * 2);
+		}
+		offsets[count++] = bytesWritten;
+		if (buffer.remaining() < 4 + encodedLevel.length) {
+			flush();
+		}
+		if (4 + encodedLevel.length > buffer.capacity()) {
+			// Too large for the buffer: write the length and the level in one gathering write
+			ByteBuffer length = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(0, encodedLevel.length);
+			ByteBuffer[] parts = {length, ByteBuffer.wrap(encodedLevel)};
+			while (parts[1].hasRemaining()) {
+				channel.write(parts);
+			}
+		} else {
+			buffer.putInt(encodedLevel.length);
+			buffer.put(encodedLevel);
+		}
+		bytesWritten += 4 + encodedLevel.length;
+	}
+
+	/**
+	 * Writes the contents of the staging buffer to the file.
+	 * @throws IOException if the data cannot be written.
+	 */
+	private void flush() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Returns the number of levels written so far.
+	 * @return The number of levels.
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * Returns the size of the pack so far.
+	 * @return The number of bytes written, including the header.
+	 */
+	public long getBytesWritten() {
+		return bytesWritten;
+	}
+
+	/**
+	 * Appends the index and closes the file. Closing an already closed writer has no effect.
+	 * @throws IOException if the index cannot be written.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (!channel.isOpen()) {
+			return;
+		}
+		try {
+			for (int i = 0; i < count; i++) {
+				if (buffer.remaining() < 8) {
+					flush();
+				}
+				buffer.putLong(offsets[i]);
+			}
+			if (buffer.remaining() < 8) {
+				flush();
+			}
+			buffer.putInt(count);
+			buffer.putInt(LevelPack.MAGIC);
+			flush();
+			bytesWritten += count * 8L + 8;
+		} finally {
+			channel.close();
+		}
+	}
+}
@@ -0,0 +1,136 @@
+package model;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The LevelPregenerator speculatively generates the next level on a background thread
+ * while the current level is being played.
+ * When the player reaches the exit, the finished level can be taken over without generating
+ * the maze on the event dispatch thread, so level transitions no longer depend on the maze size.
+ */
+public class LevelPregenerator {
+
+	/** The single background thread shared by all worlds to generate upcoming levels. */
+	private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "level-pregenerator");
+		thread.setDaemon(true); // Never keep the application alive just for a speculative level
+		return thread;
+	});
+
+	/** Whether levels are generated ahead at all. Off e.g. while a stress test times the game on few cores. */
+	private static volatile boolean enabled = true;
+
+	/** The store used to load or generate the levels. */
+	private final LevelStore store;
+	/** The difficulty of the level currently being pre-generated, or null if none is pending. */
+	private Difficulty pendingDifficulty;
+	/** The level number of the level currently being pre-generated. */
+	private int pendingLevelNumber;
+	/** The game seed of the level currently being pre-generated. */
+	private long pendingSeed;
+	/** The difficulty profile that was current when the pending level was requested. */
+	private DifficultyProfile pendingProfile;
+	/** The pending result of the background generation. */
+	private CompletableFuture<Level> pendingLevel;
+
+	/**
+	 * Creates a new LevelPregenerator using the given store.
+	 * @param store The store used to load or generate the levels.
+	 */
+	public LevelPregenerator(LevelStore store) {
+		this.store = store;
+	}
+
+	/**
+	 * Switches the speculative generation of all worlds on or off. While it is off, every level is loaded
+	 * when it is taken and nothing is generated in the background.
+	 * @param enabled Whether upcoming levels are generated in the background.
+	 */
+	public static void setEnabled(boolean enabled) {
+		LevelPregenerator.enabled = enabled;
+	}
+
+	/**
+	 * Starts generating the given level in the background.
+	 * A previously requested level that has not been taken yet is discarded.
+	 *
+	 * @param difficulty The difficulty to generate the level for.
+	 * @param levelNumber The level number to generate.
+	 * @param seed The game seed of the level.
+	 */
+	public void request(Difficulty difficulty, int levelNumber, long seed) {
+		cancel();
+		if (!enabled) {
+			return;
+		}
+		pendingDifficulty = difficulty;
+		pendingLevelNumber = levelNumber;
+		pendingSeed = seed;
+		pendingProfile = difficulty.getProfile();
+		CompletableFuture<Level> future = new CompletableFuture<>();
+		pendingLevel = future;
+		EXECUTOR.execute(() -> {
+			if (future.isDone()) {
+				return; // Discarded before it was started
+			}
+			try {
+				Level level = store.load(difficulty, levelNumber, seed);
+				if (!future.complete(level)) {
+					level.dispose(); // Discarded while it was generated
+				}
+			} catch (RuntimeException | Error e) {
+				future.completeExceptionally(e);
+			}
+		});
+	}
+
+	/**
+	 * Returns the requested level. If a matching level was pre-generated it is handed over,
+	 * waiting for the background thread only if it has not finished yet.
+	 * Otherwise, or if the background generation failed, the level is loaded on the calling thread.
+	 *
+	 * @param difficulty The difficulty of the wanted level.
+	 * @param levelNumber The level number of the wanted level.
+	 * @param seed The game seed of the wanted level.
+	 * @return The generated {@link Level}.
+	 */
+	public Level take(Difficulty difficulty, int levelNumber, long seed) {
+		CompletableFuture<Level> future = pendingLevel;
+		boolean matches = future != null && pendingDifficulty == difficulty
+				&& pendingLevelNumber == levelNumber && pendingSeed == seed
+				&& pendingProfile == difficulty.getProfile(); // A reloaded profile makes the pending level outdated
+		if (!matches) {
+			cancel();
+			return store.load(difficulty, levelNumber, seed);
+		}
+		pendingLevel = null;
+		pendingDifficulty = null;
+		pendingProfile = null;
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			e.printStackTrace();
+		}
+		return store.load(difficulty, levelNumber, seed); // Fall back to loading inline
+	}
+
+	/**
+	 * Discards the currently pending level, if any. A level that is already done is disposed,
+	 * one that is still being generated is disposed as soon as it is done.
+	 */
+	public void cancel() {
+		if (pendingLevel != null) {
+			if (!pendingLevel.cancel(false) && !pendingLevel.isCompletedExceptionally()) {
+				pendingLevel.join().dispose();
+			}
+			pendingLevel = null;
+			pendingDifficulty = null;
+			pendingProfile = null;
+		}
+	}
+}
@@ -0,0 +1,144 @@
+package model;
+
+/**
+ * The result of analysing a generated maze with {@link LevelValidator}: whether the exit can be reached,
+ * how long the way there is, and how the maze is shaped.
+ */
+public class LevelReport {
+
+	/** The length of the shortest path from the player to the exit, -1 if the exit cannot be reached. */
+	private final int pathLength;
+	/** The number of floor cells. */
+	private final int floorCells;
+	/** The number of floor cells that cannot be reached from the player's position. */
+	private final int unreachableCells;
+	/** The number of separate areas the unreachable floor cells form. */
+	private final int pockets;
+	/** The number of reachable cells with exactly one open neighbour. */
+	private final int deadEnds;
+	/** The number of reachable cells with exactly two open neighbours. */
+	private final int corridorCells;
+	/** The number of reachable cells with three or four open neighbours. */
+	private final int junctions;
+
+	/**
+	 * Creates a new report.
+	 *
+	 * @param pathLength The length of the shortest path to the exit, -1 if it cannot be reached.
+	 * @param floorCells The number of floor cells.
+	 * @param unreachableCells The number of floor cells that cannot be reached.
+	 * @param pockets The number of separate areas of unreachable floor cells.
+	 * @param deadEnds The number of reachable dead ends.
+	 * @param corridorCells The number of reachable corridor cells.
+	 * @param junctions The number of reachable junctions.
+	 */
+	LevelReport(int pathLength, int floorCells, int unreachableCells, int pockets, int deadEnds, int corridorCells, int junctions) {
+		this.pathLength = pathLength;
+		this.floorCells = floorCells;
+		this.unreachableCells = unreachableCells;
+		this.pockets = pockets;
+		this.deadEnds = deadEnds;
+		this.corridorCells = corridorCells;
+		this.junctions = junctions;
+	}
+
+	/**
+	 * Checks if the exit can be reached from the player's position.
+	 * @return true if the level can be solved.
+	 */
+	public boolean isSolvable() {
+		return pathLength >= 0;
+	}
+
+	/**
+	 * Returns the length of the shortest path from the player to the exit.
+	 * @return The number of steps, or -1 if the exit cannot be reached.
+	 */
+	public int getPathLength() {
+		return pathLength;
+	}
+
+	/**
+	 * Returns the number of floor cells.
+	 * @return The number of floor cells.
+	 */
+	public int getFloorCells() {
+		return floorCells;
+	}
+
+	/**
+	 * Returns the number of floor cells that cannot be reached from the player's position.
+	 * @return The number of unreachable floor cells.
+	 */
+	public int getUnreachableCells() {
+		return unreachableCells;
+	}
+
+	/**
+	 * Returns the number of floor cells that can be reached from the player's position.
+	 * @return The number of reachable floor cells.
+	 */
+	public int getReachableCells() {
+		return floorCells - unreachableCells;
+	}
+
+	/**
+	 * Returns the number of reachable dead ends (cells with exactly one open neighbour).
+	 * @return The number of dead ends.
+	 */
+	public int getDeadEnds() {
+		return deadEnds;
+	}
+
+	/**
+	 * Returns the number of reachable corridor cells (cells with exactly two open neighbours).
+	 * @return The number of corridor cells.
+	 */
+	public int getCorridorCells() {
+		return corridorCells;
+	}
+
+	/**
+	 * Returns the number of reachable junctions (cells with three or four open neighbours).
+	 * @return The number of junctions.
+	 */
+	public int getJunctions() {
+		return junctions;
+	}
+
+	/**
+	 * Checks whether the maze is shaped as the difficulty wants it: not more dead ends and corridor cells
+	 * than it allows for the reachable part of the maze.
+	 *
+	 * @param difficulty The difficulty the maze was generated for.
+	 * @return true if neither limit is exceeded.
+	 */
+	public boolean hasShapeInBand(Difficulty difficulty) {
+		int reachableCells = getReachableCells();
+		return deadEnds <= difficulty.getMaxDeadEnds(reachableCells)
+				&& corridorCells <= difficulty.getMaxCorridorCells(reachableCells);
+	}
+
+	/**
+	 * Checks whether the maze meets all quality criteria of the difficulty: the exit can be reached,
+	 * the way there is long enough and the maze is {@link #hasShapeInBand(Difficulty) shaped} as wanted.
+	 *
+	 * @param difficulty The difficulty the maze was generated for.
+	 * @param width The width of the maze.
+	 * @param height The height of the maze.
+	 * @return true if the maze meets every criterion.
+	 */
+	public boolean isInBand(Difficulty difficulty, int width, int height) {
+		return isSolvable() && pathLength >= difficulty.getMinPathLength(width, height) && hasShapeInBand(difficulty);
+	}
+
+	/**
+	 * Returns a short summary of the report, e.g. for the console view.
+	 * @return The summary.
+	 */
+	@Override
+	public String toString() {
+		return "path " + pathLength + ", floor " + floorCells + " (" + unreachableCells + " unreachable in " + pockets + " pockets), "
+				+ deadEnds + " dead ends, " + corridorCells + " corridor cells, " + junctions + " junctions";
+	}
+}
@@ -0,0 +1,259 @@
+package model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The LevelStore caches generated levels so that a level with the same seed, difficulty and level number
+ * never has to be generated twice.
+ * Levels are kept in the compact {@link LevelCodec} format in an in-memory LRU cache bounded by their total size and,
+ * if a cache directory is configured, additionally as files on disk that are read through memory mapping.
+ * The store is thread-safe, it is used by the {@link LevelPregenerator} thread and the event dispatch thread.
+ */
+public class LevelStore {
+
+	/** System property naming the directory of the on-disk cache. The disk cache is off if it is not set. */
+	public static final String CACHE_DIR_PROPERTY = "labyrinth.levelCache.dir";
+	/** System property for the maximum number of encoded bytes kept in memory. 0 disables the memory cache. */
+	public static final String CACHE_BYTES_PROPERTY = "labyrinth.levelCache.bytes";
+	/** The default maximum number of encoded bytes kept in memory. */
+	private static final long DEFAULT_MEMORY_CAPACITY = 16L << 20;
+	/** The file extension of cached level files. */
+	private static final String FILE_EXTENSION = ".lvl";
+
+	/** The store shared by all worlds of the application, configured from the system properties. */
+	private static final LevelStore DEFAULT = new LevelStore(
+			new LevelGenerator(),
+			Long.getLong(CACHE_BYTES_PROPERTY, DEFAULT_MEMORY_CAPACITY),
+			System.getProperty(CACHE_DIR_PROPERTY) == null ? null : Paths.get(System.getProperty(CACHE_DIR_PROPERTY)));
+
+	/** The generator used when a level is not cached. */
+	private final LevelGenerator generator;
+	/** The encoded levels in least recently used order. */
+	private final Map<String, byte[]> memoryCache = new LinkedHashMap<>(16, 0.75f, true);
+	/** The maximum total length of the encoded levels kept in memory. */
+	private final long memoryCapacity;
+	/** The total length of the encoded levels currently kept in memory. */
+	private long memoryBytes;
+	/** The directory of the on-disk cache, or null if levels are only cached in memory. */
+	private final Path cacheDirectory;
+
+	/** The number of levels requested from this store. */
+	private long requests;
+	/** The number of requests answered from memory. */
+	private long memoryHits;
+	/** The number of requests answered from the disk cache. */
+	private long diskHits;
+	/** The total time (in nanoseconds) spent answering requests. */
+	private long totalLoadNanos;
+	/** The time (in nanoseconds) spent answering the most recent request. */
+	private long lastLoadNanos;
+
+	/**
+	 * Creates a new LevelStore.
+	 *
+	 * @param generator The generator used when a level is not cached.
+	 * @param memoryCapacity The maximum total number of encoded bytes kept in memory.
+	 * @param cacheDirectory The directory of the on-disk cache, or null to disable it.
+	 */
+	public LevelStore(LevelGenerator generator, long memoryCapacity, Path cacheDirectory) {
+		this.generator = generator;
+		this.memoryCapacity = memoryCapacity;
+		this.cacheDirectory = cacheDirectory;
+	}
+
+	/**
+	 * Returns the store shared by the whole application.
+	 * @return The default level store.
+	 */
+	public static LevelStore getDefault() {
+		return DEFAULT;
+	}
+
+	/**
+	 * Returns the level for the given difficulty, level number and seed.
+	 * The level is decoded from memory or disk if it was cached, otherwise it is generated and cached.
+	 * Every call returns a new {@link Level} instance that may be handed over to a world.
+	 *
+	 * @param difficulty The difficulty of the level.
+	 * @param levelNumber The level number.
+	 * @param seed The game seed.
+	 * @return The requested level.
+	 */
+	public Level load(Difficulty difficulty, int levelNumber, long seed) {
+		long start = System.nanoTime();
+		// The generator version keeps levels cached by older versions from being reused
+		String key = "v" + LevelGenerator.VERSION + "-" + difficulty.name() + "-" + levelNumber + "-" + Long.toHexString(seed);
+		// Levels of a loaded profile are kept apart from those of the built-in one, which keep their old keys
+		DifficultyProfile profile = difficulty.getProfile();
+		if (!profile.getFingerprint().equals(difficulty.getDefaultProfile().getFingerprint())) {
+			key += "-p" + profile.getFingerprint();
+		}
+		Level level;
+		byte[] encoded;
+		synchronized (this) {
+			encoded = memoryCache.get(key);
+		}
+		if (encoded != null) {
+			level = LevelCodec.decode(ByteBuffer.wrap(encoded));
+			recordLoad(start, true, false);
+			return level;
+		}
+
+		level = loadFromDisk(key);
+		if (level != null) {
+			recordLoad(start, false, true);
+			return level;
+		}
+		level = generator.generate(difficulty, levelNumber, seed);
+		if (difficulty.getProfile() != profile) {
+			// The profile was replaced while generating, so the level may not match the key
+			recordLoad(start, false, false);
+			return level;
+		}
+		encoded = LevelCodec.encode(level);
+		storeOnDisk(key, encoded);
+		storeInMemory(key, encoded);
+		recordLoad(start, false, false);
+		return level;
+	}
+
+	/**
+	 * Puts an encoded level into the memory cache and evicts the least recently used levels
+	 * until the cache fits into its capacity again. Levels larger than the whole capacity are not kept.
+	 *
+	 * @param key The cache key of the level.
+	 * @param encoded The encoded level.
+	 */
+	private synchronized void storeInMemory(String key, byte[] encoded) {
+		if (encoded.length > memoryCapacity) {
+			return;
+		}
+		byte[] replaced = memoryCache.put(key, encoded);
+		memoryBytes += encoded.length - (replaced == null ? 0 : replaced.length);
+		Iterator<byte[]> eldest = memoryCache.values().iterator();
+		while (memoryBytes > memoryCapacity) {
+			memoryBytes -= eldest.next().length;
+			eldest.remove();
+		}
+	}
+
+	/**
+	 * Reads a level from the on-disk cache by memory mapping its file.
+	 * If the level fits into the memory cache, the mapped bytes are copied there as they are.
+	 * @param key The cache key of the level.
+	 * @return The decoded level, or null if it is not cached on disk or cannot be read.
+	 */
+	private Level loadFromDisk(String key) {
+		if (cacheDirectory == null) {
+			return null;
+		}
+		Path file = cacheDirectory.resolve(key + FILE_EXTENSION);
+		if (!Files.isRegularFile(file)) {
+			return null;
+		}
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (channel.size() > memoryCapacity) {
+				return LevelCodec.decode(mapped);
+			}
+			byte[] encoded = new byte[(int) channel.size()];
+			mapped.get(encoded);
+			Level level = LevelCodec.decode(ByteBuffer.wrap(encoded));
+			storeInMemory(key, encoded);
+			return level;
+		} catch (IOException | RuntimeException e) {
+			System.err.println("Could not read cached level " + file + ": " + e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Writes an encoded level to the on-disk cache. The file is written under a temporary name first
+	 * and then moved into place, so readers never see a partially written level.
+	 *
+	 * @param key The cache key of the level.
+	 * @param encoded The encoded level.
+	 */
+	private void storeOnDisk(String key, byte[] encoded) {
+		if (cacheDirectory == null) {
+			return;
+		}
+		try {
+			Files.createDirectories(cacheDirectory);
+			Path temporary = Files.createTempFile(cacheDirectory, key, ".tmp");
+			try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+				ByteBuffer buffer = ByteBuffer.wrap(encoded);
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+			}
+			Files.move(temporary, cacheDirectory.resolve(key + FILE_EXTENSION),
+					StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			System.err.println("Could not cache level " + key + ": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Updates the statistics after a request has been answered.
+	 *
+	 * @param start The {@link System#nanoTime()} at which the request started.
+	 * @param memoryHit true if the level came from memory.
+	 * @param diskHit true if the level came from the disk cache.
+	 */
+	private synchronized void recordLoad(long start, boolean memoryHit, boolean diskHit) {
+		lastLoadNanos = System.nanoTime() - start;
+		totalLoadNanos += lastLoadNanos;
+		requests++;
+		if (memoryHit) {
+			memoryHits++;
+		}
+		if (diskHit) {
+			diskHits++;
+		}
+	}
+
+	/**
+	 * Returns the fraction of requests that were answered from memory or disk.
+	 * @return The cache hit rate between 0 and 1, or 0 if nothing was requested yet.
+	 */
+	public synchronized double getHitRate() {
+		return requests == 0 ? 0 : (double) (memoryHits + diskHits) / requests;
+	}
+
+	/**
+	 * Returns the average time needed to answer a request.
+	 * @return The average load time in milliseconds.
+	 */
+	public synchronized double getAverageLoadMillis() {
+		return requests == 0 ? 0 : totalLoadNanos / (requests * 1_000_000.0);
+	}
+
+	/**
+	 * Returns the time needed to answer the most recent request.
+	 * @return The last load time in milliseconds.
+	 */
+	public synchronized double getLastLoadMillis() {
+		return lastLoadNanos / 1_000_000.0;
+	}
+
+	/**
+	 * Returns a short human-readable summary of the cache statistics.
+	 * @return The statistics as text.
+	 */
+	public synchronized String getStatistics() {
+		return String.format("%d requests, %.0f%% hits (%d memory, %d disk), avg load %.2f ms, last %.2f ms",
+				requests, getHitRate() * 100, memoryHits, diskHits, getAverageLoadMillis(), getLastLoadMillis());
+	}
+}
@@ -0,0 +1,125 @@
+package model;
+
+import java.lang.foreign.Arena;
+import java.util.Arrays;
+
+/**
+ * Analyses generated mazes. The floor that can be reached from the player's position is found with a word-parallel
+ * {@link FloodFill}, and the shape of the maze is counted from it a whole word at a time. Only the length of the way
+ * to the exit needs a breadth-first search, which stops as soon as the exit is found and is skipped if the exit
+ * cannot be reached. Floor pockets that cannot be reached can be closed, so that no enemy or power-up is placed
+ * where the player can never go. The cost is linear in the size of the maze.
+ */
+class LevelValidator {
+
+	/**
+	 * Analyses a maze and optionally closes its unreachable floor cells.
+	 *
+	 * @param walls The walls of the maze. Modified if {@code closeUnreachable} is true.
+	 * @param playerX The X coordinate of the player's start.
+	 * @param playerY The Y coordinate of the player's start.
+	 * @param endX The X coordinate of the exit.
+	 * @param endY The Y coordinate of the exit.
+	 * @param closeUnreachable true to turn floor cells that cannot be reached from the player into walls.
+	 * @return The analysis of the maze. The unreachable cells are counted before they are closed.
+	 */
+	static LevelReport validate(WallGrid walls, int playerX, int playerY, int endX, int endY, boolean closeUnreachable) {
+		int width = walls.getWidth();
+		int height = walls.getHeight();
+		try (Arena arena = Arena.ofConfined()) {
+			// The maze with everything the player cannot reach walled up, laid out exactly like the wall grid.
+			// Huge mazes keep it off the heap, it is freed when the analysis is done.
+			WallGrid region = WallGrid.create(width, height, arena);
+			int reachedCells = FloodFill.fill(walls, playerX, playerY, region);
+
+			// Count the open neighbours of every reachable cell with bitwise adders, 64 cells at a time.
+			// The neighbours of a reachable cell are reachable too if they are floor, and the padding bits are walls.
+			int deadEnds = 0;
+			int corridorCells = 0;
+			int junctions = 0;
+			int wordsPerRow = region.getWordsPerRow();
+			for (int y = 0; y < height; y++) {
+				for (int w = 0; w < wordsPerRow; w++) {
+					int i = y * wordsPerRow + w;
+					long open = ~region.getWord(i);
+					if (open == 0) {
+						continue;
+					}
+					long left = (open << 1) | (w > 0 ? ~region.getWord(i - 1) >>> 63 : 0);
+					long right = (open >>> 1) | (w < wordsPerRow - 1 ? ~region.getWord(i + 1) << 63 : 0);
+					long up = y > 0 ? ~region.getWord(i - wordsPerRow) : 0;
+					long down = y < height - 1 ? ~region.getWord(i + wordsPerRow) : 0;
+					long horizontal = left ^ right;
+					long vertical = up ^ down;
+					long ones = horizontal ^ vertical;
+					long carry = horizontal & vertical;
+					long twos = (left & right) ^ (up & down) ^ carry;
+					long fours = (left & right & up & down) | (carry & ((left & right) | (up & down)));
+					deadEnds += Long.bitCount(open & ones & ~twos & ~fours);
+					corridorCells += Long.bitCount(open & ~ones & twos & ~fours);
+					junctions += Long.bitCount(open & ((ones & twos) | fours));
+				}
+			}
+
+			// Floor cells that were not reached, compared a whole word at a time.
+			// The padding bits are set in both grids, so they never count as floor.
+			int unreachableCells = walls.countFloor(region);
+			int pockets = 0;
+			if (unreachableCells > 0) {
+				pockets = new MazeRegions(walls).getRegionCount() - (reachedCells > 0 ? 1 : 0);
+				if (closeUnreachable) {
+					walls.addWalls(region);
+				}
+			}
+
+			int pathLength = region.isWall(endX, endY) ? -1 : findPathLength(region, playerX, playerY, endX, endY);
+			return new LevelReport(pathLength, reachedCells + unreachableCells, unreachableCells, pockets,
+					deadEnds, corridorCells, junctions);
+		}
+	}
+
+	/**
+	 * Finds the length of the shortest way to a reachable exit with a breadth-first search.
+	 *
+	 * @param region The reachable cells as floor. The cells visited by the search are turned into walls.
+	 * @param playerX The X coordinate of the player's start.
+	 * @param playerY The Y coordinate of the player's start.
+	 * @param endX The X coordinate of the exit.
+	 * @param endY The Y coordinate of the exit.
+	 * @return The number of steps to the exit.
+	 */
+	private static int findPathLength(WallGrid region, int playerX, int playerY, int endX, int endY) {
+		int width = region.getWidth();
+		int[] frontier = new int[64];
+		int[] next = new int[64];
+		frontier[0] = playerY * width + playerX;
+		int frontierSize = 1;
+		region.setWall(playerX, playerY, true);
+		for (int distance = 0; frontierSize > 0; distance++) {
+			int nextSize = 0;
+			for (int i = 0; i < frontierSize; i++) {
+				int x = frontier[i] % width;
+				int y = frontier[i] / width;
+				if (x == endX && y == endY) {
+					return distance;
+				}
+				for (Direction direction : Direction.values()) {
+					int nx = x + direction.deltaX;
+					int ny = y + direction.deltaY;
+					if (direction != Direction.NONE && !region.isWall(nx, ny)) {
+						region.setWall(nx, ny, true);
+						if (nextSize == next.length) {
+							next = Arrays.copyOf(next, nextSize * 2);
+						}
+						next[nextSize++] = ny * width + nx;
+					}
+				}
+			}
+			int[] swap = frontier;
+			frontier = next;
+			next = swap;
+			frontierSize = nextSize;
+		}
+		return -1;
+	}
+}
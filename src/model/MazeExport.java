@@ -0,0 +1,275 @@
+package model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Exports the maze of a {@link WorldSnapshot} as a text file or as an image, fast enough for mazes with
+ * hundreds of millions of cells. The rows are cut into chunks of a few megabytes, which are formatted in parallel
+ * on the common fork-join pool, while the calling thread writes the finished chunks in order to the file,
+ * handing every run of finished chunks to a single gathering write.
+ */
+public class MazeExport {
+
+	/** The file formats of an export. */
+	public enum Format {
+		/**
+		 * One character per cell and a line break after every row. Player {@code P} ({@code @} if invincible),
+		 * enemy {@code E} ({@code F} if frozen), power-ups {@code H}, {@code I} and {@code Z}, exit {@code X},
+		 * wall {@code #} and floor {@code .}.
+		 */
+		TEXT(".txt"),
+		/** A binary PPM (P6) image with one pixel per cell, which most image viewers open. */
+		PPM(".ppm");
+
+		/** The file extension of the format. */
+		private final String extension;
+
+		/**
+		 * Creates a format.
+		 * @param extension The file extension of the format.
+		 */
+		Format(String extension) {
+			this.extension = extension;
+		}
+
+		/**
+		 * Returns the file extension of the format.
+		 * @return The extension including the dot.
+		 */
+		public String getExtension() {
+			return extension;
+		}
+	}
+
+	/** The number of bytes a chunk of rows is cut to. Large enough for efficient writes, small enough to keep many in flight. */
+	private static final int CHUNK_BYTES = 4 << 20;
+	/** The number of chunks that may be ahead of the writer per thread. Bounds the memory used for finished chunks. */
+	private static final int CHUNKS_AHEAD_PER_THREAD = 4;
+	/** The colors of the cells in a PPM image, by their character in a text export. */
+	private static final int[] COLORS = new int[128];
+
+	static {
+		COLORS['#'] = 0x3C3C3C;
+		COLORS['.'] = 0xD2D2C8;
+		COLORS['X'] = 0x00B400;
+		COLORS['P'] = 0x1E50FF;
+		COLORS['@'] = 0xFFD700;
+		COLORS['E'] = 0xDC1E1E;
+		COLORS['F'] = 0x64C8FF;
+		COLORS['H'] = 0xFF69B4;
+		COLORS['I'] = 0xFFA500;
+		COLORS['Z'] = 0x00FFFF;
+	}
+
+	/** The background thread that writes exports, so the event dispatch thread never waits for I/O. */
+	private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "maze-export");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * Exports a snapshot on the background thread.
+	 *
+	 * @param snapshot The snapshot to export.
+	 * @param file The file to write to. An existing file is replaced once the new one is complete.
+	 * @param format The format of the file.
+	 * @return A future that completes with the written file, or exceptionally if writing failed.
+	 */
+	public static CompletableFuture<Path> exportAsync(WorldSnapshot snapshot, Path file, Format format) {
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				export(snapshot, file, format);
+				return file;
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}, EXECUTOR);
+	}
+
+	/**
+	 * Exports a snapshot to the given file on the calling thread, with the help of the common fork-join pool.
+	 *
+	 * @param snapshot The snapshot to export.
+	 * @param file The file to write to. An existing file is replaced once the new one is complete.
+	 * @param format The format of the file.
+	 * @throws IOException if the file cannot be written.
+	 */
+	public static void export(WorldSnapshot snapshot, Path file, Format format) throws IOException {
+		WallGrid walls = snapshot.walls;
+		int width = walls.getWidth();
+		int height = walls.getHeight();
+		long rowBytes = format == Format.TEXT ? width + 1L : width * 3L;
+		int rowsPerChunk = (int) Math.max(1, Math.min(height, CHUNK_BYTES / rowBytes));
+		// Sorted, so that every chunk finds its enemies with a binary search
+		int[] enemyCells = snapshot.enemyCells.clone();
+		Arrays.parallelSort(enemyCells);
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+		int chunksAhead = Math.max(2, pool.getParallelism() * CHUNKS_AHEAD_PER_THREAD);
+
+		Path directory = file.toAbsolutePath().getParent();
+		Files.createDirectories(directory);
+		Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+		ArrayDeque<ForkJoinTask<ByteBuffer>> pending = new ArrayDeque<>();
+		try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer[] batch = new ByteBuffer[chunksAhead + 1];
+			int count = 0;
+			if (format == Format.PPM) {
+				batch[count++] = ByteBuffer.wrap(("P6\n" + width + " " + height + "\n255\n").getBytes(StandardCharsets.US_ASCII));
+			}
+			int nextRow = 0;
+			while (nextRow < height || !pending.isEmpty()) {
+				// Keep every thread busy, but do not run too far ahead of the writer
+				while (nextRow < height && pending.size() < chunksAhead) {
+					int firstRow = nextRow;
+					int endRow = Math.min(height, firstRow + rowsPerChunk);
+					pending.add(pool.submit(() -> formatRows(snapshot, enemyCells, format, firstRow, endRow)));
+					nextRow = endRow;
+				}
+				// Wait for the oldest chunk, then write it together with all following chunks that are done already
+				batch[count++] = pending.poll().join();
+				while (!pending.isEmpty() && pending.peek().isDone()) {
+					batch[count++] = pending.poll().join();
+				}
+				long remaining = 0;
+				for (int i = 0; i < count; i++) {
+					remaining += batch[i].remaining();
+				}
+				while (remaining > 0) {
+					remaining -= channel.write(batch, 0, count);
+				}
+				Arrays.fill(batch, 0, count, null);
+				count = 0;
+			}
+		} catch (IOException | RuntimeException e) {
+			for (ForkJoinTask<ByteBuffer> task : pending) {
+				task.cancel(false);
+			}
+			Files.deleteIfExists(temporary);
+			throw e;
+		}
+		Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Formats a range of rows: first the walls and floor a word of the wall grid at a time,
+	 * then the exit, power-ups, enemies and player on top, in increasing priority.
+	 *
+	 * @param snapshot The snapshot to export.
+	 * @param enemyCells The cells of the enemies in increasing order.
+	 * @param format The format of the file.
+	 * @param firstRow The first row to format.
+	 * @param endRow The row after the last row to format.
+	 * @return The formatted rows.
+	 */
+	private static ByteBuffer formatRows(WorldSnapshot snapshot, int[] enemyCells, Format format, int firstRow, int endRow) {
+		WallGrid walls = snapshot.walls;
+		int width = walls.getWidth();
+		int wordsPerRow = walls.getWordsPerRow();
+		boolean text = format == Format.TEXT;
+		int rowBytes = text ? width + 1 : width * 3;
+		byte[] bytes = new byte[(endRow - firstRow) * rowBytes];
+		int position = 0;
+		for (int y = firstRow; y < endRow; y++) {
+			for (int w = 0; w < wordsPerRow; w++) {
+				long word = walls.getWord(y * wordsPerRow + w);
+				int cells = Math.min(64, width - w * 64);
+				if (text) {
+					for (int bit = 0; bit < cells; bit++) {
+						bytes[position++] = (word >>> bit & 1) != 0 ? (byte) '#' : (byte) '.';
+					}
+				} else {
+					for (int bit = 0; bit < cells; bit++) {
+						putColor(bytes, position, (word >>> bit & 1) != 0 ? COLORS['#'] : COLORS['.']);
+						position += 3;
+					}
+				}
+			}
+			if (text) {
+				bytes[position++] = '\n';
+			}
+		}
+
+		int cellBytes = text ? 1 : 3;
+		long firstCell = (long) firstRow * width;
+		long endCell = (long) endRow * width;
+		putCell(bytes, text, rowBytes, cellBytes, firstRow, width, snapshot.endX, snapshot.endY, 'X');
+		for (int i = 0; i < snapshot.powerupCells.length; i++) {
+			int cell = snapshot.powerupCells[i];
+			if (cell >= firstCell && cell < endCell) {
+				char symbol = switch (snapshot.powerupTypes[i]) {
+					case HEALTH -> 'H';
+					case INVINCIBILITY -> 'I';
+					case FREEZE_ENEMIES -> 'Z';
+				};
+				putCell(bytes, text, rowBytes, cellBytes, firstRow, width, cell % width, cell / width, symbol);
+			}
+		}
+		char enemy = snapshot.isEffectActive(Effect.ENEMIES_FROZEN) ? 'F' : 'E';
+		int index = Arrays.binarySearch(enemyCells, (int) firstCell);
+		if (index < 0) {
+			index = -index - 1;
+		}
+		for (; index < enemyCells.length && enemyCells[index] < endCell; index++) {
+			int cell = enemyCells[index];
+			putCell(bytes, text, rowBytes, cellBytes, firstRow, width, cell % width, cell / width, enemy);
+		}
+		char player = snapshot.isEffectActive(Effect.INVINCIBLE) ? '@' : 'P';
+		putCell(bytes, text, rowBytes, cellBytes, firstRow, width, snapshot.playerX, snapshot.playerY, player);
+		return ByteBuffer.wrap(bytes);
+	}
+
+	/**
+	 * Draws an entity into the formatted rows if its cell lies in them.
+	 *
+	 * @param bytes The formatted rows.
+	 * @param text Whether the rows are text.
+	 * @param rowBytes The number of bytes of a row.
+	 * @param cellBytes The number of bytes of a cell.
+	 * @param firstRow The first row of the formatted rows.
+	 * @param width The width of the maze.
+	 * @param x The X coordinate of the entity.
+	 * @param y The Y coordinate of the entity.
+	 * @param symbol The character of the entity in a text export.
+	 */
+	private static void putCell(byte[] bytes, boolean text, int rowBytes, int cellBytes, int firstRow, int width,
+			int x, int y, char symbol) {
+		if (y < firstRow || y >= firstRow + bytes.length / rowBytes || x < 0 || x >= width) {
+			return;
+		}
+		int position = (y - firstRow) * rowBytes + x * cellBytes;
+		if (text) {
+			bytes[position] = (byte) symbol;
+		} else {
+			putColor(bytes, position, COLORS[symbol]);
+		}
+	}
+
+	/**
+	 * Writes a color as three bytes.
+	 *
+	 * @param bytes The formatted rows.
+	 * @param position The position of the pixel.
+	 * @param rgb The color.
+	 */
+	private static void putColor(byte[] bytes, int position, int rgb) {
+		bytes[position] = (byte) (rgb >> 16);
+		bytes[position + 1] = (byte) (rgb >> 8);
+		bytes[position + 2] = (byte) rgb;
+	}
+}
@@ -0,0 +1,139 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Counts the connected regions of the floor of a maze. The floor is first cut into horizontal runs,
+ * which are found a whole word of the {@link WallGrid} at a time, and runs of neighbouring rows that touch
+ * are then joined with a union-find structure. Only runs are stored, not cells,
+ * so the memory needed depends on the number of runs rather than on the size of the maze.
+ */
+final class MazeRegions {
+
+	/** The X coordinate of the first cell of every run. */
+	private int[] runStarts;
+	/** The X coordinate after the last cell of every run. */
+	private int[] runEnds;
+	/** The union-find parent of every run. A run that is its own parent is the root of a region. */
+	private int[] runRegions;
+	/** The number of runs. */
+	private int runs;
+	/** The number of regions. */
+	private final int regions;
+
+	/**
+	 * Labels the floor regions of a maze.
+	 * @param walls The walls of the maze.
+	 */
+	MazeRegions(WallGrid walls) {
+		int height = walls.getHeight();
+		int wordsPerRow = walls.getWordsPerRow();
+		int previousRowStart = 0;
+		runStarts = new int[64];
+		runEnds = new int[64];
+		runRegions = new int[64];
+		for (int y = 0; y < height; y++) {
+			int rowStart = runs;
+			int row = y * wordsPerRow;
+			long open = ~walls.getWord(row);
+			long previousOpen = 0;
+			for (int w = 0; w < wordsPerRow; w++) {
+				long nextOpen = w + 1 < wordsPerRow ? ~walls.getWord(row + w + 1) : 0;
+				// A run starts at floor cells without floor on the left and ends at floor cells without floor on the right.
+				// The padding bits are walls, so every run ends inside the maze.
+				long starts = open & ~((open << 1) | (previousOpen >>> 63));
+				long ends = open & ~((open >>> 1) | (nextOpen << 63));
+				long events = starts | ends;
+				while (events != 0) {
+					long bit = events & -events;
+					events ^= bit;
+					int x = w * 64 + Long.numberOfTrailingZeros(bit);
+					if ((starts & bit) != 0) {
+						if (runs == runStarts.length) {
+							runStarts = Arrays.copyOf(runStarts, runs * 2);
+							runEnds = Arrays.copyOf(runEnds, runs * 2);
+							runRegions = Arrays.copyOf(runRegions, runs * 2);
+						}
+						runStarts[runs] = x;
+					}
+					if ((ends & bit) != 0) {
+						runEnds[runs] = x + 1;
+						runRegions[runs] = runs;
+						runs++;
+					}
+				}
+				previousOpen = open;
+				open = nextOpen;
+			}
+			if (y > 0) {
+				joinRows(previousRowStart, rowStart, runs);
+			}
+			previousRowStart = rowStart;
+		}
+
+		int roots = 0;
+		for (int run = 0; run < runs; run++) {
+			if (runRegions[run] == run) {
+				roots++;
+			}
+		}
+		regions = roots;
+	}
+
+	/**
+	 * Joins every run of a row with the runs of the row above that share at least one column with it.
+	 *
+	 * @param above The first run of the row above.
+	 * @param first The first run of the row, which is also the end of the runs of the row above.
+	 * @param end The end of the runs of the row.
+	 */
+	private void joinRows(int above, int first, int end) {
+		int current = first;
+		while (above < first && current < end) {
+			if (runStarts[above] < runEnds[current] && runStarts[current] < runEnds[above]) {
+				union(above, current);
+			}
+			if (runEnds[above] < runEnds[current]) {
+				above++;
+			} else {
+				current++;
+			}
+		}
+	}
+
+	/**
+	 * Finds the root of a run while the runs are being joined, and shortens the path to it on the way.
+	 * @param run The run.
+	 * @return The root run of its region.
+	 */
+	private int find(int run) {
+		while (runRegions[run] != run) {
+			runRegions[run] = runRegions[runRegions[run]];
+			run = runRegions[run];
+		}
+		return run;
+	}
+
+	/**
+	 * Joins the regions of two runs. The smaller root becomes the root of both.
+	 * @param a The first run.
+	 * @param b The second run.
+	 */
+	private void union(int a, int b) {
+		int rootA = find(a);
+		int rootB = find(b);
+		if (rootA < rootB) {
+			runRegions[rootB] = rootA;
+		} else if (rootB < rootA) {
+			runRegions[rootA] = rootB;
+		}
+	}
+
+	/**
+	 * Returns the number of regions.
+	 * @return The number of separate floor areas.
+	 */
+	int getRegionCount() {
+		return regions;
+	}
+}
@@ -0,0 +1,235 @@
+package model;
+
+import java.awt.Point;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+/**
+ * Writes what a bot needs to know about a {@link World} into a caller-provided array, without creating objects.
+ * The state is written as bit planes, one per channel: walls, enemies, one plane per {@link PowerupType}
+ * and the exit.
+ *
+ * A plane has the same layout as a {@link WallGrid}: row by row, every row starting at a new {@code long},
+ * bit {@code i} of word {@code w} of a row being the cell {@code w * 64 + i}. Bits after the end of a row are 0.
+ * The planes follow each other in channel order.
+ *
+ * There are two kinds of observations:
+ * <ul>
+ * <li>A window of {@code windowSize x windowSize} cells centered on the player
+ * ({@link #encodeWindow(World, long[], int)}). Cells outside the maze count as walls.</li>
+ * <li>The whole maze ({@link #encodeFull(World, long[], int)}).</li>
+ * </ul>
+ * The observation contains everything, also parts of the maze the player has not seen in fog of war mode.
+ * An encoder reuses internal buffers, so it must only be used by one thread at a time.
+ */
+public class ObservationEncoder {
+
+	/** The channel of the walls. */
+	public static final int WALL_CHANNEL = 0;
+	/** The channel of the enemies. */
+	public static final int ENEMY_CHANNEL = 1;
+	/** The channel of the first power-up type. Power-up type {@code t} is in channel {@code POWERUP_CHANNEL + t.ordinal()}. */
+	public static final int POWERUP_CHANNEL = 2;
+	/** The channel of the exit. */
+	public static final int EXIT_CHANNEL = POWERUP_CHANNEL + PowerupType.values().length;
+	/** The number of channels. */
+	public static final int CHANNELS = EXIT_CHANNEL + 1;
+
+	/** The width and height of the window in cells. */
+	private final int windowSize;
+	/** The number of words per window row. */
+	private final int wordsPerRow;
+	/** The number of words of one window plane. */
+	private final int wordsPerChannel;
+	/** Bit mask of the cells of the last word of a window row. */
+	private final long lastWordMask;
+	/** Receives the enemies of the window. Reused between calls. */
+	private final ArrayList<Point> enemyScratch = new ArrayList<>();
+	/** Receives the power-ups of the window. Reused between calls. */
+	private final ArrayList<Powerup> powerupScratch = new ArrayList<>();
+	/** Holds a window before it is written into a byte buffer. */
+	private final long[] windowScratch;
+
+	/**
+	 * Creates an encoder for windows of the given size.
+	 * @param windowSize The width and height of the window. Must be odd, so that the player is in the center.
+	 */
+	public ObservationEncoder(int windowSize) {
+		if (windowSize <= 0 || windowSize % 2 == 0) {
+			throw new IllegalArgumentException("Window size must be odd and positive: " + windowSize);
+		}
+		this.windowSize = windowSize;
+		this.wordsPerRow = WallGrid.wordsPerRow(windowSize);
+		this.wordsPerChannel = wordsPerRow * windowSize;
+		this.lastWordMask = -1L >>> (wordsPerRow * 64 - windowSize);
+		this.windowScratch = new long[CHANNELS * wordsPerChannel];
+	}
+
+	/**
+	 * Returns the width and height of the window.
+	 * @return The window size in cells.
+	 */
+	public int getWindowSize() {
+		return windowSize;
+	}
+
+	/**
+	 * Returns the number of words one window observation takes.
+	 * @return The number of {@code long} values written by {@link #encodeWindow(World, long[], int)}.
+	 */
+	public int getWindowWords() {
+		return CHANNELS * wordsPerChannel;
+	}
+
+	/**
+	 * Returns the number of words a full observation of a world takes.
+	 * @param world The world.
+	 * @return The number of {@code long} values written by {@link #encodeFull(World, long[], int)}.
+	 */
+	public static int getFullWords(World world) {
+		return CHANNELS * world.getWalls().getWordCount();
+	}
+
+	/**
+	 * Writes the window around the player.
+	 *
+	 * @param world The world to observe.
+	 * @param out Receives {@link #getWindowWords()} words.
+	 * @param offset The index in {@code out} of the first word.
+	 */
+	public void encodeWindow(World world, long[] out, int offset) {
+		int radius = windowSize / 2;
+		int originX = world.getPlayerX() - radius;
+		int originY = world.getPlayerY() - radius;
+		int end = offset + CHANNELS * wordsPerChannel;
+		for (int i = offset + wordsPerChannel; i < end; i++) {
+			out[i] = 0;
+		}
+
+		// Walls: shift the maze rows into the window, cells outside the maze are walls
+		WallGrid walls = world.getWalls();
+		int mazeWordsPerRow = walls.getWordsPerRow();
+		for (int row = 0; row < windowSize; row++) {
+			int y = originY + row;
+			int rowOffset = offset + WALL_CHANNEL * wordsPerChannel + row * wordsPerRow;
+			for (int w = 0; w < wordsPerRow; w++) {
+				long bits = -1L;
+				if (y >= 0 && y < walls.getHeight()) {
+					int x = originX + w * 64;
+					int word = Math.floorDiv(x, 64);
+					int shift = Math.floorMod(x, 64);
+					long low = wordAt(walls, y, mazeWordsPerRow, word);
+					bits = shift == 0 ? low : (low >>> shift) | (wordAt(walls, y, mazeWordsPerRow, word + 1) << (64 - shift));
+				}
+				out[rowOffset + w] = w == wordsPerRow - 1 ? bits & lastWordMask : bits;
+			}
+		}
+
+		// Entities
+		int maxX = originX + windowSize - 1;
+		int maxY = originY + windowSize - 1;
+		enemyScratch.clear();
+		world.queryEnemies(originX, originY, maxX, maxY, enemyScratch);
+		for (int i = 0; i < enemyScratch.size(); i++) {
+			Point enemy = enemyScratch.get(i);
+			setWindowBit(out, offset, ENEMY_CHANNEL, enemy.x - originX, enemy.y - originY);
+		}
+		powerupScratch.clear();
+		world.queryPowerups(originX, originY, maxX, maxY, powerupScratch);
+		for (int i = 0; i < powerupScratch.size(); i++) {
+			Powerup powerup = powerupScratch.get(i);
+			setWindowBit(out, offset, POWERUP_CHANNEL + powerup.type.ordinal(), powerup.x - originX, powerup.y - originY);
+		}
+		int exitX = world.getEndX() - originX;
+		int exitY = world.getEndY() - originY;
+		if (exitX >= 0 && exitX < windowSize && exitY >= 0 && exitY < windowSize) {
+			setWindowBit(out, offset, EXIT_CHANNEL, exitX, exitY);
+		}
+	}
+
+	/**
+	 * Writes the window around the player into a byte buffer, at its position and in its byte order.
+	 * The position is advanced by {@code getWindowWords() * 8} bytes.
+	 *
+	 * @param world The world to observe.
+	 * @param out The buffer to write to.
+	 */
+	public void encodeWindow(World world, ByteBuffer out) {
+		encodeWindow(world, windowScratch, 0);
+		for (long word : windowScratch) {
+			out.putLong(word);
+		}
+	}
+
+	/**
+	 * Writes the whole maze. Every plane has the size and layout of the world's {@link WallGrid}.
+	 *
+	 * @param world The world to observe.
+	 * @param out Receives {@link #getFullWords(World)} words.
+	 * @param offset The index in {@code out} of the first word.
+	 */
+	public static void encodeFull(World world, long[] out, int offset) {
+		WallGrid walls = world.getWalls();
+		int planeWords = walls.getWordCount();
+		int mazeWordsPerRow = walls.getWordsPerRow();
+		long lastWordMask = -1L >>> (mazeWordsPerRow * 64 - walls.getWidth());
+		for (int i = 0; i < planeWords; i++) {
+			long word = walls.getWord(i);
+			out[offset + i] = i % mazeWordsPerRow == mazeWordsPerRow - 1 ? word & lastWordMask : word;
+		}
+		for (int i = offset + planeWords; i < offset + CHANNELS * planeWords; i++) {
+			out[i] = 0;
+		}
+		for (Point enemy : world.getEnemies()) {
+			setBit(out, offset + ENEMY_CHANNEL * planeWords, mazeWordsPerRow, enemy.x, enemy.y);
+		}
+		for (Powerup powerup : world.getPowerups()) {
+			setBit(out, offset + (POWERUP_CHANNEL + powerup.type.ordinal()) * planeWords, mazeWordsPerRow,
+					powerup.x, powerup.y);
+		}
+		setBit(out, offset + EXIT_CHANNEL * planeWords, mazeWordsPerRow, world.getEndX(), world.getEndY());
+	}
+
+	/**
+	 * Returns a word of a maze row, or all walls for words left or right of the maze.
+	 *
+	 * @param walls The walls of the maze.
+	 * @param y The row.
+	 * @param mazeWordsPerRow The number of words per maze row.
+	 * @param word The index of the word in the row.
+	 * @return The wall bits of the word.
+	 */
+	private static long wordAt(WallGrid walls, int y, int mazeWordsPerRow, int word) {
+		if (word < 0 || word >= mazeWordsPerRow) {
+			return -1L;
+		}
+		// Padding bits after the last cell are set, so cells right of the maze are walls as well
+		return walls.getWord(y * mazeWordsPerRow + word);
+	}
+
+	/**
+	 * Sets the bit of a window cell.
+	 *
+	 * @param out The observation.
+	 * @param offset The index of the observation's first word.
+	 * @param channel The channel.
+	 * @param x The X coordinate in the window.
+	 * @param y The Y coordinate in the window.
+	 */
+	private void setWindowBit(long[] out, int offset, int channel, int x, int y) {
+		setBit(out, offset + channel * wordsPerChannel, wordsPerRow, x, y);
+	}
+
+	/**
+	 * Sets the bit of a cell in a plane.
+	 *
+	 * @param out The observation.
+	 * @param planeOffset The index of the plane's first word.
+	 * @param wordsPerRow The number of words per plane row.
+	 * @param x The X coordinate of the cell.
+	 * @param y The Y coordinate of the cell.
+	 */
+	private static void setBit(long[] out, int planeOffset, int wordsPerRow, int x, int y) {
+		out[planeOffset + y * wordsPerRow + (x >>> 6)] |= 1L << x;
+	}
+}
@@ -12,6 +12,8 @@ public class Powerup {
     public int y;
     /** The type of the power-up, defining its effect (e.g., HEALTH, INVINCIBILITY). */
     public PowerupType type;
+    /** The index of the power-up in the {@link PowerupStore} of its world, or -1 if it is not in a world. */
+    int slot = -1;
 
     /**
      * Constructs a new Powerup object.
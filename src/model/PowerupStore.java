@@ -0,0 +1,101 @@
+package model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * The power-ups of a world, kept densely in one array so that a collected power-up is removed in constant time
+ * by moving the last power-up into its slot. Every power-up knows its slot, so it is never searched for.
+ * Collected power-ups are not discarded but kept behind the active ones and reused by the next {@link #spawn},
+ * so loading levels and spawning power-ups allocate nothing once the pool is large enough.
+ * To everybody else the store is a read-only list of the active power-ups.
+ */
+final class PowerupStore extends AbstractList<Powerup> implements RandomAccess {
+
+	/** The active power-ups in {@code [0, count)}, followed by the pooled ones in {@code [count, pooled)}. */
+	private Powerup[] slots = new Powerup[16];
+	/** The number of active power-ups. */
+	private int count;
+	/** The number of power-up objects created so far, active or pooled. */
+	private int pooled;
+
+	/**
+	 * Replaces all power-ups with copies of the given ones, e.g. those of a new level.
+	 * The given power-ups themselves are not taken over, so the level stays unchanged.
+	 * @param powerups The new power-ups.
+	 */
+	void reset(List<Powerup> powerups) {
+		clear();
+		for (Powerup powerup : powerups) {
+			spawn(powerup.x, powerup.y, powerup.type);
+		}
+	}
+
+	/**
+	 * Removes all power-ups. Their objects stay in the pool.
+	 */
+	@Override
+	public void clear() {
+		for (int i = 0; i < count; i++) {
+			slots[i].slot = -1;
+		}
+		count = 0;
+		modCount++;
+	}
+
+	/**
+	 * Adds a power-up, reusing a pooled object if there is one.
+	 *
+	 * @param x The X coordinate of the power-up.
+	 * @param y The Y coordinate of the power-up.
+	 * @param type The type of the power-up.
+	 * @return The new power-up.
+	 */
+	Powerup spawn(int x, int y, PowerupType type) {
+		if (count == pooled) {
+			if (pooled == slots.length) {
+				slots = Arrays.copyOf(slots, pooled * 2);
+			}
+			slots[pooled++] = new Powerup(x, y, type);
+		}
+		Powerup powerup = slots[count];
+		powerup.x = x;
+		powerup.y = y;
+		powerup.type = type;
+		powerup.slot = count++;
+		modCount++;
+		return powerup;
+	}
+
+	/**
+	 * Removes a collected power-up by moving the last active power-up into its slot.
+	 * The order of the remaining power-ups changes. The object goes back to the pool.
+	 * @param powerup The power-up to remove, must be active in this store.
+	 */
+	void collect(Powerup powerup) {
+		int slot = powerup.slot;
+		if (slot < 0 || slot >= count || slots[slot] != powerup) {
+			throw new IllegalArgumentException("The power-up is not in this store");
+		}
+		Powerup last = slots[--count];
+		slots[slot] = last;
+		last.slot = slot;
+		slots[count] = powerup;
+		powerup.slot = -1;
+		modCount++;
+	}
+
+	@Override
+	public Powerup get(int index) {
+		Objects.checkIndex(index, count);
+		return slots[index];
+	}
+
+	@Override
+	public int size() {
+		return count;
+	}
+}
@@ -2,13 +2,57 @@ package model;
 
 /**
  * Defines the different types of power-ups available in the Labyrinth game.
- * Each type corresponds to a specific beneficial effect for the player.
+ * Each type corresponds to a specific beneficial effect for the player: an instant health bonus,
+ * a timed {@link Effect}, or both.
  */
 public enum PowerupType {
     /** A power-up that increases the player's health by one. */
-    HEALTH,
+    HEALTH(1, null, 0),
     /** A power-up that grants the player temporary invincibility to enemy damage. */
-    INVINCIBILITY,
+    INVINCIBILITY(0, Effect.INVINCIBLE, 2500),
     /** A power-up that temporarily freezes all enemies, preventing their movement. */
-    FREEZE_ENEMIES
+    FREEZE_ENEMIES(0, Effect.ENEMIES_FROZEN, 4000);
+
+    /** The health points the player gains when collecting the power-up. */
+    private final int healthBonus;
+    /** The timed effect started by the power-up, or null. */
+    private final Effect effect;
+    /** The duration of the effect in milliseconds. */
+    private final long durationMillis;
+
+    /**
+     * Defines a power-up type.
+     * @param healthBonus The health points gained when collecting it.
+     * @param effect The timed effect it starts, or null.
+     * @param durationMillis The duration of the effect in milliseconds.
+     */
+    PowerupType(int healthBonus, Effect effect, long durationMillis) {
+        this.healthBonus = healthBonus;
+        this.effect = effect;
+        this.durationMillis = durationMillis;
+    }
+
+    /**
+     * Returns the health points the player gains when collecting the power-up.
+     * @return The health bonus, 0 for none.
+     */
+    public int getHealthBonus() {
+        return healthBonus;
+    }
+
+    /**
+     * Returns the timed effect started by the power-up.
+     * @return The effect, or null if the power-up has no timed effect.
+     */
+    public Effect getEffect() {
+        return effect;
+    }
+
+    /**
+     * Returns how long the effect of the power-up lasts. Collecting another one while it is active starts it over.
+     * @return The duration in milliseconds.
+     */
+    public long getDurationMillis() {
+        return durationMillis;
+    }
 }
@@ -0,0 +1,234 @@
+package model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32C;
+
+/**
+ * Reads and writes {@link WorldSnapshot}s as versioned binary save files.
+ * Files are written and read through memory-mapped {@link FileChannel}s. When a file is loaded,
+ * the wall bitmap is not copied: the wall grid of the restored world reads directly from the mapping.
+ *
+ * Layout (little endian):
+ * <pre>
+ *  0  int   magic "LABS"          4  int   format version
+ *  8  long  payload length       16  int   CRC32C of the payload
+ * 20  byte  difficulty ordinal   21  byte  flags (bit 0: game over)
+ * 24  long  seed                 32  int   level, 36 int health
+ * 40  int   width, height        48  int   player x, y, exit x, y
+ * 64  int   enemy count          68  int   power-up count
+ * 72  int   effect count
+ * 80  payload: remaining effect times (long, by {@link Effect} ordinal), wall words, enemy cells (int),
+ *     power-up cells (int), power-up types (byte)
+ * </pre>
+ * New effects must be added at the end of {@link Effect}, so that older save files still restore their times.
+ */
+public class SnapshotFile {
+
+	/** The default location of the save file. */
+	public static final Path DEFAULT_PATH = Paths.get(System.getProperty("user.home"), "labyrinth.sav");
+
+	/** Marks the start of a save file ("LABS"). */
+	private static final int MAGIC = 0x5342414C;
+	/** The current version of the file format. */
+	private static final int VERSION = 2;
+	/** Size of the fixed header in bytes. A multiple of 8, so the effect times and wall words are aligned. */
+	private static final int HEADER_BYTES = 80;
+	/** Flag bit set if the game was over when it was saved. */
+	private static final int FLAG_GAME_OVER = 1;
+
+	/** The background thread that reads and writes save files, so the event dispatch thread never waits for I/O. */
+	private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "snapshot-io");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * Writes the snapshot to the given file on the background thread.
+	 *
+	 * @param snapshot The snapshot to write.
+	 * @param file The file to write to. An existing file is replaced once the new one is complete.
+	 * @return A future that completes with the written file, or exceptionally if writing failed.
+	 */
+	public static CompletableFuture<Path> saveAsync(WorldSnapshot snapshot, Path file) {
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				write(snapshot, file);
+				return file;
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}, EXECUTOR);
+	}
+
+	/**
+	 * Reads a snapshot from the given file on the background thread.
+	 *
+	 * @param file The file to read.
+	 * @return A future that completes with the snapshot, or exceptionally if the file cannot be read.
+	 */
+	public static CompletableFuture<WorldSnapshot> loadAsync(Path file) {
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				return read(file);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}, EXECUTOR);
+	}
+
+	/**
+	 * Writes the snapshot to the given file. The data is first written to a temporary file
+	 * which then replaces the target, so an interrupted save never destroys the previous one.
+	 *
+	 * @param snapshot The snapshot to write.
+	 * @param file The file to write to.
+	 * @throws IOException if the file cannot be written.
+	 */
+	public static void write(WorldSnapshot snapshot, Path file) throws IOException {
+		WallGrid walls = snapshot.walls;
+		int effectCount = snapshot.effectRemainingTimes.length;
+		int wallBytes = walls.getWordCount() * 8;
+		int enemyBytes = snapshot.enemyCells.length * 4;
+		int powerupCount = snapshot.powerupCells.length;
+		long payloadLength = effectCount * 8L + wallBytes + enemyBytes + powerupCount * 5L;
+
+		Path directory = file.toAbsolutePath().getParent();
+		Files.createDirectories(directory);
+		Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+		try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + payloadLength);
+			mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+			// Payload
+			mapped.slice(HEADER_BYTES, effectCount * 8).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer()
+					.put(snapshot.effectRemainingTimes);
+			int position = HEADER_BYTES + effectCount * 8;
+			walls.copyTo(mapped.slice(position, wallBytes).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer());
+			position += wallBytes;
+			mapped.slice(position, enemyBytes).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().put(snapshot.enemyCells);
+			position += enemyBytes;
+			mapped.slice(position, powerupCount * 4).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().put(snapshot.powerupCells);
+			position += powerupCount * 4;
+			for (int i = 0; i < powerupCount; i++) {
+				mapped.put(position + i, (byte) snapshot.powerupTypes[i].ordinal());
+			}
+
+			// Header
+			mapped.putInt(0, MAGIC);
+			mapped.putInt(4, VERSION);
+			mapped.putLong(8, payloadLength);
+			mapped.putInt(16, checksum(mapped, payloadLength));
+			mapped.put(20, (byte) snapshot.difficulty.ordinal());
+			mapped.put(21, (byte) (snapshot.gameOver ? FLAG_GAME_OVER : 0));
+			mapped.putLong(24, snapshot.seed);
+			mapped.putInt(32, snapshot.currentLevel);
+			mapped.putInt(36, snapshot.playerHealth);
+			mapped.putInt(40, walls.getWidth());
+			mapped.putInt(44, walls.getHeight());
+			mapped.putInt(48, snapshot.playerX);
+			mapped.putInt(52, snapshot.playerY);
+			mapped.putInt(56, snapshot.endX);
+			mapped.putInt(60, snapshot.endY);
+			mapped.putInt(64, snapshot.enemyCells.length);
+			mapped.putInt(68, powerupCount);
+			mapped.putInt(72, effectCount);
+			mapped.force();
+		} catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(temporary);
+			throw e;
+		}
+		Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Reads a snapshot from the given file. The version and checksum are verified before anything is restored.
+	 *
+	 * @param file The file to read.
+	 * @return The snapshot stored in the file.
+	 * @throws IOException if the file cannot be read, has an unsupported version or is corrupted.
+	 */
+	public static WorldSnapshot read(Path file) throws IOException {
+		MappedByteBuffer mapped;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if (channel.size() < HEADER_BYTES) {
+				throw new IOException("Save file is too short: " + file);
+			}
+			// The mapping stays valid after the channel is closed
+			mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		mapped.order(ByteOrder.LITTLE_ENDIAN);
+		if (mapped.getInt(0) != MAGIC) {
+			throw new IOException("Not a Labyrinth save file: " + file);
+		}
+		if (mapped.getInt(4) != VERSION) {
+			throw new IOException("Unsupported save file version " + mapped.getInt(4) + ": " + file);
+		}
+		long payloadLength = mapped.getLong(8);
+		if (payloadLength != mapped.capacity() - HEADER_BYTES || checksum(mapped, payloadLength) != mapped.getInt(16)) {
+			throw new IOException("Save file is corrupted: " + file);
+		}
+
+		int width = mapped.getInt(40);
+		int height = mapped.getInt(44);
+		int enemyCount = mapped.getInt(64);
+		int powerupCount = mapped.getInt(68);
+		int effectCount = mapped.getInt(72);
+		int wallBytes = WallGrid.wordsPerRow(width) * height * 8;
+		if (effectCount < 0 || effectCount * 8L + wallBytes + enemyCount * 4L + powerupCount * 5L != payloadLength) {
+			throw new IOException("Save file is corrupted: " + file);
+		}
+
+		// Effects unknown to this version are dropped, effects missing in the file are not active
+		long[] effectRemainingTimes = new long[Effect.values().length];
+		mapped.slice(HEADER_BYTES, effectCount * 8).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer()
+				.get(effectRemainingTimes, 0, Math.min(effectCount, effectRemainingTimes.length));
+		int position = HEADER_BYTES + effectCount * 8;
+		// Zero-copy: the wall grid reads straight from the mapped file
+		WallGrid walls = WallGrid.wrap(width, height,
+				mapped.slice(position, wallBytes).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer());
+		position += wallBytes;
+		int[] enemyCells = new int[enemyCount];
+		mapped.slice(position, enemyCount * 4).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(enemyCells);
+		position += enemyCount * 4;
+		int[] powerupCells = new int[powerupCount];
+		mapped.slice(position, powerupCount * 4).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(powerupCells);
+		position += powerupCount * 4;
+		PowerupType[] powerupTypes = new PowerupType[powerupCount];
+		for (int i = 0; i < powerupCount; i++) {
+			powerupTypes[i] = PowerupType.values()[mapped.get(position + i)];
+		}
+
+		return new WorldSnapshot(
+				Difficulty.values()[mapped.get(20)], mapped.getLong(24), mapped.getInt(32), mapped.getInt(36),
+				(mapped.get(21) & FLAG_GAME_OVER) != 0, effectRemainingTimes,
+				mapped.getInt(48), mapped.getInt(52), mapped.getInt(56), mapped.getInt(60),
+				walls, enemyCells, powerupCells, powerupTypes);
+	}
+
+	/**
+	 * Computes the CRC32C checksum of the payload that follows the header.
+	 *
+	 * @param buffer The whole file.
+	 * @param payloadLength The length of the payload in bytes.
+	 * @return The checksum.
+	 */
+	private static int checksum(ByteBuffer buffer, long payloadLength) {
+		CRC32C crc = new CRC32C();
+		crc.update(buffer.slice(HEADER_BYTES, (int) payloadLength));
+		return (int) crc.getValue();
+	}
+}
@@ -0,0 +1,197 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * A uniform grid index over entities on the maze, such as enemies or power-ups.
+ * The maze is divided into square chunks of {@value #CHUNK_SIZE} x {@value #CHUNK_SIZE} cells and every chunk
+ * keeps a list of the entities inside it. Point and rectangle queries therefore only look at the few chunks
+ * that overlap the queried area, independent of the total number of entities in the level.
+ * The index does not observe the entities, so it has to be told whenever an entity moves.
+ *
+ * @param <T> The type of the indexed entities.
+ */
+public class SpatialGrid<T> {
+
+	/** The number of bits of a cell coordinate that select the cell inside its chunk. */
+	public static final int CHUNK_SHIFT = 3;
+	/** The width and height of a chunk in cells. */
+	public static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+	/** The number of chunk columns. */
+	private final int chunksX;
+	/** The number of chunk rows. */
+	private final int chunksY;
+	/** The entities of every chunk, row by row. Lists are only created for chunks that ever held an entity. */
+	private final ArrayList<T>[] chunks;
+	/** Returns the X coordinate of an entity. */
+	private final ToIntFunction<T> xOf;
+	/** Returns the Y coordinate of an entity. */
+	private final ToIntFunction<T> yOf;
+	/** The number of indexed entities. */
+	private int size;
+
+	/**
+	 * Creates a new, empty index for a maze of the given size.
+	 *
+	 * @param width The width of the maze in cells.
+	 * @param height The height of the maze in cells.
+	 * @param xOf Returns the current X coordinate of an entity.
+	 * @param yOf Returns the current Y coordinate of an entity.
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public SpatialGrid(int width, int height, ToIntFunction<T> xOf, ToIntFunction<T> yOf) {
+		this.chunksX = Math.max(1, (width + CHUNK_SIZE - 1) >> CHUNK_SHIFT);
+		this.chunksY = Math.max(1, (height + CHUNK_SIZE - 1) >> CHUNK_SHIFT);
+		this.chunks = (ArrayList<T>[]) new ArrayList[chunksX * chunksY];
+		this.xOf = xOf;
+		this.yOf = yOf;
+	}
+
+	/**
+	 * Returns the index of the chunk that contains the given cell, clamped to the grid.
+	 * @param x The X coordinate of the cell.
+	 * @param y The Y coordinate of the cell.
+	 * @return The chunk index.
+	 */
+	private int chunkOf(int x, int y) {
+		int chunkX = Math.min(Math.max(x >> CHUNK_SHIFT, 0), chunksX - 1);
+		int chunkY = Math.min(Math.max(y >> CHUNK_SHIFT, 0), chunksY - 1);
+		return chunkY * chunksX + chunkX;
+	}
+
+	/**
+	 * Adds an entity at its current position.
+	 * @param entity The entity to add.
+	 */
+	public void add(T entity) {
+		int chunk = chunkOf(xOf.applyAsInt(entity), yOf.applyAsInt(entity));
+		if (chunks[chunk] == null) {
+			chunks[chunk] = new ArrayList<>(4);
+		}
+		chunks[chunk].add(entity);
+		size++;
+	}
+
+	/**
+	 * Adds all given entities at their current positions.
+	 * @param entities The entities to add.
+	 */
+	public void addAll(List<T> entities) {
+		for (T entity : entities) {
+			add(entity);
+		}
+	}
+
+	/**
+	 * Removes an entity that is still at the position it was indexed with.
+	 * @param entity The entity to remove.
+	 * @return true if the entity was found and removed.
+	 */
+	public boolean remove(T entity) {
+		return removeFrom(chunkOf(xOf.applyAsInt(entity), yOf.applyAsInt(entity)), entity);
+	}
+
+	/**
+	 * Updates the index after an entity moved. Must be called after every position change.
+	 *
+	 * @param entity The entity that moved, already at its new position.
+	 * @param oldX The X coordinate before the move.
+	 * @param oldY The Y coordinate before the move.
+	 */
+	public void moved(T entity, int oldX, int oldY) {
+		int oldChunk = chunkOf(oldX, oldY);
+		if (oldChunk != chunkOf(xOf.applyAsInt(entity), yOf.applyAsInt(entity)) && removeFrom(oldChunk, entity)) {
+			add(entity);
+		}
+	}
+
+	/**
+	 * Removes an entity from the given chunk. The last entity of the chunk takes its place,
+	 * so the order inside a chunk is not preserved.
+	 *
+	 * @param chunk The chunk index.
+	 * @param entity The entity to remove.
+	 * @return true if the entity was found and removed.
+	 */
+	private boolean removeFrom(int chunk, T entity) {
+		ArrayList<T> list = chunks[chunk];
+		if (list == null) {
+			return false;
+		}
+		for (int i = 0; i < list.size(); i++) {
+			if (list.get(i) == entity) {
+				list.set(i, list.get(list.size() - 1));
+				list.remove(list.size() - 1);
+				size--;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns an entity at the given cell.
+	 *
+	 * @param x The X coordinate of the cell.
+	 * @param y The Y coordinate of the cell.
+	 * @return An entity at (x, y), or null if there is none.
+	 */
+	public T findAt(int x, int y) {
+		ArrayList<T> list = chunks[chunkOf(x, y)];
+		if (list != null) {
+			for (int i = 0; i < list.size(); i++) {
+				T entity = list.get(i);
+				if (xOf.applyAsInt(entity) == x && yOf.applyAsInt(entity) == y) {
+					return entity;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Collects all entities inside the given rectangle. Only the chunks overlapping the rectangle are visited.
+	 *
+	 * @param minX The smallest X coordinate of the rectangle (inclusive).
+	 * @param minY The smallest Y coordinate of the rectangle (inclusive).
+	 * @param maxX The largest X coordinate of the rectangle (inclusive).
+	 * @param maxY The largest Y coordinate of the rectangle (inclusive).
+	 * @param result The list the found entities are added to.
+	 */
+	public void query(int minX, int minY, int maxX, int maxY, List<T> result) {
+		if (minX > maxX || minY > maxY) {
+			return;
+		}
+		int fromChunk = chunkOf(minX, minY);
+		int toChunk = chunkOf(maxX, maxY);
+		int fromChunkX = fromChunk % chunksX;
+		int toChunkX = toChunk % chunksX;
+		for (int chunkY = fromChunk / chunksX; chunkY <= toChunk / chunksX; chunkY++) {
+			for (int chunkX = fromChunkX; chunkX <= toChunkX; chunkX++) {
+				ArrayList<T> list = chunks[chunkY * chunksX + chunkX];
+				if (list == null) {
+					continue;
+				}
+				for (int i = 0; i < list.size(); i++) {
+					T entity = list.get(i);
+					int x = xOf.applyAsInt(entity);
+					int y = yOf.applyAsInt(entity);
+					if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+						result.add(entity);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of indexed entities.
+	 * @return The number of entities.
+	 */
+	public int size() {
+		return size;
+	}
+}
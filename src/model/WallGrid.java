@@ -0,0 +1,474 @@
+package model;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+/**
+ * A bit-packed grid of maze walls.
+ * Every cell is stored as one bit (1 = wall, 0 = path/floor). Rows are stored one after another
+ * and each row starts on a new 64-bit word, so whole rows can be processed word by word.
+ * The unused bits at the end of each row are always set, so they behave like the walls
+ * that surround the maze.
+ * The words are either kept in a {@code long[]} on the heap, read directly from a {@link LongBuffer},
+ * for example a memory-mapped save file, or kept off the heap in a {@link MemorySegment} for huge mazes.
+ */
+public abstract class WallGrid {
+
+	/**
+	 * Grids with at least this many cells are stored off the heap by {@link #create(int, int, Arena)},
+	 * so that huge mazes put no load on the garbage collector.
+	 * Can be changed with the system property {@code labyrinth.offHeap.minCells}.
+	 */
+	public static final long OFF_HEAP_MIN_CELLS = Long.getLong("labyrinth.offHeap.minCells", 1L << 24);
+
+	/** The width of the grid in cells. */
+	private final int width;
+	/** The height of the grid in cells. */
+	private final int height;
+	/** The number of 64-bit words used to store a single row. */
+	private final int wordsPerRow;
+
+	/**
+	 * Initializes the dimensions of a new grid.
+	 *
+	 * @param width The width of the grid in cells.
+	 * @param height The height of the grid in cells.
+	 * @param wordCount The number of words provided by the storage, checked against the dimensions.
+	 */
+	WallGrid(int width, int height, int wordCount) {
+		if (wordCount != wordsPerRow(width) * height) {
+			throw new IllegalArgumentException("Expected " + wordsPerRow(width) * height + " words but got " + wordCount);
+		}
+		this.width = width;
+		this.height = height;
+		this.wordsPerRow = wordsPerRow(width);
+	}
+
+	/**
+	 * Creates a new heap grid of the given size in which every cell is a wall.
+	 *
+	 * @param width The width of the grid in cells.
+	 * @param height The height of the grid in cells.
+	 * @return The new grid.
+	 */
+	public static WallGrid create(int width, int height) {
+		long[] words = new long[wordsPerRow(width) * height];
+		Arrays.fill(words, -1L);
+		return new ArrayWallGrid(width, height, words);
+	}
+
+	/**
+	 * Creates a new grid of the given size in which every cell is a wall.
+	 * Grids with at least {@link #OFF_HEAP_MIN_CELLS} cells are allocated in the given arena and can no longer
+	 * be used once it is closed, smaller grids are kept on the heap.
+	 *
+	 * @param width The width of the grid in cells.
+	 * @param height The height of the grid in cells.
+	 * @param arena The arena that owns the grid if it is stored off the heap. May be null for smaller grids.
+	 * @return The new grid.
+	 */
+	public static WallGrid create(int width, int height, Arena arena) {
+		if ((long) width * height < OFF_HEAP_MIN_CELLS) {
+			return create(width, height);
+		}
+		MemorySegment words = arena.allocate((long) wordsPerRow(width) * height * Long.BYTES, Long.BYTES);
+		words.fill((byte) -1);
+		return new SegmentWallGrid(width, height, words);
+	}
+
+	/**
+	 * Creates a grid that uses the given packed words as its storage. The array is not copied.
+	 *
+	 * @param width The width of the grid in cells.
+	 * @param height The height of the grid in cells.
+	 * @param words The packed wall bits, laid out as described in the class documentation.
+	 * @return The grid backed by the array.
+	 */
+	public static WallGrid wrap(int width, int height, long[] words) {
+		return new ArrayWallGrid(width, height, words);
+	}
+
+	/**
+	 * Creates a grid that reads its packed words directly from the given buffer, starting at index 0.
+	 * The buffer is not copied, a read-only buffer results in a read-only grid.
+	 *
+	 * @param width The width of the grid in cells.
+	 * @param height The height of the grid in cells.
+	 * @param words The packed wall bits, laid out as described in the class documentation.
+	 * @return The grid backed by the buffer.
+	 */
+	public static WallGrid wrap(int width, int height, LongBuffer words) {
+		return new BufferWallGrid(width, height, words);
+	}
+
+	/**
+	 * Returns the number of 64-bit words needed to store one row of the given width.
+	 * @param width The width of the row in cells.
+	 * @return The number of words per row.
+	 */
+	public static int wordsPerRow(int width) {
+		return (width + 63) >>> 6;
+	}
+
+	/**
+	 * Returns the width of the grid.
+	 * @return The width in cells.
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Returns the height of the grid.
+	 * @return The height in cells.
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Returns the number of 64-bit words used to store a single row.
+	 * @return The number of words per row.
+	 */
+	public int getWordsPerRow() {
+		return wordsPerRow;
+	}
+
+	/**
+	 * Returns the total number of 64-bit words of the grid.
+	 * @return The number of words.
+	 */
+	public int getWordCount() {
+		return wordsPerRow * height;
+	}
+
+	/**
+	 * Returns a single packed word. Bit {@code i} of word {@code y * wordsPerRow + w}
+	 * is the cell {@code (w * 64 + i, y)}.
+	 *
+	 * @param index The index of the word.
+	 * @return The packed wall bits of that word.
+	 */
+	public abstract long getWord(int index);
+
+	/**
+	 * Replaces a single packed word. The padding bits at the end of a row must stay set.
+	 *
+	 * @param index The index of the word.
+	 * @param word The new packed wall bits.
+	 */
+	public abstract void setWord(int index, long word);
+
+	/**
+	 * Copies all packed words into the given buffer, starting at its current position.
+	 * @param destination The buffer to copy the words to.
+	 */
+	public abstract void copyTo(LongBuffer destination);
+
+	/**
+	 * Returns whether the grid is stored off the heap and therefore depends on an arena.
+	 * @return true if the words are kept in a {@link MemorySegment}.
+	 */
+	public boolean isOffHeap() {
+		return false;
+	}
+
+	/**
+	 * Returns a writable buffer view of the words, if the storage can provide one cheaply.
+	 * @return The words as buffer with position 0, or null.
+	 */
+	LongBuffer asLongBuffer() {
+		return null;
+	}
+
+	/**
+	 * Returns the array the words are stored in, so that whole-grid passes can run as plain array loops,
+	 * which the JIT compiler turns into SIMD code.
+	 * @return The words, or null if they are not stored in an array.
+	 */
+	long[] wordArray() {
+		return null;
+	}
+
+	/**
+	 * Sets every word of the grid to the same value, including the padding bits.
+	 * @param word The new packed wall bits of every word.
+	 */
+	void fillWords(long word) {
+		for (int i = 0, count = getWordCount(); i < count; i++) {
+			setWord(i, word);
+		}
+	}
+
+	/**
+	 * Sets or clears every cell of the grid. The padding bits at the end of each row stay set.
+	 * @param wall true to make every cell a wall, false to make every cell a path.
+	 */
+	public void fill(boolean wall) {
+		fillWords(wall ? -1L : 0);
+		if (!wall && width % 64 != 0) {
+			for (int y = 0; y < height; y++) {
+				setWord(y * wordsPerRow + wordsPerRow - 1, -1L << width);
+			}
+		}
+	}
+
+	/**
+	 * Turns every cell that is set in another grid of the same size into a wall, a whole word at a time.
+	 *
+	 * @param cells The cells to turn into walls.
+	 * @return The number of cells that were floor before.
+	 */
+	public int addWalls(WallGrid cells) {
+		checkSameSize(cells);
+		long[] words = wordArray();
+		long[] other = cells.wordArray();
+		long added = 0;
+		if (words != null && other != null) {
+			for (int i = 0; i < words.length; i++) {
+				long word = words[i];
+				long set = other[i];
+				added += Long.bitCount(set & ~word);
+				words[i] = word | set;
+			}
+		} else {
+			for (int i = 0, count = getWordCount(); i < count; i++) {
+				long word = getWord(i);
+				long set = cells.getWord(i) & ~word;
+				if (set != 0) {
+					added += Long.bitCount(set);
+					setWord(i, word | set);
+				}
+			}
+		}
+		return (int) added;
+	}
+
+	/**
+	 * Counts the floor cells of this grid that are set in another grid of the same size, a whole word at a time.
+	 *
+	 * @param cells The cells to check.
+	 * @return The number of cells that are set in {@code cells} and floor in this grid.
+	 */
+	public int countFloor(WallGrid cells) {
+		checkSameSize(cells);
+		long[] words = wordArray();
+		long[] other = cells.wordArray();
+		long count = 0;
+		if (words != null && other != null) {
+			for (int i = 0; i < words.length; i++) {
+				count += Long.bitCount(other[i] & ~words[i]);
+			}
+		} else {
+			for (int i = 0, wordCount = getWordCount(); i < wordCount; i++) {
+				count += Long.bitCount(cells.getWord(i) & ~getWord(i));
+			}
+		}
+		return (int) count;
+	}
+
+	/**
+	 * Checks that another grid has the same size, so that their words can be combined one by one.
+	 * @param other The other grid.
+	 */
+	private void checkSameSize(WallGrid other) {
+		if (other.width != width || other.height != height) {
+			throw new IllegalArgumentException("Grid sizes differ: " + width + "x" + height
+					+ " and " + other.width + "x" + other.height);
+		}
+	}
+
+	/**
+	 * Checks if a given cell is a wall. Cells outside the grid are treated as walls.
+	 *
+	 * @param x The X coordinate to check.
+	 * @param y The Y coordinate to check.
+	 * @return true if the cell is a wall or out of bounds, false otherwise.
+	 */
+	public boolean isWall(int x, int y) {
+		if (x >= 0 && x < width && y >= 0 && y < height) {
+			return (getWord(y * wordsPerRow + (x >>> 6)) & (1L << x)) != 0;
+		}
+		return true;
+	}
+
+	/**
+	 * Sets or clears the wall of a single cell.
+	 *
+	 * @param x The X coordinate of the cell, must be inside the grid.
+	 * @param y The Y coordinate of the cell, must be inside the grid.
+	 * @param wall true to make the cell a wall, false to make it a path.
+	 */
+	public void setWall(int x, int y, boolean wall) {
+		int index = y * wordsPerRow + (x >>> 6);
+		long word = getWord(index);
+		setWord(index, wall ? word | (1L << x) : word & ~(1L << x));
+	}
+
+	/**
+	 * Returns the number of wall cells inside the grid.
+	 * @return The number of walls.
+	 */
+	public int countWalls() {
+		int paddingPerRow = wordsPerRow * 64 - width;
+		long[] words = wordArray();
+		long count = 0;
+		if (words != null) {
+			for (long word : words) {
+				count += Long.bitCount(word);
+			}
+		} else {
+			for (int i = 0, wordCount = getWordCount(); i < wordCount; i++) {
+				count += Long.bitCount(getWord(i));
+			}
+		}
+		return (int) (count - (long) paddingPerRow * height);
+	}
+
+	/**
+	 * A wall grid stored in a {@code long[]} on the heap.
+	 */
+	private static final class ArrayWallGrid extends WallGrid {
+
+		/** The packed wall bits, row by row. */
+		private final long[] words;
+
+		/**
+		 * Creates a grid backed by the given array.
+		 *
+		 * @param width The width of the grid in cells.
+		 * @param height The height of the grid in cells.
+		 * @param words The packed wall bits.
+		 */
+		ArrayWallGrid(int width, int height, long[] words) {
+			super(width, height, words.length);
+			this.words = words;
+		}
+
+		@Override
+		public long getWord(int index) {
+			return words[index];
+		}
+
+		@Override
+		public void setWord(int index, long word) {
+			words[index] = word;
+		}
+
+		@Override
+		public void copyTo(LongBuffer destination) {
+			destination.put(words);
+		}
+
+		@Override
+		LongBuffer asLongBuffer() {
+			return LongBuffer.wrap(words);
+		}
+
+		@Override
+		long[] wordArray() {
+			return words;
+		}
+
+		@Override
+		void fillWords(long word) {
+			Arrays.fill(words, word);
+		}
+	}
+
+	/**
+	 * A wall grid that reads its words from a {@link LongBuffer}, e.g. a view of a memory-mapped file.
+	 */
+	private static final class BufferWallGrid extends WallGrid {
+
+		/** The packed wall bits, row by row, starting at index 0. */
+		private final LongBuffer words;
+
+		/**
+		 * Creates a grid backed by the given buffer.
+		 *
+		 * @param width The width of the grid in cells.
+		 * @param height The height of the grid in cells.
+		 * @param words The packed wall bits.
+		 */
+		BufferWallGrid(int width, int height, LongBuffer words) {
+			super(width, height, words.limit());
+			this.words = words;
+		}
+
+		@Override
+		public long getWord(int index) {
+			return words.get(index);
+		}
+
+		@Override
+		public void setWord(int index, long word) {
+			words.put(index, word);
+		}
+
+		@Override
+		public void copyTo(LongBuffer destination) {
+			destination.put(words.duplicate().clear());
+		}
+	}
+
+	/**
+	 * A wall grid stored off the heap in a {@link MemorySegment}. It is freed when the arena that allocated
+	 * the segment is closed, which makes every further access fail.
+	 */
+	private static final class SegmentWallGrid extends WallGrid {
+
+		/** The packed wall bits, row by row. */
+		private final MemorySegment words;
+
+		/**
+		 * Creates a grid backed by the given segment.
+		 *
+		 * @param width The width of the grid in cells.
+		 * @param height The height of the grid in cells.
+		 * @param words The packed wall bits.
+		 */
+		SegmentWallGrid(int width, int height, MemorySegment words) {
+			super(width, height, (int) (words.byteSize() / Long.BYTES));
+			this.words = words;
+		}
+
+		@Override
+		public long getWord(int index) {
+			return words.getAtIndex(ValueLayout.JAVA_LONG, index);
+		}
+
+		@Override
+		public void setWord(int index, long word) {
+			words.setAtIndex(ValueLayout.JAVA_LONG, index, word);
+		}
+
+		@Override
+		public void copyTo(LongBuffer destination) {
+			destination.put(asLongBuffer());
+		}
+
+		@Override
+		public boolean isOffHeap() {
+			return true;
+		}
+
+		@Override
+		LongBuffer asLongBuffer() {
+			return words.asByteBuffer().order(ByteOrder.nativeOrder()).asLongBuffer();
+		}
+
+		@Override
+		void fillWords(long word) {
+			if (word == 0 || word == -1L) {
+				words.fill((byte) word); // All bytes of the word are the same
+			} else {
+				super.fillWords(word);
+			}
+		}
+	}
+}
@@ -1,11 +1,13 @@
 package model;
 
 import java.awt.Point;
+import java.lang.foreign.Arena;
+import java.nio.LongBuffer;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Random;
-import java.util.Stack;
+import java.util.concurrent.CompletableFuture;
 import view.View;
 
 
@@ -24,14 +26,18 @@ public class World {
 	private int playerX = 0;
 	/** The player's current Y position in the world. */
 	private int playerY = 0;
-	/** A 2D array representing the maze walls. True if it's a wall, false if it's a path/floor. */
-	private boolean[][] walls;
+	/** The bit-packed maze walls. A set bit is a wall, a cleared bit is a path/floor. Never modified during a level. */
+	private WallGrid walls;
+	/** Owns the walls of the current level if they are stored off the heap, otherwise null. Closed when the level ends. */
+	private Arena levelArena;
 	/** A list of Point objects representing the current positions of all enemies. */
-	private final List<Point> enemies;
+	private List<Point> enemies;
 	/** A boolean flag indicating if the game is over. */
 	private boolean gameOver;
 	/** The current difficulty setting of the game. */
 	private Difficulty difficulty;
+	/** The seed all levels of this game are derived from. The same seed always produces the same levels. */
+	private final long seed;
 	/** A boolean flag indicating if the game is currently paused. */
 	private boolean isPaused = false;
 	/** The current level the player is on. Starts at 1. */
@@ -39,47 +45,229 @@ public class World {
 	/** The player's current health points. */
 	private int playerHealth;
 	/** The maximum possible health for the player. */
-	private static final int MAX_PLAYER_HEALTH = 5;
-	/** Flag indicating if the player is currently invincible. */
-	private boolean isInvincible = false;
-	/** Remaining time (in milliseconds) for the invincibility power-up. */
-	private long invincibilityRemainingTime = 0;
-	/** Maximum duration (in milliseconds) for the invincibility power-up. */
-	private static final long MAX_INVINCIBILITY_DURATION_MILLIS = 2500; // 2.5 seconds
-	/** Flag indicating if enemies are currently frozen. */
-	private boolean areEnemiesFrozen = false;
-	/** Remaining time (in milliseconds) for the enemy freeze power-up. */
-	private long enemyFreezeRemainingTime = 0;
-	/** Maximum duration (in milliseconds) for the enemy freeze power-up. */
-	private static final long MAX_ENEMY_FREEZE_DURATION_MILLIS = 4000; // 4 seconds
+	static final int MAX_PLAYER_HEALTH = 5;
+	/** The active power-up effects and the times at which they end. */
+	private final EffectTimers effects = new EffectTimers();
 	/** The X coordinate of the exit point of the labyrinth for the current level. */
 	private int endX = 0;
 	/** The Y coordinate of the exit point of the labyrinth for the current level. */
 	private int endY = 0;
-	/** A list of active power-up objects currently present in the world. */
-	private final List<Powerup> powerups;
-	/** The number of power-ups to spawn at the beginning of each level. */
-	private static final int INITIAL_POWERUPS_PER_LEVEL = 5; // Number of power-ups to spawn per level
+	/** The active power-ups of the current level, pooled so that collecting and loading them does not allocate. */
+	private final PowerupStore powerups = new PowerupStore();
+	/** Spatial index over {@link #enemies}, used for per-cell and rectangle queries. */
+	private SpatialGrid<Point> enemyIndex;
+	/** Spatial index over {@link #powerups}, used for per-cell and rectangle queries. */
+	private SpatialGrid<Powerup> powerupIndex;
+	/** The view distance of the player in fog-of-war mode, in cells. */
+	private static final int FOG_OF_WAR_VIEW_RADIUS = 8;
+	/** The player's visible and explored cells, or null if fog-of-war is off. */
+	private FieldOfView fieldOfView;
+	/** The shortest-path distances to the exit of the current level, built in the background when a level starts. */
+	private CompletableFuture<DistanceField> distanceField;
+	/** The distance field {@link #pathDistance} was taken from. */
+	private DistanceField pathDistanceField;
+	/** The last known shortest-path distance from the player to the exit, -1 if unknown. */
+	private int pathDistance = -1;
+	/** The player's X position {@link #pathDistance} belongs to. */
+	private int pathDistanceX;
+	/** The player's Y position {@link #pathDistance} belongs to. */
+	private int pathDistanceY;
+	/** Flag indicating if the player walks to the exit automatically. */
+	private boolean isAutoWalking = false;
+	/** Time (in milliseconds) elapsed since the last automatic step. */
+	private long autoWalkElapsedTime = 0;
+	/** Time (in milliseconds) between two automatic steps. */
+	private static final long AUTO_WALK_STEP_MILLIS = 100;
+	/** Decides which enemies move next, each enemy at its own speed. */
+	private final EnemyScheduler enemyScheduler = new EnemyScheduler();
+	/** The time (in milliseconds) between two moves of every enemy, parallel to {@link #enemies}. */
+	private int[] enemyIntervals = new int[0];
+	/** The game time (in milliseconds) the enemies are scheduled in. Stands still while paused or frozen. */
+	private long enemyClock = 0;
+	/** The slowest enemies take this many times the difficulty's move interval between two moves. */
+	private static final double MAX_ENEMY_SLOWDOWN = 1.5;
+	/** The fastest enemies take this many times the difficulty's move interval between two moves. */
+	private static final double MAX_ENEMY_SPEEDUP = 0.75;
+	/**
+	 * Whether enemies far away from the player are put to sleep. Can be turned off with the system property
+	 * {@code labyrinth.activityZone=false}, e.g. to compare a game against full simulation.
+	 */
+	private static final boolean ACTIVITY_ZONE_ENABLED = Boolean.parseBoolean(System.getProperty("labyrinth.activityZone", "true"));
+	/** Enemies within this many cells of the player (in both directions) are always awake. */
+	private static final int ACTIVITY_RADIUS = 24;
+	/** Awake enemies fall asleep once they are this many cells outside the activity zone, so they do not flicker at its edge. */
+	private static final int SLEEP_MARGIN = 8;
+	/** The difficulty profile {@link #enemyIntervals} were calculated from. */
+	private DifficultyProfile enemySpeedProfile;
+	/** Whether every enemy is awake (scheduled), parallel to {@link #enemies}. */
+	private boolean[] enemyAwake = new boolean[0];
+	/** The number of awake enemies. */
+	private int awakeEnemyCount;
+	/** The number of moves kept in {@link #enemyMoveLog}. */
+	public static final int ENEMY_MOVE_LOG_SIZE = 1024;
+	/** The indices of the enemies that moved last, in a ring indexed by the move count. */
+	private final int[] enemyMoveLog = new int[ENEMY_MOVE_LOG_SIZE];
+	/** The number of enemy moves so far. */
+	private long enemyMoveCount;
+	/** The index of every enemy in {@link #enemies}, to find the enemies returned by the spatial index. */
+	private final IdentityHashMap<Point, Integer> enemyIds = new IdentityHashMap<>();
+	/** Decides which way enemies try first when they could move both horizontally and vertically. */
+	private final Random enemyRandom = new Random();
+	/** Generates upcoming levels in the background while the current one is played. */
+	private final LevelPregenerator pregenerator = new LevelPregenerator(LevelStore.getDefault());
 	/** A list of views registered to be notified of world updates. */
 	private final ArrayList<View> views = new ArrayList<>();
+	/** Whether view updates are collected instead of sent right away, see {@link #setViewUpdatesDeferred(boolean)}. */
+	private boolean viewUpdatesDeferred = false;
+	/** Whether the state changed while view updates were deferred. */
+	private boolean viewUpdatePending = false;
+
+	/**
+	 * Constructs a new World with the given initial difficulty and a random seed.
+	 *
+	 * @param difficulty The initial difficulty setting for the world.
+	 */
+	public World(Difficulty difficulty) {
+		this(difficulty, new Random().nextLong());
+	}
 
 	/**
-	 * Constructs a new World with the given initial difficulty.
+	 * Constructs a new World with the given initial difficulty and seed.
 	 * Initializes game state, including level, player health, and power-up lists.
 	 * It then immediately calls {@link #restart(Difficulty, boolean)} to generate the first maze.
 	 *
 	 * @param difficulty The initial difficulty setting for the world.
+	 * @param seed The seed all levels of the game are derived from.
 	 */
-	public World(Difficulty difficulty) {
+	public World(Difficulty difficulty, long seed) {
 		this.difficulty = difficulty;
+		this.seed = seed;
 		this.enemies = new ArrayList<>();
-		this.powerups = new ArrayList<>(); // Initialize power-ups list with custom Powerup objects
 		this.currentLevel = 1; // Start at level to 1
 		this.playerHealth = MAX_PLAYER_HEALTH; // initializes players health to the MAX_PLAYER_HEALTH
 
 		restart(difficulty, true); // Call restart with initial difficulty, resetting health
 	}
 
+	/**
+	 * Constructs a World that continues a saved game.
+	 * The state is restored exactly as it was captured, no new level is generated.
+	 *
+	 * @param snapshot The snapshot to restore, e.g. read by {@link SnapshotFile#read(java.nio.file.Path)}.
+	 */
+	public World(WorldSnapshot snapshot) {
+		this.difficulty = snapshot.difficulty;
+		this.seed = snapshot.seed;
+		this.currentLevel = snapshot.currentLevel;
+		this.playerHealth = snapshot.playerHealth;
+		this.gameOver = snapshot.gameOver;
+		for (Effect effect : Effect.values()) {
+			if (snapshot.isEffectActive(effect)) {
+				effects.start(effect, snapshot.effectRemainingTimes[effect.ordinal()]);
+			}
+		}
+		this.walls = snapshot.walls;
+		this.width = walls.getWidth();
+		this.height = walls.getHeight();
+		this.playerX = snapshot.playerX;
+		this.playerY = snapshot.playerY;
+		this.endX = snapshot.endX;
+		this.endY = snapshot.endY;
+
+		this.enemies = new ArrayList<>(snapshot.enemyCells.length);
+		for (int cell : snapshot.enemyCells) {
+			enemies.add(new Point(cell % width, cell / width));
+		}
+		for (int i = 0; i < snapshot.powerupCells.length; i++) {
+			int cell = snapshot.powerupCells[i];
+			powerups.spawn(cell % width, cell / width, snapshot.powerupTypes[i]);
+		}
+		rebuildSpatialIndex();
+		scheduleEnemies();
+		distanceField = DistanceField.computeAsync(walls, endX, endY);
+
+		pregenerator.request(difficulty, currentLevel + 1, seed);
+	}
+
+	/**
+	 * Captures the complete current state of the world.
+	 * Only the entity positions are copied, the wall grid is shared because it never changes during a level.
+	 * This makes capturing cheap enough for the event dispatch thread, independent of the maze size,
+	 * while the snapshot itself can be written on a background thread.
+	 *
+	 * @return A snapshot of the current state.
+	 */
+	public WorldSnapshot createSnapshot() {
+		int[] enemyCells = new int[enemies.size()];
+		for (int i = 0; i < enemyCells.length; i++) {
+			Point enemy = enemies.get(i);
+			enemyCells[i] = enemy.y * width + enemy.x;
+		}
+		int[] powerupCells = new int[powerups.size()];
+		PowerupType[] powerupTypes = new PowerupType[powerups.size()];
+		for (int i = 0; i < powerupCells.length; i++) {
+			Powerup powerup = powerups.get(i);
+			powerupCells[i] = powerup.y * width + powerup.x;
+			powerupTypes[i] = powerup.type;
+		}
+		WallGrid snapshotWalls = walls;
+		if (walls.isOffHeap()) {
+			// Off-heap walls are freed with the level, but the snapshot may outlive it (e.g. while it is written)
+			long[] words = new long[walls.getWordCount()];
+			walls.copyTo(LongBuffer.wrap(words));
+			snapshotWalls = WallGrid.wrap(width, height, words);
+		}
+		Effect[] allEffects = Effect.values();
+		long[] effectRemainingTimes = new long[allEffects.length];
+		for (Effect effect : allEffects) {
+			effectRemainingTimes[effect.ordinal()] = effects.getRemainingMillis(effect);
+		}
+		return new WorldSnapshot(difficulty, seed, currentLevel, playerHealth, gameOver, effectRemainingTimes,
+				playerX, playerY, endX, endY, snapshotWalls, enemyCells, powerupCells, powerupTypes);
+	}
+
+	/**
+	 * Takes over the walls of a new level and frees the off-heap storage of the previous level.
+	 * Huge mazes (see {@link WallGrid#OFF_HEAP_MIN_CELLS}) are already stored off the heap in an arena of the level,
+	 * which the world takes over together with them, so the walls are never copied.
+	 *
+	 * @param level The new level.
+	 * @return The walls to play with.
+	 */
+	private WallGrid takeOverWalls(Level level) {
+		freeLevelStorage();
+		levelArena = level.getArena();
+		return level.getWalls();
+	}
+
+	/**
+	 * Frees the off-heap storage of the current level, if there is any.
+	 * The distance field may still be computed from the walls in the background, so the storage is freed
+	 * as soon as it is done.
+	 */
+	private void freeLevelStorage() {
+		if (levelArena == null) {
+			return;
+		}
+		Arena arena = levelArena;
+		levelArena = null;
+		if (distanceField == null) {
+			arena.close();
+		} else {
+			distanceField.whenComplete((field, error) -> arena.close());
+		}
+	}
+
+	/**
+	 * Frees the off-heap storage of the current level and discards the level generated ahead, whose storage is not
+	 * freed by the garbage collector either. This has to be called when the world is no longer used.
+	 * The world must not be used afterwards.
+	 */
+	public void dispose() {
+		pregenerator.cancel(); // The next level may already be stored off the heap
+		freeLevelStorage();
+	}
+
 	/**
 	 * Resets and restarts the game with a new difficulty or the current difficulty.
 	 * This method initializes a new maze, places the player, end point, and enemies.
@@ -99,102 +287,34 @@ public class World {
 			this.playerHealth = MAX_PLAYER_HEALTH;
 		}
 
-		// Reset power-up states and their remaining times
-		this.isInvincible = false;
-		this.invincibilityRemainingTime = 0;
-		this.areEnemiesFrozen = false;
-		this.enemyFreezeRemainingTime = 0;
-
-		// Use scaled dimensions based on the current level for difficulty.
-		// Ensure dimensions are odd for better maze generation (algorithm).
-		this.width = difficulty.getScaledWorldSize(currentLevel);
-		this.height = difficulty.getScaledWorldSize(currentLevel);
-		if (this.width % 2 == 0) this.width++; // Make width odd
-		if (this.height % 2 == 0) this.height++; // Make height odd
-
-		this.walls = new boolean[width][height]; // Initialize the walls array for the new maze
-
-		this.enemies.clear(); // Clear existing enemies
-		this.powerups.clear(); // Clear existing power-ups
-
-		// Initialize all cells as walls before maze generation
-		for (int i = 0; i < height; i++) {
-			for (int j = 0; j < width; j++) {
-				this.walls[j][i] = true; // All cells are walls initially
-			}
-		}
-
-		Random rand = new Random();
-
-		// Set player and end positions on valid 'path' cells.
-		// Randomly choose valid odd coordinates within the bounds.
-		this.playerX = rand.nextInt((width - 1) / 2) * 2 + 1;
-		this.playerY = rand.nextInt((height - 1) / 2) * 2 + 1;
-
-		// Ensure the end point is different from the player's starting position
-		do {
-			this.endX = rand.nextInt((width - 1) / 2) * 2 + 1;
-			this.endY = rand.nextInt((height - 1) / 2) * 2 + 1;
-		} while (this.endX == this.playerX && this.endY == this.playerY);
-
-		// Generate the maze using the Depth-First Search (Recursive Backtracker) algorithm,
-		// starting from the player's initial position.
-		generateMazeDFS(playerX, playerY);
-
-		// Post-processing: Remove a percentage of walls to make the labyrinth more open
-		// and prevent it from being too constricting. The percentage scales with level.
-		removeRandomWalls(difficulty.getScaledWallPercentage(currentLevel));
-
-
-		// Place enemies randomly throughout the maze.
-		// Number of enemies scales with difficulty and current level.
-		int numberOfEnemies = (int) (width * height * difficulty.getScaledEnemyPercentage(currentLevel));
-		for (int i = 0; i < numberOfEnemies; i++) {
-			int enemyX, enemyY;
-			boolean isWall, isPlayer, isEnd, isPowerup;
-			do {
-				enemyX = rand.nextInt(width);
-				enemyY = rand.nextInt(height);
-				// Ensure enemy is not placed on a wall, player, end, or another power-up
-				isWall = isWall(enemyX, enemyY);
-				isPlayer = (enemyX == this.playerX && enemyY == this.playerY);
-				isEnd = (enemyX == this.endX && enemyY == this.endY);
-				isPowerup = isPowerupAt(enemyX, enemyY);
-			} while (isWall || isPlayer || isEnd || isPowerup);
-			enemies.add(new Point(enemyX, enemyY)); // Add the new enemy
-		}
-
-		// Place power-ups randomly throughout the maze.
-		// The number of power-ups is fixed per level.
-		for (int i = 0; i < INITIAL_POWERUPS_PER_LEVEL; i++) {
-			int powerupX, powerupY;
-			boolean isWall, isPlayer, isEnd, isEnemy, isAnotherPowerup;
-			PowerupType type;
-			// Assign specific types to power-ups for consistent distribution
-			if (i == 0) {
-				type = PowerupType.HEALTH;
-			} else if (i == 1) {
-				type = PowerupType.INVINCIBILITY;
-			} else {
-				type = PowerupType.FREEZE_ENEMIES;
-			}
-
-			do {
-				powerupX = rand.nextInt(width);
-				powerupY = rand.nextInt(height);
-				// Ensure power-up is not placed on a wall, player, end, enemy, or another power-up
-				isWall = isWall(powerupX, powerupY);
-				isPlayer = (powerupX == this.playerX && powerupY == this.playerY);
-				isEnd = (powerupX == this.endX && powerupY == this.endY);
-				isEnemy = isEnemyAt(powerupX, powerupY);
-				isAnotherPowerup = isPowerupAt(powerupX, powerupY);
-			} while (isWall || isPlayer || isEnd || isEnemy || isAnotherPowerup);
-			powerups.add(new Powerup(powerupX, powerupY, type)); // Add the new power-up
+		// End all power-up effects
+		effects.clear();
+
+		// Take over the next level. When advancing, it has usually been generated in the background already,
+		// so only references are swapped here and the transition does not depend on the maze size.
+		Level level = pregenerator.take(newDifficulty, currentLevel, seed);
+		this.width = level.getWidth();
+		this.height = level.getHeight();
+		this.walls = takeOverWalls(level);
+		this.playerX = level.getPlayerX();
+		this.playerY = level.getPlayerY();
+		this.endX = level.getEndX();
+		this.endY = level.getEndY();
+		this.enemies = level.getEnemies();
+		powerups.reset(level.getPowerups()); // Copied into pooled objects, the level itself stays unchanged
+		rebuildSpatialIndex();
+		scheduleEnemies();
+		// Precompute the paths to the exit in the background, they are used for the HUD and auto-walk
+		distanceField = DistanceField.computeAsync(walls, endX, endY);
+		if (fieldOfView != null) {
+			resetFieldOfView(); // A new level starts unexplored
 		}
 
+		// Speculatively generate the following level while this one is being played
+		pregenerator.request(newDifficulty, currentLevel + 1, seed);
 
 		// if player is on an enemy and is not invincible, lose health.
-		if (isEnemyAt(playerX, playerY) && !isInvincible) {
+		if (isEnemyAt(playerX, playerY) && !isInvincible()) {
 			playerHealth--;
 			if (playerHealth <= 0) {
 				this.gameOver = true; // Game over if health drops to 0 or below
@@ -204,106 +324,256 @@ public class World {
 		updateViews(); // UpdateView
 	}
 
+	// Getters and Setters
+
 	/**
-	 * Generates a maze using the Depth-First Search (Recursive Backtracker) algorithm.
-	 * This algorithm carves paths by setting wall cells to false, starting from a given point.
-	 * It ensures that a single, continuous path exists through the maze.
-	 *
-	 * @param startX The starting X coordinate for maze generation. This cell will be a path.
-	 * @param startY The starting Y coordinate for maze generation. This cell will be a path.
-	 */
-	private void generateMazeDFS(int startX, int startY) {
-		Stack<Point> stack = new Stack<>(); // Stack to keep track of visited cells for backtracking
-		boolean[][] visited = new boolean[width][height]; // Tracks visited cells during DFS
-		Random rand = new Random();
-
-		stack.push(new Point(startX, startY));
-		visited[startX][startY] = true;
-		walls[startX][startY] = false; // Carve out the starting cell, making it a path
-
-		while (!stack.isEmpty()) {
-			Point current = stack.peek(); // Get current cell without removing it (for neighbor checking)
-
-			// Get a list of unvisited neighbors (cells two steps away, as per maze generation rules)
-			List<Direction> unvisitedNeighbors = getUnvisitedNeighbors(current.x, current.y, visited);
-
-			if (!unvisitedNeighbors.isEmpty()) {
-				// Choose a rndom unvisited neigahbor
-				Direction chosenDirection = unvisitedNeighbors.get(rand.nextInt(unvisitedNeighbors.size()));
-				int nextX = current.x + chosenDirection.deltaX * 2; // Calculate X of the next cell
-				int nextY = current.y + chosenDirection.deltaY * 2; // Calculate Y of the next cell
-
-				// Carve out the wall cell between the current cell and the next cell
-				walls[current.x + chosenDirection.deltaX][current.y + chosenDirection.deltaY] = false;
-				walls[nextX][nextY] = false; // Carve out the next cell itself
-
-				visited[nextX][nextY] = true; // Mark the new cell as visited
-				stack.push(new Point(nextX, nextY)); // Push the new cell onto the stack
-			} else {
-				stack.pop(); // If no unvisited neighbors, backtrack by popping from the stack
+	 * Gives every enemy of the current level its own speed and queues the first move of the enemies near the player.
+	 * Speeds and start offsets are derived from the seed, so they are the same whenever the level is played.
+	 */
+	private void scheduleEnemies() {
+		enemySpeedProfile = difficulty.getProfile();
+		long baseInterval = getEnemyMoveIntervalMillis();
+		enemyScheduler.clear();
+		enemyIds.clear();
+		enemyIntervals = new int[enemies.size()];
+		enemyAwake = new boolean[enemies.size()];
+		awakeEnemyCount = 0;
+		for (int i = 0; i < enemyIntervals.length; i++) {
+			long hash = LevelGenerator.levelSeed(difficulty, currentLevel, seed + i);
+			double phase = (hash & 0x3FF) / 1024.0;
+			enemyIntervals[i] = enemyInterval(hash, baseInterval);
+			enemyIds.put(enemies.get(i), i);
+			if (!ACTIVITY_ZONE_ENABLED || isNearPlayer(enemies.get(i), ACTIVITY_RADIUS)) {
+				// Spread the first moves over one interval, so enemies of the same speed do not move in lock-step
+				wakeEnemy(i, enemyClock + (long) (enemyIntervals[i] * (1 + phase)));
 			}
 		}
 	}
 
 	/**
-	 * Gets a list of unvisited neighbor cells (cells two steps away) from the given coordinates.
-	 * This method is used by the DFS maze generation algorithm to find new paths to carve.
-	 * It checks all four cardinal directions.
+	 * Calculates the move interval of an enemy.
 	 *
-	 * @param x The current X coordinate.
-	 * @param y The current Y coordinate.
-	 * @param visited A 2D boolean array indicating which cells have already been visited by DFS.
-	 * @return A list of {@link Direction} enum constants, each representing a valid, unvisited neighbor.
-	 */
-	private List<Direction> getUnvisitedNeighbors(int x, int y, boolean[][] visited) {
-		List<Direction> neighbors = new ArrayList<>();
-		// Define all four cardinal directions
-		Direction[] cardinalDirections = {Direction.UP, Direction.DOWN, Direction.LEFT, Direction.RIGHT};
-
-		for (Direction dir : cardinalDirections) {
-			int neighborX = x + dir.deltaX * 2; // Calculate X of the potential new cell (2 steps away)
-			int neighborY = y + dir.deltaY * 2; // Calculate Y of the potential new cell (2 steps away)
-
-			// Check if the potential neighbor is within the world bounds and has not been visited yet
-			if (neighborX >= 0 && neighborX < width && neighborY >= 0 && neighborY < height && !visited[neighborX][neighborY]) {
-				neighbors.add(dir); // Add this direction as a valid unvisited neighbor
+	 * @param hash The hash of the enemy, derived from the seed.
+	 * @param baseInterval The move interval of the difficulty at the current level.
+	 * @return The move interval of the enemy in milliseconds.
+	 */
+	private static int enemyInterval(long hash, long baseInterval) {
+		double speed = (hash >>> 11) * 0x1.0p-53; // Uniform in [0, 1)
+		return (int) Math.max(1, baseInterval * (MAX_ENEMY_SPEEDUP + speed * (MAX_ENEMY_SLOWDOWN - MAX_ENEMY_SPEEDUP)));
+	}
+
+	/**
+	 * Recalculates the enemy speeds after the difficulty profile was replaced, e.g. reloaded from its file.
+	 * The queued moves keep their share of the interval that is left, so enemies do not all move at once.
+	 */
+	private void rescaleEnemySpeeds() {
+		enemySpeedProfile = difficulty.getProfile();
+		long baseInterval = getEnemyMoveIntervalMillis();
+		int[] oldIntervals = enemyIntervals;
+		enemyIntervals = new int[oldIntervals.length];
+		for (int i = 0; i < enemyIntervals.length; i++) {
+			enemyIntervals[i] = enemyInterval(LevelGenerator.levelSeed(difficulty, currentLevel, seed + i), baseInterval);
+		}
+		int queued = enemyScheduler.size();
+		int[] queuedEnemies = new int[queued];
+		long[] remaining = new long[queued];
+		for (int i = 0; i < queued; i++) {
+			remaining[i] = enemyScheduler.peekTime() - enemyClock;
+			queuedEnemies[i] = enemyScheduler.poll();
+		}
+		for (int i = 0; i < queued; i++) {
+			int enemy = queuedEnemies[i];
+			enemyScheduler.schedule(enemy, enemyClock + remaining[i] * enemyIntervals[enemy] / oldIntervals[enemy]);
+		}
+	}
+
+	/**
+	 * Wakes up an enemy by queueing its next move.
+	 * @param enemy The index of the enemy.
+	 * @param time The game time of its next move.
+	 */
+	private void wakeEnemy(int enemy, long time) {
+		enemyAwake[enemy] = true;
+		awakeEnemyCount++;
+		enemyScheduler.schedule(enemy, time);
+	}
+
+	/**
+	 * Wakes up the sleeping enemies inside the activity zone around the player.
+	 * Only the chunks of the spatial index that overlap the zone are looked at.
+	 */
+	private void wakeEnemiesNearPlayer() {
+		if (!ACTIVITY_ZONE_ENABLED) {
+			return;
+		}
+		for (Point enemy : getEnemiesInArea(playerX - ACTIVITY_RADIUS, playerY - ACTIVITY_RADIUS,
+				playerX + ACTIVITY_RADIUS, playerY + ACTIVITY_RADIUS)) {
+			int id = enemyIds.get(enemy);
+			if (!enemyAwake[id]) {
+				wakeEnemy(id, enemyClock + enemyIntervals[id]);
 			}
 		}
-		Collections.shuffle(neighbors); // Shuffle the list to introduce randomness in maze generation
-		return neighbors;
+		assert isActivityZoneAwake() : "Sleeping enemy inside the activity zone";
 	}
 
 	/**
-	 * Removes a percentage of the existing walls to make the labyrinth more open and less constricting.
-	 * @param percentageToOpen The percentage of existing interior walls to potentially remove.
+	 * Checks if an enemy is within the given distance of the player in both directions.
+	 * @param enemy The enemy.
+	 * @param distance The distance in cells.
+	 * @return true if the enemy is near the player.
 	 */
-	private void removeRandomWalls(double percentageToOpen) {
-		Random rand = new Random();
-		List<Point> potentialWallsToRemove = new ArrayList<>();
+	private boolean isNearPlayer(Point enemy, int distance) {
+		return Math.abs(enemy.x - playerX) <= distance && Math.abs(enemy.y - playerY) <= distance;
+	}
 
-		// Iterate through the grid to identify all existing walls that are not critical (player, end)
-		for (int y = 0; y < height; y++) {
-			for (int x = 0; x < width; x++) {
-					potentialWallsToRemove.add(new Point(x, y));
+	/**
+	 * Checks that no enemy in the activity zone is asleep, which would make the game unfair.
+	 * Used as an assertion (run with {@code -ea}) after the zone moved.
+	 * @return true if every enemy inside the activity zone is awake.
+	 */
+	boolean isActivityZoneAwake() {
+		for (int i = 0; i < enemyAwake.length; i++) {
+			if (!enemyAwake[i] && isNearPlayer(enemies.get(i), ACTIVITY_RADIUS)) {
+				return false;
 			}
 		}
+		return true;
+	}
+
+	/**
+	 * Returns the number of enemies that are currently simulated. Enemies far away from the player sleep.
+	 * @return The number of awake enemies.
+	 */
+	public int getAwakeEnemyCount() {
+		return awakeEnemyCount;
+	}
+
+	/**
+	 * Returns the distance field of the current level if its background computation has finished.
+	 * @return The distance field, or null if it is not available yet.
+	 */
+	private DistanceField getDistanceField() {
+		return distanceField.isDone() && !distanceField.isCompletedExceptionally() ? distanceField.join() : null;
+	}
+
+	/**
+	 * Returns the length of the shortest path from the player to the exit.
+	 * The first call on a level follows the path once; afterwards every player move only adjusts the distance by one.
+	 *
+	 * @return The number of steps to the exit, or -1 if it is not known yet or the exit cannot be reached.
+	 */
+	public int getPathDistanceToEnd() {
+		DistanceField field = getDistanceField();
+		if (field == null) {
+			return -1;
+		}
+		if (field != pathDistanceField) {
+			pathDistance = field.distance(playerX, playerY);
+		} else if (Math.abs(playerX - pathDistanceX) + Math.abs(playerY - pathDistanceY) == 1) {
+			pathDistance = field.distanceAfterMove(pathDistanceX, pathDistanceY, pathDistance, playerX, playerY);
+		} else if (playerX != pathDistanceX || playerY != pathDistanceY) {
+			pathDistance = field.distance(playerX, playerY);
+		}
+		pathDistanceField = field;
+		pathDistanceX = playerX;
+		pathDistanceY = playerY;
+		return pathDistance;
+	}
 
-		// Calculate the number of walls to remove based on the given percentage
-		int wallsToRemoveCount = (int) (potentialWallsToRemove.size() * percentageToOpen);
+	/**
+	 * Returns the first step of the shortest path from the player to the exit.
+	 * @return The direction to move in, or {@link Direction#NONE} if the path is not known yet.
+	 */
+	public Direction getNextStepToEnd() {
+		DistanceField field = getDistanceField();
+		return field == null ? Direction.NONE : field.nextStep(playerX, playerY);
+	}
 
-		// Shuffle the list of potential walls to randomize which ones are selected for removal
-		Collections.shuffle(potentialWallsToRemove, rand);
+	/**
+	 * Checks if the player walks to the exit automatically.
+	 * @return true if auto-walk is on.
+	 */
+	public boolean isAutoWalking() {
+		return isAutoWalking;
+	}
 
-		// Iterate through the shuffled list and remove the specified number of walls
-		for (int i = 0; i < wallsToRemoveCount && i < potentialWallsToRemove.size(); i++) {
-			Point wall = potentialWallsToRemove.get(i);
-				walls[wall.x][wall.y] = false; // Set the cell to a path (remove the wall)
+	/**
+	 * Turns auto-walk on or off. While it is on, {@link #advanceAutoWalk(long)} moves the player along the shortest path.
+	 * @param autoWalking true to walk to the exit automatically.
+	 */
+	public void setAutoWalking(boolean autoWalking) {
+		this.isAutoWalking = autoWalking;
+		this.autoWalkElapsedTime = 0;
+	}
 
+	/**
+	 * Moves the player along the shortest path to the exit if auto-walk is on,
+	 * one step every {@value #AUTO_WALK_STEP_MILLIS} milliseconds.
+	 * @param deltaTimeMillis The time elapsed since the last update in milliseconds.
+	 */
+	public void advanceAutoWalk(long deltaTimeMillis) {
+		if (!isAutoWalking || isPaused() || isGameOver()) {
+			return;
+		}
+		autoWalkElapsedTime += deltaTimeMillis;
+		while (autoWalkElapsedTime >= AUTO_WALK_STEP_MILLIS) {
+			Direction step = getNextStepToEnd();
+			if (step == Direction.NONE) {
+				autoWalkElapsedTime = 0; // Wait for the paths of a new level
+				return;
+			}
+			autoWalkElapsedTime -= AUTO_WALK_STEP_MILLIS;
+			movePlayer(step);
 		}
 	}
 
+	/**
+	 * Turns the fog-of-war mode on or off. When it is turned on, the current level starts unexplored.
+	 * @param fogOfWar true to only show the cells in the player's line of sight and the cells seen before.
+	 */
+	public void setFogOfWar(boolean fogOfWar) {
+		if (!fogOfWar) {
+			fieldOfView = null;
+		} else if (fieldOfView == null) {
+			resetFieldOfView();
+		}
+	}
 
-	// Getters and Setters
+	/**
+	 * Starts a new, unexplored field of view for the current level.
+	 */
+	private void resetFieldOfView() {
+		fieldOfView = new FieldOfView(walls, FOG_OF_WAR_VIEW_RADIUS);
+		fieldOfView.update(playerX, playerY);
+	}
+
+	/**
+	 * Checks if the fog-of-war mode is on.
+	 * @return true if only the cells seen by the player are shown.
+	 */
+	public boolean isFogOfWar() {
+		return fieldOfView != null;
+	}
+
+	/**
+	 * Checks if the player can currently see a cell. Without fog-of-war every cell is visible.
+	 * @param x The X coordinate of the cell.
+	 * @param y The Y coordinate of the cell.
+	 * @return true if the cell is in the player's line of sight.
+	 */
+	public boolean isVisible(int x, int y) {
+		return fieldOfView == null || fieldOfView.isVisible(x, y);
+	}
+
+	/**
+	 * Checks if the player has seen a cell during the current level. Without fog-of-war every cell is explored.
+	 * @param x The X coordinate of the cell.
+	 * @param y The Y coordinate of the cell.
+	 * @return true if the cell is visible or has been visible before.
+	 */
+	public boolean isExplored(int x, int y) {
+		return fieldOfView == null || fieldOfView.isExplored(x, y);
+	}
 
 	/**
 	 * Checks if the game is currently paused.
@@ -322,6 +592,14 @@ public class World {
 		updateViews(); // Notify views about the pause state change
 	}
 
+	/**
+	 * Returns the seed all levels of this game are derived from.
+	 * @return The seed of the game.
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
 	/**
 	 * Returns the width of the game world grid.
 	 * @return The width of the world.
@@ -338,6 +616,15 @@ public class World {
 		return height;
 	}
 
+	/**
+	 * Returns the bit-packed walls of the current level.
+	 * The grid must not be modified, it is shared with snapshots and renderers.
+	 * @return The wall grid of the current level.
+	 */
+	public WallGrid getWalls() {
+		return walls;
+	}
+
 	/**
 	 * Returns the player's current X position.
 	 * @return The player's X position.
@@ -398,8 +685,38 @@ public class World {
 		return enemies;
 	}
 
+	/**
+	 * Returns the number of times an enemy moved to another cell so far, e.g. to ask {@link #getMovedEnemies(long, int[])}
+	 * for the enemies that moved since.
+	 * @return The number of enemy moves.
+	 */
+	public long getEnemyMoveCount() {
+		return enemyMoveCount;
+	}
+
+	/**
+	 * Returns the enemies that moved since the given move count, so that views only have to look at those.
+	 * An enemy that moved several times is listed several times.
+	 *
+	 * @param since The move count the caller saw last, see {@link #getEnemyMoveCount()}.
+	 * @param moved Receives the indices of the moved enemies in {@link #getEnemies()}, in the order they moved.
+	 * @return The number of indices written, or -1 if more enemies moved than the log keeps or the array holds,
+	 *         in which case every enemy has to be looked at.
+	 */
+	public int getMovedEnemies(long since, int[] moved) {
+		long count = enemyMoveCount - since;
+		if (count < 0 || count > ENEMY_MOVE_LOG_SIZE || count > moved.length) {
+			return -1;
+		}
+		for (int i = 0; i < count; i++) {
+			moved[i] = enemyMoveLog[(int) ((since + i) % ENEMY_MOVE_LOG_SIZE)];
+		}
+		return (int) count;
+	}
+
 	/**
 	 * Returns a list of all active power-ups currently present in the world.
+	 * The list is read-only and changes with the world. Collecting a power-up moves the last one into its place.
 	 * @return A {@link List} of {@link Powerup} objects.
 	 */
 	public List<Powerup> getPowerups() {
@@ -435,7 +752,7 @@ public class World {
 	 * @return true if the player is invincible, false otherwise.
 	 */
 	public boolean isInvincible() {
-		return isInvincible;
+		return effects.isActive(Effect.INVINCIBLE);
 	}
 
 	/**
@@ -443,7 +760,37 @@ public class World {
 	 * @return true if enemies are frozen, false otherwise.
 	 */
 	public boolean areEnemiesFrozen() {
-		return areEnemiesFrozen;
+		return effects.isActive(Effect.ENEMIES_FROZEN);
+	}
+
+	/**
+	 * Checks if a power-up effect is currently active.
+	 * @param effect The effect to check.
+	 * @return true if the effect is active, false otherwise.
+	 */
+	public boolean isEffectActive(Effect effect) {
+		return effects.isActive(effect);
+	}
+
+	/**
+	 * Returns the time left until a power-up effect ends.
+	 * @param effect The effect.
+	 * @return The remaining time in milliseconds, 0 if the effect is not active.
+	 */
+	public long getEffectRemainingMillis(Effect effect) {
+		return effects.getRemainingMillis(effect);
+	}
+
+	/**
+	 * Starts a power-up effect without collecting a power-up, e.g. to keep the player alive in a stress test.
+	 * An active effect is started over.
+	 *
+	 * @param effect The effect.
+	 * @param durationMillis The duration of the effect in milliseconds, at least 1.
+	 */
+	public void startEffect(Effect effect, long durationMillis) {
+		effects.start(effect, durationMillis);
+		updateViews();
 	}
 
 	/**
@@ -453,12 +800,7 @@ public class World {
 	 * @return true if an enemy is at (x, y), false otherwise.
 	 */
 	public boolean isEnemyAt(int x, int y) {
-		for (Point enemy : enemies) {
-			if(enemy.x == x && enemy.y == y){
-				return true;
-			}
-		}
-		return false;
+		return enemyIndex.findAt(x, y) != null;
 	}
 
 	/**
@@ -468,12 +810,7 @@ public class World {
 	 * @return true if a power-up is at (x, y), false otherwise.
 	 */
 	public boolean isPowerupAt(int x, int y) {
-		for (Powerup powerup : powerups) {
-			if(powerup.x == x && powerup.y == y){
-				return true;
-			}
-		}
-		return false;
+		return powerupIndex.findAt(x, y) != null;
 	}
 
 	/**
@@ -483,12 +820,76 @@ public class World {
 	 * @return The Powerup object at (x, y), or null if no power-up is found there.
 	 */
 	public Powerup getPowerupAt(int x, int y) {
-		for (Powerup powerup : powerups) {
-			if(powerup.x == x && powerup.y == y){
-				return powerup;
-			}
-		}
-		return null;
+		return powerupIndex.findAt(x, y);
+	}
+
+	/**
+	 * Returns all enemies inside the given rectangle of cells.
+	 * Only the part of the level around the rectangle is searched, so the cost depends on the number
+	 * of enemies near the rectangle and not on the total number of enemies.
+	 *
+	 * @param minX The smallest X coordinate of the rectangle (inclusive).
+	 * @param minY The smallest Y coordinate of the rectangle (inclusive).
+	 * @param maxX The largest X coordinate of the rectangle (inclusive).
+	 * @param maxY The largest Y coordinate of the rectangle (inclusive).
+	 * @return A new list with the positions of the enemies inside the rectangle.
+	 */
+	public List<Point> getEnemiesInArea(int minX, int minY, int maxX, int maxY) {
+		List<Point> result = new ArrayList<>();
+		enemyIndex.query(minX, minY, maxX, maxY, result);
+		return result;
+	}
+
+	/**
+	 * Returns all power-ups inside the given rectangle of cells.
+	 *
+	 * @param minX The smallest X coordinate of the rectangle (inclusive).
+	 * @param minY The smallest Y coordinate of the rectangle (inclusive).
+	 * @param maxX The largest X coordinate of the rectangle (inclusive).
+	 * @param maxY The largest Y coordinate of the rectangle (inclusive).
+	 * @return A new list with the power-ups inside the rectangle.
+	 */
+	public List<Powerup> getPowerupsInArea(int minX, int minY, int maxX, int maxY) {
+		List<Powerup> result = new ArrayList<>();
+		powerupIndex.query(minX, minY, maxX, maxY, result);
+		return result;
+	}
+
+	/**
+	 * Adds all enemies inside the given rectangle of cells to a list, without creating a new list.
+	 *
+	 * @param minX The smallest X coordinate of the rectangle (inclusive).
+	 * @param minY The smallest Y coordinate of the rectangle (inclusive).
+	 * @param maxX The largest X coordinate of the rectangle (inclusive).
+	 * @param maxY The largest Y coordinate of the rectangle (inclusive).
+	 * @param result Receives the positions of the enemies.
+	 */
+	void queryEnemies(int minX, int minY, int maxX, int maxY, List<Point> result) {
+		enemyIndex.query(minX, minY, maxX, maxY, result);
+	}
+
+	/**
+	 * Adds all power-ups inside the given rectangle of cells to a list, without creating a new list.
+	 *
+	 * @param minX The smallest X coordinate of the rectangle (inclusive).
+	 * @param minY The smallest Y coordinate of the rectangle (inclusive).
+	 * @param maxX The largest X coordinate of the rectangle (inclusive).
+	 * @param maxY The largest Y coordinate of the rectangle (inclusive).
+	 * @param result Receives the power-ups.
+	 */
+	void queryPowerups(int minX, int minY, int maxX, int maxY, List<Powerup> result) {
+		powerupIndex.query(minX, minY, maxX, maxY, result);
+	}
+
+	/**
+	 * Rebuilds the spatial indices from the current enemy and power-up lists.
+	 * Called whenever a new level or saved game is taken over.
+	 */
+	private void rebuildSpatialIndex() {
+		enemyIndex = new SpatialGrid<>(width, height, enemy -> enemy.x, enemy -> enemy.y);
+		enemyIndex.addAll(enemies);
+		powerupIndex = new SpatialGrid<>(width, height, powerup -> powerup.x, powerup -> powerup.y);
+		powerupIndex.addAll(powerups);
 	}
 
 	/**
@@ -525,34 +926,13 @@ public class World {
 	}
 
 	/**
-	 * Decreases the remaining time for the invincibility power-up.
-	 * If the time runs out, the player is no longer invincible.
-	 * @param deltaTimeMillis The amount of time (in milliseconds) that has passed.
-	 */
-	public void decreaseInvincibilityTimer(long deltaTimeMillis) {
-		if (isInvincible) {
-			invincibilityRemainingTime -= deltaTimeMillis;
-			if (invincibilityRemainingTime <= 0) {
-				isInvincible = false;
-				invincibilityRemainingTime = 0; // Ensure it's not negative
-			}
-			updateViews(); // Update views to reflect invincibility status change
-		}
-	}
-
-	/**
-	 * Decreases the remaining time for the enemy freeze power-up.
-	 * If the time runs out, enemies are no longer frozen.
+	 * Advances the timers of the active power-up effects and ends the effects whose time has run out.
+	 * Nothing is done while no effect is active.
 	 * @param deltaTimeMillis The amount of time (in milliseconds) that has passed.
 	 */
-	public void decreaseEnemyFreezeTimer(long deltaTimeMillis) {
-		if (areEnemiesFrozen) {
-			enemyFreezeRemainingTime -= deltaTimeMillis;
-			if (enemyFreezeRemainingTime <= 0) {
-				areEnemiesFrozen = false;
-				enemyFreezeRemainingTime = 0; // Ensure it's not negative
-			}
-			updateViews(); // Update views to reflect enemy freeze status change
+	public void updateEffects(long deltaTimeMillis) {
+		if (effects.advance(deltaTimeMillis)) {
+			updateViews(); // Update views to reflect that an effect ended
 		}
 	}
 
@@ -580,27 +960,22 @@ public class World {
 		if (!isWall(newPlayerX, newPlayerY)) {
 			setPlayerX(newPlayerX); // Update player's X position
 			setPlayerY(newPlayerY); // Update player's Y position
+			if (fieldOfView != null) {
+				fieldOfView.update(playerX, playerY); // Visibility only changes when the player actually moves
+			}
+			wakeEnemiesNearPlayer(); // The activity zone moves with the player
 
 			// Check if the player collected a power-up at the new position
 			Powerup collectedPowerup = getPowerupAt(playerX, playerY);
 			if (collectedPowerup != null) {
-				switch (collectedPowerup.type) {
-					case HEALTH:
-						// Increase player health, capping at MAX_PLAYER_HEALTH
-						playerHealth = Math.min(playerHealth + 1, MAX_PLAYER_HEALTH);
-						break;
-					case INVINCIBILITY:
-						// Activate invincibility and set its duration
-						isInvincible = true;
-						invincibilityRemainingTime = MAX_INVINCIBILITY_DURATION_MILLIS;
-						break;
-					case FREEZE_ENEMIES:
-						// Activate enemy freeze and set its duration
-						areEnemiesFrozen = true;
-						enemyFreezeRemainingTime = MAX_ENEMY_FREEZE_DURATION_MILLIS;
-						break;
+				// The effect of the power-up is defined by its type
+				PowerupType type = collectedPowerup.type;
+				playerHealth = Math.min(playerHealth + type.getHealthBonus(), MAX_PLAYER_HEALTH); // Capped at MAX_PLAYER_HEALTH
+				if (type.getEffect() != null) {
+					effects.start(type.getEffect(), type.getDurationMillis()); // Starts the effect over if it is active
 				}
-				powerups.remove(collectedPowerup); // Remove the collected power-up from the world
+				powerupIndex.remove(collectedPowerup); // Remove the collected power-up from the world
+				powerups.collect(collectedPowerup);
 			}
 
 			// Check if the player reached the end point (level completion)
@@ -612,7 +987,7 @@ public class World {
 			}
 
 			// If player encounters an enemy at the new position and is not invincible, lose health
-			if(isEnemyAt(getPlayerX(),getPlayerY()) && !isInvincible){
+			if(isEnemyAt(getPlayerX(),getPlayerY()) && !isInvincible()){
 				playerHealth--;
 				if (playerHealth <= 0) {
 					this.gameOver = true; // Game over if health drops to 0 or below
@@ -623,79 +998,115 @@ public class World {
 	}
 
 	/**
-	 * Moves all enemies towards the player's current position.
-	 * Enemies try to move horizontally or vertically towards the player,
-	 * prioritizing one direction randomly if both are possible.
-	 * They avoid moving into walls.
-	 * also handles collisions between enemies and the player.
+	 * Advances the enemy clock and moves only the enemies that are due to act.
+	 * Every enemy moves at its own speed; enemies that are not due are not touched.
+	 * Enemies that wandered far outside the activity zone around the player fall asleep here and are no longer
+	 * queued until the player comes close, so the cost depends on the enemies near the player, not on the level size.
+	 * The clock stands still while the game is paused or the enemies are frozen.
+	 *
+	 * @param deltaTimeMillis The time elapsed since the last update in milliseconds.
 	 */
-	public void moveEnemies() {
+	public void updateEnemies(long deltaTimeMillis) {
 		// Enemies do not move if the game is paused, over, or if enemies are frozen by a power-up
-		if (isPaused() || isGameOver() || areEnemiesFrozen) {
+		if (isPaused() || isGameOver() || areEnemiesFrozen()) {
 			return;
 		}
+		if (difficulty.getProfile() != enemySpeedProfile) {
+			rescaleEnemySpeeds(); // The profile was reloaded while the level is played
+		}
+		enemyClock += deltaTimeMillis;
+		if (!enemyScheduler.hasDue(enemyClock)) {
+			return;
+		}
+		while (enemyScheduler.hasDue(enemyClock)) {
+			long dueTime = enemyScheduler.peekTime();
+			int enemy = enemyScheduler.poll();
+			if (ACTIVITY_ZONE_ENABLED && !isNearPlayer(enemies.get(enemy), ACTIVITY_RADIUS + SLEEP_MARGIN)) {
+				// Too far away from the player: sleep until the player comes close again
+				enemyAwake[enemy] = false;
+				awakeEnemyCount--;
+				continue;
+			}
+			// Moves that were missed (e.g. after a stall) are dropped instead of being caught up all at once
+			enemyScheduler.schedule(enemy, Math.max(dueTime + enemyIntervals[enemy], enemyClock + 1));
+			if (moveEnemy(enemy)) {
+				break;
+			}
+		}
+		updateViews(); // Notify all registered views about the world state change
+	}
 
-		Random rand = new Random();
-
-		// Iterate through each enemy
-		for (Point enemy : enemies) {
-			int currentEnemyX = enemy.x;
-			int currentEnemyY = enemy.y;
+	/**
+	 * Moves one enemy a step towards the player's current position.
+	 * The enemy tries to move horizontally or vertically towards the player,
+	 * prioritizing one direction randomly if both are possible, and avoids moving into walls.
+	 *
+	 * @param index The index of the enemy to move.
+	 * @return true if the enemy hit the player.
+	 */
+	private boolean moveEnemy(int index) {
+		Point enemy = enemies.get(index);
+		int currentEnemyX = enemy.x;
+		int currentEnemyY = enemy.y;
 
-			int targetX = playerX; // Player's X coordinate is the target
-			int targetY = playerY; // Player's Y coordinate is the target
+		int targetX = playerX; // Player's X coordinate is the target
+		int targetY = playerY; // Player's Y coordinate is the target
 
-			// Calculate direction needed to move towards the player
-			int deltaX = Integer.compare(targetX, currentEnemyX); // -1 (left), 0 (same), 1 (right)
-			int deltaY = Integer.compare(targetY, currentEnemyY); // -1 (up), 0 (same), 1 (down)
+		// Calculate direction needed to move towards the player
+		int deltaX = Integer.compare(targetX, currentEnemyX); // -1 (left), 0 (same), 1 (right)
+		int deltaY = Integer.compare(targetY, currentEnemyY); // -1 (up), 0 (same), 1 (down)
 
-			// Determine movement preference: try to move both horizontally and vertically if needed
-			if (deltaX != 0 && deltaY != 0) {
-				if (rand.nextBoolean()) { // Randomly choose to try horizontal or vertical first
-					int potentialNewX = currentEnemyX + deltaX;
-					if (!isWall(potentialNewX, currentEnemyY)) {
-						enemy.setLocation(potentialNewX, currentEnemyY); // Move horizontally
-					} else { // If horizontal path is blocked, try moving vertically
-						int potentialNewY = currentEnemyY + deltaY;
-						if (!isWall(currentEnemyX, potentialNewY)) {
-							enemy.setLocation(currentEnemyX, potentialNewY); // Move vertically
-						}
-					}
-				} else { // Try to move vertically first
+		// Determine movement preference: try to move both horizontally and vertically if needed
+		if (deltaX != 0 && deltaY != 0) {
+			if (enemyRandom.nextBoolean()) { // Randomly choose to try horizontal or vertical first
+				int potentialNewX = currentEnemyX + deltaX;
+				if (!isWall(potentialNewX, currentEnemyY)) {
+					enemy.setLocation(potentialNewX, currentEnemyY); // Move horizontally
+				} else { // If horizontal path is blocked, try moving vertically
 					int potentialNewY = currentEnemyY + deltaY;
 					if (!isWall(currentEnemyX, potentialNewY)) {
 						enemy.setLocation(currentEnemyX, potentialNewY); // Move vertically
-					} else { // If vertical path is blocked, try moving horizontally
-						int potentialNewX = currentEnemyX + deltaX;
-						if (!isWall(potentialNewX, currentEnemyY)) {
-							enemy.setLocation(potentialNewX, currentEnemyY); // Move horizontally
-						}
 					}
 				}
-			} else if (deltaX != 0) { // Only horizontal movement is needed
-				int potentialNewX = currentEnemyX + deltaX;
-				if (!isWall(potentialNewX, currentEnemyY)) {
-					enemy.setLocation(potentialNewX, currentEnemyY);
-				}
-			} else if (deltaY != 0) { // Only vertical movement is needed
+			} else { // Try to move vertically first
 				int potentialNewY = currentEnemyY + deltaY;
 				if (!isWall(currentEnemyX, potentialNewY)) {
-					enemy.setLocation(currentEnemyX, potentialNewY);
+					enemy.setLocation(currentEnemyX, potentialNewY); // Move vertically
+				} else { // If vertical path is blocked, try moving horizontally
+					int potentialNewX = currentEnemyX + deltaX;
+					if (!isWall(potentialNewX, currentEnemyY)) {
+						enemy.setLocation(potentialNewX, currentEnemyY); // Move horizontally
+					}
 				}
 			}
+		} else if (deltaX != 0) { // Only horizontal movement is needed
+			int potentialNewX = currentEnemyX + deltaX;
+			if (!isWall(potentialNewX, currentEnemyY)) {
+				enemy.setLocation(potentialNewX, currentEnemyY);
+			}
+		} else if (deltaY != 0) { // Only vertical movement is needed
+			int potentialNewY = currentEnemyY + deltaY;
+			if (!isWall(currentEnemyX, potentialNewY)) {
+				enemy.setLocation(currentEnemyX, potentialNewY);
+			}
+		}
 
-			// Collision check after the enemy has moved:
-			// If an enemy lands on the player's position and the player is not invincible,
-			// the player loses health.
-			if (enemy.x == playerX && enemy.y == playerY && !isInvincible) {
-				playerHealth--; // Decrease player health
-				if (playerHealth <= 0) {
-					this.gameOver = true; // Set game over if health reaches zero or below
-				}
-				break;
+		if (enemy.x != currentEnemyX || enemy.y != currentEnemyY) {
+			enemyIndex.moved(enemy, currentEnemyX, currentEnemyY); // Keep the spatial index up to date
+			enemyMoveLog[(int) (enemyMoveCount++ % ENEMY_MOVE_LOG_SIZE)] = index;
+		}
+
+		// Collision check after the enemy has moved:
+		// If an enemy lands on the player's position and the player is not invincible,
+		// the player loses health.
+		if (enemy.x == playerX && enemy.y == playerY && !isInvincible()) {
+			playerHealth--; // Decrease player health
+			if (playerHealth <= 0) {
+				this.gameOver = true; // Set game over if health reaches zero or below
 			}
+			return true;
 		}
-		updateViews(); // Notify all registered views about the world state change
+		return false;
 	}
 
 
@@ -713,12 +1124,31 @@ public class World {
 		view.update(this); // Initial update for the newly registered view
 	}
 
+	/**
+	 * Defers view updates, e.g. while several changes of one game tick are applied.
+	 * While deferred, changes only mark the views as outdated; when the deferral ends, the views are
+	 * updated once if anything changed.
+	 *
+	 * @param deferred true to collect view updates, false to send the collected update.
+	 */
+	public void setViewUpdatesDeferred(boolean deferred) {
+		viewUpdatesDeferred = deferred;
+		if (!deferred && viewUpdatePending) {
+			viewUpdatePending = false;
+			updateViews();
+		}
+	}
+
 	/**
 	 * Notifies all registered views by calling their {@link View#update(World)} method.
 	 * This should be called whenever the internal state of the World model changes
 	 * and needs to be reflected in the visual display.
 	 */
 	private void updateViews() {
+		if (viewUpdatesDeferred) {
+			viewUpdatePending = true; // Sent once when the deferral ends
+			return;
+		}
 		// Iterate through all registered views and trigger their update method
 		for (int i = 0; i < views.size(); i++) {
 			views.get(i).update(this);
@@ -735,10 +1165,8 @@ public class World {
 	 */
 	public boolean isWall(int x, int y) {
 		// Check if coordinates are within the valid bounds of the world grid
-		if  (x >= 0 && x < width && y >= 0 && y < height) {
-			return walls[x][y]; // Return true if the cell at (x,y) is marked as a wall
-		}
-		return true; // Treat any coordinates outside the world boundaries as impassable walls
+		// Coordinates outside the world boundaries are treated as impassable walls by the grid
+		return walls.isWall(x, y);
 	}
 
 	/**
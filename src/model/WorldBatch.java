@@ -0,0 +1,471 @@
+package model;
+
+import java.awt.Point;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Simulates many independent games at once, e.g. as training environments for bots.
+ * Unlike {@link World}, the batch has no views or timers: time advances in discrete steps, and one call of
+ * {@link #step(int[], float[], boolean[])} applies one action to every game. All state is kept in flat arrays
+ * indexed by game (structure of arrays), and large batches are stepped in shards on all cores.
+ *
+ * The rules follow {@link World}: the player moves one cell per step, enemies chase the player at the speed
+ * of the difficulty, touching an enemy costs one health point unless the player is invincible, and power-ups
+ * heal, make invincible or freeze the enemies. A game ends when the player reaches the exit, loses all health
+ * or runs out of steps, and is then reset to a new level right away.
+ *
+ * Levels are taken from a fixed list. Their start positions, enemies and power-ups are copied into the batch's
+ * own arrays once and their walls are shared, so the simulation itself does not use any AWT class.
+ */
+public class WorldBatch {
+
+	/** The number of values per game written by {@link #observe(float[])}. */
+	public static final int OBSERVATION_SIZE = 10;
+	/** The game time (in milliseconds) that one step stands for. Used to convert the durations of {@link World}. */
+	public static final int STEP_MILLIS = 100;
+	/** The reward for reaching the exit. */
+	public static final float EXIT_REWARD = 1f;
+	/** The reward for losing a health point. */
+	public static final float DAMAGE_REWARD = -0.2f;
+	/** The reward for every step, so that short ways are preferred. */
+	public static final float STEP_REWARD = -0.001f;
+
+	/** The number of games stepped by one task. Smaller batches are stepped on the calling thread. */
+	private static final int SHARD_SIZE = 256;
+	/** All power-up types, indexed by ordinal. Cached, since {@code values()} copies the array on every call. */
+	private static final PowerupType[] POWERUP_TYPES = PowerupType.values();
+	/** The number of steps the effect of every power-up type lasts, indexed by ordinal. */
+	private static final int[] POWERUP_STEPS = new int[POWERUP_TYPES.length];
+	/** The number of timed effects, which is also the number of effect timers per game. */
+	private static final int EFFECT_COUNT = Effect.values().length;
+	/** The movement of every action in X direction, indexed by {@link Direction} ordinal. */
+	private static final int[] ACTION_DX = new int[Direction.values().length];
+	/** The movement of every action in Y direction, indexed by {@link Direction} ordinal. */
+	private static final int[] ACTION_DY = new int[Direction.values().length];
+
+	static {
+		for (PowerupType type : POWERUP_TYPES) {
+			POWERUP_STEPS[type.ordinal()] = (int) (type.getDurationMillis() / STEP_MILLIS);
+		}
+		for (Direction direction : Direction.values()) {
+			ACTION_DX[direction.ordinal()] = direction.deltaX;
+			ACTION_DY[direction.ordinal()] = direction.deltaY;
+		}
+	}
+
+	// The levels, converted once
+
+	/** The walls of every level. */
+	private final WallGrid[] levelWalls;
+	/** The player start cell ({@code y * width + x}) of every level. */
+	private final int[] levelPlayerCells;
+	/** The exit cell of every level. */
+	private final int[] levelEndCells;
+	/** The enemy cells of every level. */
+	private final int[][] levelEnemyCells;
+	/** The power-up cells of every level. */
+	private final int[][] levelPowerupCells;
+	/** The power-up types of every level, as {@link PowerupType} ordinals. */
+	private final byte[][] levelPowerupTypes;
+	/** The number of steps between two enemy moves in every level. */
+	private final int[] levelEnemyPeriods;
+
+	// The state of the games, one entry (or one block of entries) per game
+
+	/** The number of games. */
+	private final int size;
+	/** The most steps a game may take before it is ended. */
+	private int maxEpisodeSteps = 10_000;
+	/** The level index of every game. */
+	private final int[] level;
+	/** The player's X position in every game. */
+	private final int[] playerX;
+	/** The player's Y position in every game. */
+	private final int[] playerY;
+	/** The player's health in every game. */
+	private final int[] health;
+	/** The remaining steps of every effect, {@link #EFFECT_COUNT} entries per game indexed by {@link Effect} ordinal. */
+	private final int[] effectSteps;
+	/** The number of steps taken in the current episode of every game. */
+	private final int[] episodeSteps;
+	/** The random number generator state (xorshift) of every game. */
+	private final long[] random;
+	/** The most enemies a game can have. */
+	private final int enemyCapacity;
+	/** The number of enemies in every game. */
+	private final int[] enemyCount;
+	/** The enemy X positions, {@link #enemyCapacity} entries per game. */
+	private final int[] enemyX;
+	/** The enemy Y positions, {@link #enemyCapacity} entries per game. */
+	private final int[] enemyY;
+	/** The most power-ups a game can have. */
+	private final int powerupCapacity;
+	/** The power-up cells, {@link #powerupCapacity} entries per game, -1 once collected. */
+	private final int[] powerupCell;
+	/** The power-up types, parallel to {@link #powerupCell}. */
+	private final byte[] powerupType;
+
+	/**
+	 * Creates a batch of games and resets every game to a level from the list.
+	 *
+	 * @param size The number of games.
+	 * @param levels The levels to play. Each episode picks one at random. Their walls are shared with the batch,
+	 *               so the levels must not be {@link Level#dispose() disposed} while the batch is used.
+	 * @param seed The seed of the random choices (levels and enemy moves).
+	 */
+	public WorldBatch(int size, List<Level> levels, long seed) {
+		if (levels.isEmpty()) {
+			throw new IllegalArgumentException("At least one level is needed");
+		}
+		int count = levels.size();
+		levelWalls = new WallGrid[count];
+		levelPlayerCells = new int[count];
+		levelEndCells = new int[count];
+		levelEnemyCells = new int[count][];
+		levelPowerupCells = new int[count][];
+		levelPowerupTypes = new byte[count][];
+		levelEnemyPeriods = new int[count];
+		int maxEnemies = 0;
+		int maxPowerups = 0;
+		for (int t = 0; t < count; t++) {
+			Level source = levels.get(t);
+			int width = source.getWidth();
+			levelWalls[t] = source.getWalls();
+			levelPlayerCells[t] = source.getPlayerY() * width + source.getPlayerX();
+			levelEndCells[t] = source.getEndY() * width + source.getEndX();
+			List<Point> enemies = source.getEnemies();
+			levelEnemyCells[t] = new int[enemies.size()];
+			for (int k = 0; k < enemies.size(); k++) {
+				levelEnemyCells[t][k] = enemies.get(k).y * width + enemies.get(k).x;
+			}
+			List<Powerup> powerups = source.getPowerups();
+			levelPowerupCells[t] = new int[powerups.size()];
+			levelPowerupTypes[t] = new byte[powerups.size()];
+			for (int k = 0; k < powerups.size(); k++) {
+				levelPowerupCells[t][k] = powerups.get(k).y * width + powerups.get(k).x;
+				levelPowerupTypes[t][k] = (byte) powerups.get(k).type.ordinal();
+			}
+			long interval = source.getDifficulty().getScaledEnemyMoveIntervalMillis(source.getLevelNumber());
+			levelEnemyPeriods[t] = (int) Math.max(1, interval / STEP_MILLIS);
+			maxEnemies = Math.max(maxEnemies, enemies.size());
+			maxPowerups = Math.max(maxPowerups, powerups.size());
+		}
+
+		this.size = size;
+		level = new int[size];
+		playerX = new int[size];
+		playerY = new int[size];
+		health = new int[size];
+		effectSteps = new int[size * EFFECT_COUNT];
+		episodeSteps = new int[size];
+		random = new long[size];
+		enemyCapacity = maxEnemies;
+		enemyCount = new int[size];
+		enemyX = new int[size * maxEnemies];
+		enemyY = new int[size * maxEnemies];
+		powerupCapacity = maxPowerups;
+		powerupCell = new int[size * maxPowerups];
+		powerupType = new byte[size * maxPowerups];
+		for (int i = 0; i < size; i++) {
+			random[i] = LevelGenerator.levelSeed(Difficulty.EASY, i, seed) | 1; // xorshift state must not be 0
+			reset(i);
+		}
+	}
+
+	/**
+	 * Returns the number of games.
+	 * @return The number of games.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Sets the most steps an episode may take before it is ended.
+	 * @param maxEpisodeSteps The maximum number of steps.
+	 */
+	public void setMaxEpisodeSteps(int maxEpisodeSteps) {
+		this.maxEpisodeSteps = maxEpisodeSteps;
+	}
+
+	/**
+	 * Starts a new episode in every game.
+	 */
+	public void reset() {
+		for (int i = 0; i < size; i++) {
+			reset(i);
+		}
+	}
+
+	/**
+	 * Starts a new episode in one game, on a randomly chosen level.
+	 * @param i The index of the game.
+	 */
+	private void reset(int i) {
+		int t = (int) ((nextRandom(i) >>> 33) % levelWalls.length);
+		int width = levelWalls[t].getWidth();
+		level[i] = t;
+		playerX[i] = levelPlayerCells[t] % width;
+		playerY[i] = levelPlayerCells[t] / width;
+		health[i] = World.MAX_PLAYER_HEALTH;
+		Arrays.fill(effectSteps, i * EFFECT_COUNT, (i + 1) * EFFECT_COUNT, 0);
+		episodeSteps[i] = 0;
+		int[] enemies = levelEnemyCells[t];
+		enemyCount[i] = enemies.length;
+		int enemyBase = i * enemyCapacity;
+		for (int k = 0; k < enemies.length; k++) {
+			enemyX[enemyBase + k] = enemies[k] % width;
+			enemyY[enemyBase + k] = enemies[k] / width;
+		}
+		int powerupBase = i * powerupCapacity;
+		for (int k = 0; k < powerupCapacity; k++) {
+			boolean present = k < levelPowerupCells[t].length;
+			powerupCell[powerupBase + k] = present ? levelPowerupCells[t][k] : -1;
+			powerupType[powerupBase + k] = present ? levelPowerupTypes[t][k] : 0;
+		}
+	}
+
+	/**
+	 * Advances every game by one step.
+	 * Games whose episode ended are reset, so the next step already starts the next episode.
+	 *
+	 * @param actions The action of every game, as {@link Direction} ordinal.
+	 * @param rewards Receives the reward of every game for this step.
+	 * @param dones Receives whether the episode of every game ended with this step.
+	 */
+	public void step(int[] actions, float[] rewards, boolean[] dones) {
+		int shards = (size + SHARD_SIZE - 1) / SHARD_SIZE;
+		if (shards <= 1) {
+			stepRange(0, size, actions, rewards, dones);
+		} else {
+			IntStream.range(0, shards).parallel().forEach(shard ->
+					stepRange(shard * SHARD_SIZE, Math.min(size, (shard + 1) * SHARD_SIZE), actions, rewards, dones));
+		}
+	}
+
+	/**
+	 * Advances a range of games by one step.
+	 *
+	 * @param from The first game (inclusive).
+	 * @param to The last game (exclusive).
+	 * @param actions The action of every game.
+	 * @param rewards Receives the reward of every game.
+	 * @param dones Receives whether the episode of every game ended.
+	 */
+	private void stepRange(int from, int to, int[] actions, float[] rewards, boolean[] dones) {
+		for (int i = from; i < to; i++) {
+			float reward = STEP_REWARD;
+			boolean done = false;
+			int t = level[i];
+			WallGrid walls = levelWalls[t];
+			int width = walls.getWidth();
+
+			// Player move
+			int action = actions[i];
+			int x = playerX[i] + ACTION_DX[action];
+			int y = playerY[i] + ACTION_DY[action];
+			if (action != 0 && !walls.isWall(x, y)) {
+				playerX[i] = x;
+				playerY[i] = y;
+				reward += collectPowerup(i, y * width + x);
+				if (y * width + x == levelEndCells[t]) {
+					reward += EXIT_REWARD;
+					done = true;
+				} else if (!isEffectActive(i, Effect.INVINCIBLE) && isEnemyAt(i, x, y)) {
+					health[i]--;
+					reward += DAMAGE_REWARD;
+				}
+			}
+
+			// Enemy moves
+			episodeSteps[i]++;
+			if (!done && !isEffectActive(i, Effect.ENEMIES_FROZEN) && episodeSteps[i] % levelEnemyPeriods[t] == 0) {
+				reward += moveEnemies(i, walls);
+			}
+			for (int e = i * EFFECT_COUNT; e < (i + 1) * EFFECT_COUNT; e++) {
+				if (effectSteps[e] > 0) {
+					effectSteps[e]--;
+				}
+			}
+
+			if (health[i] <= 0 || episodeSteps[i] >= maxEpisodeSteps) {
+				done = true;
+			}
+			rewards[i] = reward;
+			dones[i] = done;
+			if (done) {
+				reset(i);
+			}
+		}
+	}
+
+	/**
+	 * Collects the power-up at the player's new cell, if there is one.
+	 *
+	 * @param i The index of the game.
+	 * @param cell The player's cell.
+	 * @return The reward for collecting it (currently always 0).
+	 */
+	private float collectPowerup(int i, int cell) {
+		int base = i * powerupCapacity;
+		for (int k = 0; k < powerupCapacity; k++) {
+			if (powerupCell[base + k] == cell) {
+				powerupCell[base + k] = -1;
+				// Driven by the type like in the world, so new power-ups and effects need no change here
+				PowerupType type = POWERUP_TYPES[powerupType[base + k]];
+				health[i] = Math.min(health[i] + type.getHealthBonus(), World.MAX_PLAYER_HEALTH);
+				if (type.getEffect() != null) {
+					// Starts the effect over if it is active
+					effectSteps[i * EFFECT_COUNT + type.getEffect().ordinal()] = POWERUP_STEPS[type.ordinal()];
+				}
+				break;
+			}
+		}
+		return 0f;
+	}
+
+	/**
+	 * Checks whether an effect is active in a game.
+	 *
+	 * @param i The index of the game.
+	 * @param effect The effect.
+	 * @return true if steps of the effect are left.
+	 */
+	private boolean isEffectActive(int i, Effect effect) {
+		return effectSteps[i * EFFECT_COUNT + effect.ordinal()] > 0;
+	}
+
+	/**
+	 * Checks if an enemy of a game is at the given cell.
+	 *
+	 * @param i The index of the game.
+	 * @param x The X coordinate of the cell.
+	 * @param y The Y coordinate of the cell.
+	 * @return true if an enemy is at the cell.
+	 */
+	private boolean isEnemyAt(int i, int x, int y) {
+		int base = i * enemyCapacity;
+		for (int k = base; k < base + enemyCount[i]; k++) {
+			if (enemyX[k] == x && enemyY[k] == y) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Moves every enemy of a game one cell towards the player, following the same rules as {@link World#updateEnemies(long)}.
+	 *
+	 * @param i The index of the game.
+	 * @param walls The walls of the game's level.
+	 * @return The reward for damage taken.
+	 */
+	private float moveEnemies(int i, WallGrid walls) {
+		int px = playerX[i];
+		int py = playerY[i];
+		int base = i * enemyCapacity;
+		for (int k = base; k < base + enemyCount[i]; k++) {
+			int ex = enemyX[k];
+			int ey = enemyY[k];
+			int dx = Integer.compare(px, ex);
+			int dy = Integer.compare(py, ey);
+			boolean horizontalFirst = dy == 0 || (dx != 0 && nextRandom(i) < 0);
+			if (horizontalFirst) {
+				if (dx != 0 && !walls.isWall(ex + dx, ey)) {
+					ex += dx;
+				} else if (dy != 0 && !walls.isWall(ex, ey + dy)) {
+					ey += dy;
+				}
+			} else if (!walls.isWall(ex, ey + dy)) {
+				ey += dy;
+			} else if (dx != 0 && !walls.isWall(ex + dx, ey)) {
+				ex += dx;
+			}
+			enemyX[k] = ex;
+			enemyY[k] = ey;
+			if (ex == px && ey == py && !isEffectActive(i, Effect.INVINCIBLE)) {
+				health[i]--;
+				return DAMAGE_REWARD; // Like the world, at most one hit per enemy move
+			}
+		}
+		return 0f;
+	}
+
+	/**
+	 * Advances the random number generator of a game (xorshift64).
+	 * @param i The index of the game.
+	 * @return The next random value.
+	 */
+	private long nextRandom(int i) {
+		long x = random[i];
+		x ^= x << 13;
+		x ^= x >>> 7;
+		x ^= x << 17;
+		random[i] = x;
+		return x;
+	}
+
+	/**
+	 * Writes the observation of every game, {@value #OBSERVATION_SIZE} values per game:
+	 * the player position and the offset to the exit (relative to the maze size), the health (relative to the
+	 * maximum), whether there is a wall up, down, left and right of the player, and the distance to the
+	 * closest enemy (relative to the maze size, 1 if there is none).
+	 *
+	 * @param observations Receives {@code size() * OBSERVATION_SIZE} values.
+	 */
+	public void observe(float[] observations) {
+		for (int i = 0; i < size; i++) {
+			WallGrid walls = levelWalls[level[i]];
+			float width = walls.getWidth();
+			float height = walls.getHeight();
+			int x = playerX[i];
+			int y = playerY[i];
+			int endCell = levelEndCells[level[i]];
+			int closest = Integer.MAX_VALUE;
+			int base = i * enemyCapacity;
+			for (int k = base; k < base + enemyCount[i]; k++) {
+				closest = Math.min(closest, Math.abs(enemyX[k] - x) + Math.abs(enemyY[k] - y));
+			}
+			int o = i * OBSERVATION_SIZE;
+			observations[o] = x / width;
+			observations[o + 1] = y / height;
+			observations[o + 2] = (endCell % walls.getWidth() - x) / width;
+			observations[o + 3] = (endCell / walls.getWidth() - y) / height;
+			observations[o + 4] = health[i] / (float) World.MAX_PLAYER_HEALTH;
+			observations[o + 5] = walls.isWall(x, y - 1) ? 1f : 0f;
+			observations[o + 6] = walls.isWall(x, y + 1) ? 1f : 0f;
+			observations[o + 7] = walls.isWall(x - 1, y) ? 1f : 0f;
+			observations[o + 8] = walls.isWall(x + 1, y) ? 1f : 0f;
+			observations[o + 9] = closest == Integer.MAX_VALUE ? 1f : Math.min(1f, closest / (width + height));
+		}
+	}
+
+	/**
+	 * Returns the player's X position in a game.
+	 * @param i The index of the game.
+	 * @return The X coordinate.
+	 */
+	public int getPlayerX(int i) {
+		return playerX[i];
+	}
+
+	/**
+	 * Returns the player's Y position in a game.
+	 * @param i The index of the game.
+	 * @return The Y coordinate.
+	 */
+	public int getPlayerY(int i) {
+		return playerY[i];
+	}
+
+	/**
+	 * Returns the player's health in a game.
+	 * @param i The index of the game.
+	 * @return The health points.
+	 */
+	public int getHealth(int i) {
+		return health[i];
+	}
+}
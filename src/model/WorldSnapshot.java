@@ -0,0 +1,104 @@
+package model;
+
+/**
+ * An immutable copy of the complete state of a {@link World} at one point in time.
+ * Snapshots are captured on the event dispatch thread by {@link World#createSnapshot()} and can then be
+ * written by {@link SnapshotFile} on a background thread while the game goes on.
+ * Walls on the heap are shared with the world instead of being copied, because the walls of a level
+ * are never modified once the level has been generated. Off-heap walls are copied onto the heap,
+ * since they are freed with the level while the snapshot may still be in use.
+ */
+public class WorldSnapshot {
+
+	/** The difficulty setting of the game. */
+	final Difficulty difficulty;
+	/** The seed all levels of the game are derived from. */
+	final long seed;
+	/** The current level number. */
+	final int currentLevel;
+	/** The player's health points. */
+	final int playerHealth;
+	/** Whether the game is over. */
+	final boolean gameOver;
+	/** Remaining time (in milliseconds) of every {@link Effect}, indexed by ordinal, 0 if it is not active. */
+	final long[] effectRemainingTimes;
+	/** The player's X position. */
+	final int playerX;
+	/** The player's Y position. */
+	final int playerY;
+	/** The X coordinate of the exit. */
+	final int endX;
+	/** The Y coordinate of the exit. */
+	final int endY;
+	/** The maze walls. */
+	final WallGrid walls;
+	/** The enemy positions as cell indices ({@code y * width + x}). */
+	final int[] enemyCells;
+	/** The power-up positions as cell indices ({@code y * width + x}). */
+	final int[] powerupCells;
+	/** The power-up types, parallel to {@link #powerupCells}. */
+	final PowerupType[] powerupTypes;
+
+	/**
+	 * Creates a new snapshot. The arrays are taken over and must not be modified afterwards.
+	 *
+	 * @param difficulty The difficulty setting of the game.
+	 * @param seed The seed all levels of the game are derived from.
+	 * @param currentLevel The current level number.
+	 * @param playerHealth The player's health points.
+	 * @param gameOver Whether the game is over.
+	 * @param effectRemainingTimes Remaining time of every effect in milliseconds, indexed by {@link Effect} ordinal.
+	 * @param playerX The player's X position.
+	 * @param playerY The player's Y position.
+	 * @param endX The X coordinate of the exit.
+	 * @param endY The Y coordinate of the exit.
+	 * @param walls The maze walls.
+	 * @param enemyCells The enemy positions as cell indices.
+	 * @param powerupCells The power-up positions as cell indices.
+	 * @param powerupTypes The power-up types.
+	 */
+	WorldSnapshot(Difficulty difficulty, long seed, int currentLevel, int playerHealth, boolean gameOver,
+				  long[] effectRemainingTimes,
+				  int playerX, int playerY, int endX, int endY, WallGrid walls,
+				  int[] enemyCells, int[] powerupCells, PowerupType[] powerupTypes) {
+		this.difficulty = difficulty;
+		this.seed = seed;
+		this.currentLevel = currentLevel;
+		this.playerHealth = playerHealth;
+		this.gameOver = gameOver;
+		this.effectRemainingTimes = effectRemainingTimes;
+		this.playerX = playerX;
+		this.playerY = playerY;
+		this.endX = endX;
+		this.endY = endY;
+		this.walls = walls;
+		this.enemyCells = enemyCells;
+		this.powerupCells = powerupCells;
+		this.powerupTypes = powerupTypes;
+	}
+
+	/**
+	 * Checks whether an effect was active when the snapshot was taken.
+	 * @param effect The effect.
+	 * @return true if time of the effect was left.
+	 */
+	boolean isEffectActive(Effect effect) {
+		return effectRemainingTimes[effect.ordinal()] > 0;
+	}
+
+	/**
+	 * Returns the level number stored in this snapshot.
+	 * @return The level number.
+	 */
+	public int getCurrentLevel() {
+		return currentLevel;
+	}
+
+	/**
+	 * Returns the difficulty stored in this snapshot.
+	 * @return The difficulty.
+	 */
+	public Difficulty getDifficulty() {
+		return difficulty;
+	}
+}
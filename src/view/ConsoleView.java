@@ -1,5 +1,6 @@
 package view;
 
+import model.LevelStore;
 import model.World;
 import model.Powerup;
 import model.PowerupType;
@@ -11,6 +12,9 @@ import model.PowerupType;
  */
 public class ConsoleView implements View {
 
+	/** The largest maze that is printed on every update. Larger mazes can be exported from the in-game menu. */
+	private static final long MAX_PRINTED_CELLS = 250_000;
+
 	/**
 	 * Updates the console view based on the current state of the game world.
 	 *
@@ -26,6 +30,12 @@ public class ConsoleView implements View {
 	 * # : Wall
 	 * . : Path/Floor
 	 *
+	 * In fog-of-war mode, cells out of sight are shown as remembered:
+	 * x : End Point
+	 * + : Wall
+	 * , : Path/Floor
+	 * (blank) : Not explored yet
+	 *
 	 * @param world The {@link World} object representing the current game state.
 	 */
 	@Override
@@ -37,13 +47,28 @@ public class ConsoleView implements View {
 		int endX = world.getEndX();
 		int endY = world.getEndY();
 
+		boolean fogOfWar = world.isFogOfWar();
+
 		// --- Draw the game map ---
-		for (int row = 0; row < world.getHeight(); row++) {
+		// Every row is collected first and printed at once, printing every cell on its own is far too slow
+		StringBuilder line = new StringBuilder(world.getWidth() * 2 + 1);
+		int printedRows = (long) world.getWidth() * world.getHeight() <= MAX_PRINTED_CELLS ? world.getHeight() : 0;
+		for (int row = 0; row < printedRows; row++) {
+			line.setLength(0);
 			for (int col = 0; col < world.getWidth(); col++) {
 				char charToDraw = '.'; // Default to path/floor
 
 				// Determine character based on object hierarchy (player > enemy > powerup > end > wall)
-				if (col == playerX && row == playerY) {
+				if (fogOfWar && !world.isVisible(col, row)) {
+					// Out of sight: only the remembered maze, no entities
+					if (!world.isExplored(col, row)) {
+						charToDraw = ' ';
+					} else if (col == endX && row == endY) {
+						charToDraw = 'x';
+					} else {
+						charToDraw = world.isWall(col, row) ? '+' : ',';
+					}
+				} else if (col == playerX && row == playerY) {
 					// Player takes highest priority
 					charToDraw = world.isInvincible() ? '@' : 'P'; // Player (P) or Invincible Player (@)
 				} else if (world.isEnemyAt(col, row)) {
@@ -71,9 +96,13 @@ public class ConsoleView implements View {
 					charToDraw = '#'; // Wall
 				}
 
-				System.out.print(charToDraw + " "); // Print character and a space for readability
+				line.append(charToDraw).append(' '); // Character and a space for readability
 			}
-			System.out.println(); // Newline after each row
+			System.out.println(line); // Newline after each row
+		}
+		if (printedRows == 0) {
+			System.out.println("The maze is too large to print (" + world.getWidth() + "x" + world.getHeight()
+					+ "), export it from the in-game menu instead.");
 		}
 
 		// --- Display game information ---
@@ -88,11 +117,21 @@ public class ConsoleView implements View {
 		System.out.println("End Coords: (" + world.getEndX() + ", " + world.getEndY() + ")");
 		System.out.println("Maze Size: " + world.getWidth() + "x" + world.getHeight());
 		System.out.println("Difficulty: " + world.getDifficulty().name());
-		System.out.println("Enemies: " + world.getEnemies().size());
+		System.out.println("Enemies: " + world.getEnemies().size() + " (" + world.getAwakeEnemyCount() + " awake)");
 		System.out.println("Power-ups Remaining: " + world.getPowerups().size());
 		System.out.println("Enemy Speed (ms): " + world.getEnemyMoveIntervalMillis());
+		System.out.println("Seed: " + Long.toHexString(world.getSeed()));
+		System.out.println("Level Cache: " + LevelStore.getDefault().getStatistics());
 		int distanceToEnd = Math.abs(playerX - endX) + Math.abs(playerY - endY);
-		System.out.println("Distance to Goal: " + distanceToEnd + " steps");
+		int pathDistance = world.getPathDistanceToEnd();
+		if (pathDistance >= 0) {
+			System.out.println("Distance to Goal: " + pathDistance + " steps (straight line: " + distanceToEnd + ")");
+		} else {
+			System.out.println("Distance to Goal: " + distanceToEnd + " steps (straight line, path not computed yet)");
+		}
+		if (world.isAutoWalking()) {
+			System.out.println("Auto-walk: Active!");
+		}
 
 
 		// Display power-up statuses if active
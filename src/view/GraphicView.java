@@ -27,6 +27,34 @@ public class GraphicView extends JPanel implements View {
 	/** The height of the visible game area (viewport) in number of tiles. */
 	private static final int VIEWPORT_HEIGHT_IN_TILES = 25;
 
+	/** The number of tiles above which the view switches from image tiles to level-of-detail rendering. */
+	private static final int LOD_THRESHOLD_TILES = 75;
+	/** The factor by which one zoom step changes the number of visible tiles. */
+	private static final double ZOOM_STEP_FACTOR = 1.5;
+	/** The current zoom: the number of tiles shown across the viewport. */
+	private int viewportTiles = VIEWPORT_WIDTH_IN_TILES;
+	/** Renders the maze when zoomed out too far for image tiles. */
+	private LevelOfDetailRenderer lodRenderer;
+	/** Renders the image tiles of the viewport. */
+	private TileRasterizer tileRasterizer;
+	/** The overview of the whole maze shown in the top-right corner. */
+	private final Minimap minimap = new Minimap();
+
+	/** The overlay that dims remembered but currently not visible tiles in fog-of-war mode. */
+	private static final Color FOG_COLOR = new Color(0, 0, 0, 150);
+	/** The number of inputs the shown input latency is averaged over. */
+	private static final int INPUT_LATENCY_SAMPLES = 16;
+	/** The time (see {@link System#nanoTime()}) of the oldest input that is not yet painted, or 0. */
+	private long pendingInputTime = 0;
+	/** The sum of the input latencies measured for the next average, in nanoseconds. */
+	private long inputLatencySum = 0;
+	/** The longest input latency measured for the next average, in nanoseconds. */
+	private long inputLatencyMax = 0;
+	/** The number of input latencies measured for the next average. */
+	private int inputLatencyCount = 0;
+	/** The last averaged input latency, shown in the HUD, or null before enough inputs were measured. */
+	private String inputLatencyText;
+
 	/** The World model instance that this view is currently rendering. */
 	private World world;
 
@@ -48,6 +76,8 @@ public class GraphicView extends JPanel implements View {
 	public GraphicView(Dimension fieldDimension) {
 		this.fieldDimension = fieldDimension;
 		loadImages(); // Load all necessary images when the view is created
+		lodRenderer = new LevelOfDetailRenderer(averageColor(floorImage, Color.DARK_GRAY), averageColor(wallImage, Color.GRAY));
+		tileRasterizer = new TileRasterizer(floorImage, wallImage, endImage, FOG_COLOR);
 	}
 
 	/**
@@ -72,6 +102,29 @@ public class GraphicView extends JPanel implements View {
 		}
 	}
 
+	/**
+	 * Returns the average color of an image, used to represent it when it is drawn smaller than a pixel.
+	 * @param image The image, may be null if it could not be loaded.
+	 * @param fallback The color to use if there is no image.
+	 * @return The average color of the image.
+	 */
+	private static Color averageColor(BufferedImage image, Color fallback) {
+		if (image == null) {
+			return fallback;
+		}
+		long r = 0, g = 0, b = 0;
+		int count = image.getWidth() * image.getHeight();
+		for (int y = 0; y < image.getHeight(); y++) {
+			for (int x = 0; x < image.getWidth(); x++) {
+				int rgb = image.getRGB(x, y);
+				r += (rgb >> 16) & 0xFF;
+				g += (rgb >> 8) & 0xFF;
+				b += rgb & 0xFF;
+			}
+		}
+		return new Color((int) (r / count), (int) (g / count), (int) (b / count));
+	}
+
 	/**
 	 * Overrides the paint method to render the game world.
 	 * This method is called automatically when the component needs to be repainted.
@@ -89,104 +142,33 @@ public class GraphicView extends JPanel implements View {
 			return;
 		}
 
-		// Calculate the top-left tile coordinates of the viewport based on the player's position,
-		// ensuring the player is centered or near-centered in the view.
-		int cameraTileX = world.getPlayerX() - VIEWPORT_WIDTH_IN_TILES / 2;
-		int cameraTileY = world.getPlayerY() - VIEWPORT_HEIGHT_IN_TILES / 2;
-
-		// Iterate through each tile in the viewport
-		for (int y = 0; y < VIEWPORT_HEIGHT_IN_TILES; y++) {
-			for (int x = 0; x < VIEWPORT_WIDTH_IN_TILES; x++) {
-				// Calculate corresponding world coordinates for the current viewport tile
-				int worldX = cameraTileX + x;
-				int worldY = cameraTileY + y;
-
-				// Calculate screen coordinates for drawing
-				int screenX = x * fieldDimension.width;
-				int screenY = y * fieldDimension.height;
-
-				// Only draw game elements if the world coordinates are within the actual world bounds
-				if (worldX >= 0 && worldX < world.getWidth() && worldY >= 0 && worldY < world.getHeight()) {
-					// Draw floor/path first
-					if (floorImage != null) {
-						g.drawImage(floorImage, screenX, screenY, fieldDimension.width, fieldDimension.height, null);
-					} else {
-						g.fillRect(screenX, screenY, fieldDimension.width, fieldDimension.height);
-					}
-
-					// Draw walls
-					if (world.isWall(worldX, worldY)) {
-						if (wallImage != null) {
-							g.drawImage(wallImage, screenX, screenY, fieldDimension.width, fieldDimension.height, null);
-						} else {
-							g.fillRect(screenX, screenY, fieldDimension.width, fieldDimension.height);
-						}
-					}
-					// Draw end point
-					else if (worldX == world.getEndX() && worldY == world.getEndY()) {
-						if (endImage != null) {
-							g.drawImage(endImage, screenX, screenY, fieldDimension.width, fieldDimension.height, null);
-						} else {
-							g.fillRect(screenX, screenY, fieldDimension.width, fieldDimension.height);
-						}
-					}
-
-					// Draw power-ups
-					Powerup currentPowerup = world.getPowerupAt(worldX, worldY);
-					if (currentPowerup != null) {
-						BufferedImage powerupDrawImage = null;
-
-						// Select the correct image based on power-up type
-						switch (currentPowerup.type) {
-							case HEALTH:
-								powerupDrawImage = healthPowerupImage;
-								break;
-							case INVINCIBILITY:
-								powerupDrawImage = invincibilityPowerupImage;
-								break;
-							case FREEZE_ENEMIES:
-								powerupDrawImage = freezePowerupImage;
-								break;
-						}
-
-
-							g.drawImage(powerupDrawImage, screenX, screenY, fieldDimension.width, fieldDimension.height, null);
-
-					}
-
-					// Draw enemies
-					if (world.isEnemyAt(worldX, worldY)) {
-						// Apply visual effect for frozen enemies
-						if (world.areEnemiesFrozen()) {
-							g.setColor(new Color(0, 200, 255, 150)); // Semi-transparent light blue overlay
-							g.fillRect(screenX, screenY, fieldDimension.width, fieldDimension.height);
-						}
-							g.drawImage(enemyImage, screenX, screenY, fieldDimension.width, fieldDimension.height, null);
-					}
-					// Draw player (player is drawn last to ensure it's on top of other elements)
-					if (worldX == world.getPlayerX() && worldY == world.getPlayerY()) {
-						// Apply visual effect for invincible player
-						if (world.isInvincible()) {
-							g.setColor(new Color(255, 255, 0, 100)); // Semi-transparent yellow overlay
-							g.fillRect(screenX, screenY, fieldDimension.width, fieldDimension.height);
-						}
-							g.drawImage(playerImage, screenX, screenY, fieldDimension.width, fieldDimension.height, null);
-					}
-				} else {
-					// Draw outside world bounds ("space")
-					g.setColor(Color.BLACK);
-					g.fillRect(screenX, screenY, fieldDimension.width, fieldDimension.height);
-
-					// Draw some "stars"
-					g.setColor(Color.WHITE);
-					if ((worldX * worldX + worldY * worldY) % 31 == 0) {
-						g.fillRect(screenX + 8, screenY + 8, 3, 3);
-					}
-					if ((worldX * 5 + worldY * 3) % 17 == 0) {
-						g.fillOval(screenX + 18, screenY + 15, 2, 2);
-					}
-				}
-			}
+		int panelWidth = getPreferredSize().width;
+		int panelHeight = getPreferredSize().height;
+		// Never show more tiles than needed to see the whole maze
+		int tilesAcross = Math.max(VIEWPORT_WIDTH_IN_TILES,
+				Math.min(viewportTiles, Math.max(world.getWidth(), world.getHeight())));
+		if (world.isFogOfWar()) {
+			// The overview would reveal the whole maze
+			tilesAcross = Math.min(tilesAcross, LOD_THRESHOLD_TILES);
+		}
+
+		if (tilesAcross > LOD_THRESHOLD_TILES) {
+			// Zoomed out too far for image tiles: render the mipmapped maze into a single image
+			double cellsPerPixel = (double) tilesAcross / panelWidth;
+			double cameraX = cameraOrigin(world.getPlayerX(), world.getWidth(), tilesAcross);
+			double cameraY = cameraOrigin(world.getPlayerY(), world.getHeight(), tilesAcross);
+			g.drawImage(lodRenderer.render(world, cameraX, cameraY, cellsPerPixel, panelWidth, panelHeight), 0, 0, null);
+
+			// Mark the exit and the player, they would otherwise be lost in the overview
+			int markerSize = 9;
+			g.setColor(Color.GREEN);
+			g.fillOval((int) ((world.getEndX() - cameraX) / cellsPerPixel) - markerSize / 2,
+					(int) ((world.getEndY() - cameraY) / cellsPerPixel) - markerSize / 2, markerSize, markerSize);
+			g.setColor(world.isInvincible() ? Color.YELLOW : Color.WHITE);
+			g.fillOval((int) ((world.getPlayerX() - cameraX) / cellsPerPixel) - markerSize / 2,
+					(int) ((world.getPlayerY() - cameraY) / cellsPerPixel) - markerSize / 2, markerSize, markerSize);
+		} else {
+			paintTiles(g, tilesAcross, panelWidth, panelHeight);
 		}
 
 		// Draw Level indicator during gameplay (not on game over/paused screens)
@@ -218,6 +200,33 @@ public class GraphicView extends JPanel implements View {
 			g.setFont(new Font("Arial", Font.BOLD, 20));
 			String directionText = "Goal: " + world.getDirectionToEnd();
 			g.drawString(directionText, 10, 85); // Below Health Bar
+
+			// Draw the length of the shortest path, once it has been computed for this level
+			int pathDistance = world.getPathDistanceToEnd();
+			String distanceText = "Distance: " + (pathDistance >= 0 ? pathDistance + " steps" : "...");
+			if (world.isAutoWalking()) {
+				distanceText += " (auto-walk)";
+			}
+			g.drawString(distanceText, 10, 110); // Below Goal
+
+			// Draw the time from a key press until its move was painted, averaged over the last inputs
+			if (inputLatencyText != null) {
+				g.setFont(new Font("Arial", Font.PLAIN, 14));
+				g.drawString(inputLatencyText, 10, 130); // Below Distance
+			}
+
+			// Draw minimap in the top-right corner, small mazes are scaled up to a readable size.
+			// In fog-of-war mode it is hidden, since it would reveal the maze.
+			if (!world.isFogOfWar()) {
+				BufferedImage minimapImage = minimap.update(world);
+				int minimapScale = Math.max(1, Minimap.MAX_SIZE / Math.max(minimapImage.getWidth(), minimapImage.getHeight()));
+				int minimapWidth = minimapImage.getWidth() * minimapScale;
+				int minimapHeight = minimapImage.getHeight() * minimapScale;
+				int minimapX = panelWidth - minimapWidth - 10;
+				g.drawImage(minimapImage, minimapX, 10, minimapWidth, minimapHeight, null);
+				g.setColor(Color.WHITE);
+				g.drawRect(minimapX - 1, 9, minimapWidth + 1, minimapHeight + 1);
+			}
 		}
 
 
@@ -243,6 +252,154 @@ public class GraphicView extends JPanel implements View {
 			g.fillRect(0, 0, getWidth(), getHeight());
 
 		}
+
+		if (pendingInputTime != 0) {
+			measureInputLatency(System.nanoTime() - pendingInputTime);
+			pendingInputTime = 0;
+		}
+	}
+
+	/**
+	 * Notes that the player was moved by an input, so that the time until the move is painted can be measured.
+	 * @param inputTime The time of the input (see {@link System#nanoTime()}).
+	 */
+	public void markInput(long inputTime) {
+		if (pendingInputTime == 0) {
+			pendingInputTime = inputTime; // Several inputs in one frame: the oldest one waited longest
+		}
+		repaint();
+	}
+
+	/**
+	 * Adds a measured input latency (from the key press until the frame showing its effect was painted)
+	 * and updates the text shown in the HUD once enough latencies were measured.
+	 * @param latencyNanos The latency in nanoseconds.
+	 */
+	private void measureInputLatency(long latencyNanos) {
+		inputLatencySum += latencyNanos;
+		inputLatencyMax = Math.max(inputLatencyMax, latencyNanos);
+		inputLatencyCount++;
+		if (inputLatencyCount == INPUT_LATENCY_SAMPLES) {
+			inputLatencyText = String.format("Input: %d ms (max %d ms)", inputLatencySum / inputLatencyCount / 1_000_000,
+					inputLatencyMax / 1_000_000);
+			inputLatencySum = 0;
+			inputLatencyMax = 0;
+			inputLatencyCount = 0;
+		}
+	}
+
+	/**
+	 * Draws the viewport as image tiles, centered on the player.
+	 * This is used as long as the tiles are large enough to show the images.
+	 *
+	 * @param g The {@link Graphics} context used for drawing.
+	 * @param tilesAcross The number of tiles shown horizontally.
+	 * @param panelWidth The width of the drawing area in pixels.
+	 * @param panelHeight The height of the drawing area in pixels.
+	 */
+	private void paintTiles(Graphics g, int tilesAcross, int panelWidth, int panelHeight) {
+		int tilesDown = tilesAcross * VIEWPORT_HEIGHT_IN_TILES / VIEWPORT_WIDTH_IN_TILES;
+
+		// Calculate the top-left tile coordinates of the viewport based on the player's position,
+		// ensuring the player is centered or near-centered in the view.
+		int cameraTileX = world.getPlayerX() - tilesAcross / 2;
+		int cameraTileY = world.getPlayerY() - tilesDown / 2;
+
+		// Floor, walls, exit and the space around the maze are rendered into one image, large frames in parallel.
+		// In fog-of-war mode unexplored tiles stay black and remembered tiles out of sight are dimmed.
+		g.drawImage(tileRasterizer.render(world, cameraTileX, cameraTileY, tilesAcross, tilesDown, panelWidth, panelHeight),
+				0, 0, null);
+
+		int tileWidth = panelWidth / tilesAcross;
+		int tileHeight = panelHeight / tilesDown;
+
+		// Draw only the entities inside the viewport, found through the world's spatial index,
+		// so drawing costs do not grow with the total number of entities in the level.
+		int cameraMaxX = cameraTileX + tilesAcross - 1;
+		int cameraMaxY = cameraTileY + tilesDown - 1;
+
+		// Draw power-ups
+		for (Powerup currentPowerup : world.getPowerupsInArea(cameraTileX, cameraTileY, cameraMaxX, cameraMaxY)) {
+			if (!world.isVisible(currentPowerup.x, currentPowerup.y)) {
+				continue;
+			}
+			int screenX = (currentPowerup.x - cameraTileX) * panelWidth / tilesAcross;
+			int screenY = (currentPowerup.y - cameraTileY) * panelHeight / tilesDown;
+			BufferedImage powerupDrawImage = null;
+
+			// Select the correct image based on power-up type
+			switch (currentPowerup.type) {
+				case HEALTH:
+					powerupDrawImage = healthPowerupImage;
+					break;
+				case INVINCIBILITY:
+					powerupDrawImage = invincibilityPowerupImage;
+					break;
+				case FREEZE_ENEMIES:
+					powerupDrawImage = freezePowerupImage;
+					break;
+			}
+			g.drawImage(powerupDrawImage, screenX, screenY, tileWidth, tileHeight, null);
+		}
+
+		// Draw enemies
+		for (Point enemy : world.getEnemiesInArea(cameraTileX, cameraTileY, cameraMaxX, cameraMaxY)) {
+			if (!world.isVisible(enemy.x, enemy.y)) {
+				continue;
+			}
+			int screenX = (enemy.x - cameraTileX) * panelWidth / tilesAcross;
+			int screenY = (enemy.y - cameraTileY) * panelHeight / tilesDown;
+			// Apply visual effect for frozen enemies
+			if (world.areEnemiesFrozen()) {
+				g.setColor(new Color(0, 200, 255, 150)); // Semi-transparent light blue overlay
+				g.fillRect(screenX, screenY, tileWidth, tileHeight);
+			}
+			g.drawImage(enemyImage, screenX, screenY, tileWidth, tileHeight, null);
+		}
+
+		// Draw player (player is drawn last to ensure it's on top of other elements)
+		int playerScreenX = (world.getPlayerX() - cameraTileX) * panelWidth / tilesAcross;
+		int playerScreenY = (world.getPlayerY() - cameraTileY) * panelHeight / tilesDown;
+		// Apply visual effect for invincible player
+		if (world.isInvincible()) {
+			g.setColor(new Color(255, 255, 0, 100)); // Semi-transparent yellow overlay
+			g.fillRect(playerScreenX, playerScreenY, tileWidth, tileHeight);
+		}
+		g.drawImage(playerImage, playerScreenX, playerScreenY, tileWidth, tileHeight, null);
+	}
+
+	/**
+	 * Returns the world coordinate shown at the left or top edge of a zoomed-out view.
+	 * The view follows the player, but a maze that fits into the view entirely is centered instead.
+	 *
+	 * @param playerPosition The player's X or Y position.
+	 * @param worldSize The width or height of the world.
+	 * @param tilesAcross The number of cells shown along that axis.
+	 * @return The first visible world coordinate (may be negative).
+	 */
+	private static double cameraOrigin(int playerPosition, int worldSize, int tilesAcross) {
+		if (tilesAcross >= worldSize) {
+			return (worldSize - tilesAcross) / 2.0;
+		}
+		return playerPosition - tilesAcross / 2.0;
+	}
+
+	/**
+	 * Zooms in by one step, showing fewer but larger tiles. The closest zoom shows
+	 * {@value #VIEWPORT_WIDTH_IN_TILES} tiles across.
+	 */
+	public void zoomIn() {
+		viewportTiles = Math.max(VIEWPORT_WIDTH_IN_TILES, (int) (viewportTiles / ZOOM_STEP_FACTOR));
+		repaint();
+	}
+
+	/**
+	 * Zooms out by one step, showing more but smaller tiles, up to the whole maze.
+	 */
+	public void zoomOut() {
+		int wholeMaze = world == null ? VIEWPORT_WIDTH_IN_TILES : Math.max(world.getWidth(), world.getHeight());
+		viewportTiles = Math.max(VIEWPORT_WIDTH_IN_TILES, Math.min(wholeMaze, (int) Math.ceil(viewportTiles * ZOOM_STEP_FACTOR)));
+		repaint();
 	}
 
 	/**
@@ -7,7 +7,7 @@ import java.awt.event.ActionListener;
 
 /**
  * Represents the in-game menu, displayed when the game is paused.
- * This menu provides options to resume, restart, exit the game, and change difficulty.
+ * This menu provides options to resume, restart, save, load, export the maze, exit the game, and change difficulty.
  * It is a JPanel designed to overlay the game view with a transparent effect.
  */
 public class InGameMenu extends JPanel {
@@ -16,6 +16,12 @@ public class InGameMenu extends JPanel {
     private JButton resumeButton;
     /** Button to restart the game from the beginning with selected difficulty. */
     private JButton restartButton;
+    /** Button to save the current game. */
+    private JButton saveButton;
+    /** Button to load the last saved game. */
+    private JButton loadButton;
+    /** Button to export the current maze as text and image for debugging. */
+    private JButton exportButton;
     /** Button to exit the application. */
     private JButton exitButton;
     /** Dropdown menu for selecting game difficulty. */
@@ -30,13 +36,16 @@ public class InGameMenu extends JPanel {
         // Create an inner panel to hold the buttons and center it within the InGameMenu panel
         JPanel buttonContainerPanel = new JPanel();
         // Use GridLayout for a vertical stack of components with spacing
-        buttonContainerPanel.setLayout(new GridLayout(4, 1, 10, 10)); // 4 rows: Resume, Difficulty, Restart, Exit
+        buttonContainerPanel.setLayout(new GridLayout(7, 1, 10, 10)); // 7 rows: Resume, Difficulty, Restart, Save, Load, Export, Exit
         buttonContainerPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20)); // Add padding around components
         buttonContainerPanel.setOpaque(false); // Make this inner panel transparent
 
         // Initialize buttons
         resumeButton = new JButton("Resume Game");
         restartButton = new JButton("Restart Game");
+        saveButton = new JButton("Save Game");
+        loadButton = new JButton("Load Game");
+        exportButton = new JButton("Export Maze");
         exitButton = new JButton("Exit Game");
 
         // Initialize JComboBox for difficulty selection
@@ -53,12 +62,18 @@ public class InGameMenu extends JPanel {
         buttonContainerPanel.add(resumeButton);
         buttonContainerPanel.add(difficultyComboBox);
         buttonContainerPanel.add(restartButton);
+        buttonContainerPanel.add(saveButton);
+        buttonContainerPanel.add(loadButton);
+        buttonContainerPanel.add(exportButton);
         buttonContainerPanel.add(exitButton);
 
 
         // Apply common styling to buttons
         styleButton(resumeButton);
         styleButton(restartButton);
+        styleButton(saveButton);
+        styleButton(loadButton);
+        styleButton(exportButton);
         styleButton(exitButton);
         // Apply specific styling to JComboBox
         difficultyComboBox.setBackground(new Color(70, 130, 180));
@@ -73,7 +88,7 @@ public class InGameMenu extends JPanel {
         setOpaque(false);
 
         // Set a preferred size for the entire menu panel.
-        setPreferredSize(new Dimension(300, 250));
+        setPreferredSize(new Dimension(300, 420));
     }
 
     /**
@@ -116,6 +131,30 @@ public class InGameMenu extends JPanel {
         restartButton.addActionListener(listener);
     }
 
+    /**
+     * Adds an {@link ActionListener} to the "Save Game" button.
+     * @param listener The listener to be added.
+     */
+    public void addSaveButtonListener(ActionListener listener) {
+        saveButton.addActionListener(listener);
+    }
+
+    /**
+     * Adds an {@link ActionListener} to the "Load Game" button.
+     * @param listener The listener to be added.
+     */
+    public void addLoadButtonListener(ActionListener listener) {
+        loadButton.addActionListener(listener);
+    }
+
+    /**
+     * Adds an {@link ActionListener} to the "Export Maze" button.
+     * @param listener The listener to be added.
+     */
+    public void addExportButtonListener(ActionListener listener) {
+        exportButton.addActionListener(listener);
+    }
+
     /**
      * Adds an {@link ActionListener} to the "Exit Game" button.
      * @param listener The listener to be added.
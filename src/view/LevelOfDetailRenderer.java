@@ -0,0 +1,150 @@
+package view;
+
+import java.awt.Color;
+import java.awt.Point;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import model.Powerup;
+import model.WallGrid;
+import model.World;
+
+/**
+ * Renders zoomed-out views of the maze, where a cell is too small to draw it as an image tile.
+ * Walls are sampled from a {@link WallMipmap} level that matches the zoom, so the cost of a frame
+ * depends on the number of pixels and not on the number of cells in view. All pixels, including
+ * enemies and power-ups, are written straight into the {@code int[]} raster of one {@link BufferedImage}
+ * which is then drawn with a single call.
+ */
+class LevelOfDetailRenderer {
+
+	/** The pixel color of areas outside the maze. */
+	private static final int OUTSIDE_RGB = 0x000000;
+	/** The pixel color of enemies. */
+	private static final int ENEMY_RGB = 0xE03030;
+	/** The pixel color of frozen enemies. */
+	private static final int FROZEN_ENEMY_RGB = 0x00C8FF;
+	/** The pixel color of power-ups. */
+	private static final int POWERUP_RGB = 0xFFD700;
+
+	/** Maps a wall density (0 to 255) to a pixel color between the floor and the wall color. */
+	private final int[] palette = new int[256];
+	/** The frame the view is rendered into, reused as long as the size does not change. */
+	private BufferedImage frame;
+	/** The raster of {@link #frame}. */
+	private int[] pixels;
+	/** The mipmap of the maze currently shown, rebuilt when the world moves on to a new level. */
+	private WallMipmap mipmap;
+	/** The texel column of every pixel column of the current frame, reused between frames. */
+	private int[] columnTexels = new int[0];
+
+	/**
+	 * Creates a new renderer.
+	 * @param floorColor The color used for open floor.
+	 * @param wallColor The color used for walls.
+	 */
+	LevelOfDetailRenderer(Color floorColor, Color wallColor) {
+		for (int density = 0; density < 256; density++) {
+			int r = floorColor.getRed() + (wallColor.getRed() - floorColor.getRed()) * density / 255;
+			int g = floorColor.getGreen() + (wallColor.getGreen() - floorColor.getGreen()) * density / 255;
+			int b = floorColor.getBlue() + (wallColor.getBlue() - floorColor.getBlue()) * density / 255;
+			palette[density] = (r << 16) | (g << 8) | b;
+		}
+	}
+
+	/**
+	 * Renders the given part of the world into the frame image.
+	 *
+	 * @param world The world to render.
+	 * @param cameraX The world X coordinate (in cells) shown at the left edge of the frame.
+	 * @param cameraY The world Y coordinate (in cells) shown at the top edge of the frame.
+	 * @param cellsPerPixel The number of cells covered by one pixel, e.g. 4 if one pixel shows 4x4 cells.
+	 * @param width The width of the frame in pixels.
+	 * @param height The height of the frame in pixels.
+	 * @return The rendered frame. It is reused by the next call.
+	 */
+	BufferedImage render(World world, double cameraX, double cameraY, double cellsPerPixel, int width, int height) {
+		if (frame == null || frame.getWidth() != width || frame.getHeight() != height) {
+			frame = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+			pixels = ((DataBufferInt) frame.getRaster().getDataBuffer()).getData();
+			columnTexels = new int[width];
+		}
+		WallGrid walls = world.getWalls();
+		if (mipmap == null || mipmap.getWalls() != walls) {
+			mipmap = new WallMipmap(walls);
+		}
+
+		// Pick the finest level whose texels are not smaller than a pixel
+		int level = 0;
+		while (level + 1 < mipmap.getLevelCount() && (1 << (level + 1)) <= cellsPerPixel) {
+			level++;
+		}
+		int levelWidth = mipmap.getLevelWidth(level);
+		int levelHeight = mipmap.getLevelHeight(level);
+		for (int px = 0; px < width; px++) {
+			int cellX = (int) Math.floor(cameraX + px * cellsPerPixel);
+			columnTexels[px] = cellX < 0 || cellX >= world.getWidth() ? -1 : Math.min(cellX >> level, levelWidth - 1);
+		}
+
+		byte[] texels = level > 0 ? mipmap.getTexels(level) : null;
+		for (int py = 0; py < height; py++) {
+			int row = py * width;
+			int cellY = (int) Math.floor(cameraY + py * cellsPerPixel);
+			if (cellY < 0 || cellY >= world.getHeight()) {
+				Arrays.fill(pixels, row, row + width, OUTSIDE_RGB);
+				continue;
+			}
+			int texelY = Math.min(cellY >> level, levelHeight - 1);
+			if (texels != null) {
+				int texelRow = mipmap.getRowOffset(level, texelY);
+				for (int px = 0; px < width; px++) {
+					int texelX = columnTexels[px];
+					pixels[row + px] = texelX < 0 ? OUTSIDE_RGB : palette[texels[texelRow + texelX] & 0xFF];
+				}
+			} else {
+				for (int px = 0; px < width; px++) {
+					int texelX = columnTexels[px];
+					pixels[row + px] = texelX < 0 ? OUTSIDE_RGB : palette[walls.isWall(texelX, texelY) ? 255 : 0];
+				}
+			}
+		}
+
+		// Entities inside the frame, at least one pixel each
+		int minX = (int) Math.floor(cameraX);
+		int minY = (int) Math.floor(cameraY);
+		int maxX = (int) Math.ceil(cameraX + width * cellsPerPixel);
+		int maxY = (int) Math.ceil(cameraY + height * cellsPerPixel);
+		int size = Math.max(1, (int) (1 / cellsPerPixel));
+		for (Powerup powerup : world.getPowerupsInArea(minX, minY, maxX, maxY)) {
+			plot(powerup.x, powerup.y, cameraX, cameraY, cellsPerPixel, size, POWERUP_RGB);
+		}
+		int enemyRgb = world.areEnemiesFrozen() ? FROZEN_ENEMY_RGB : ENEMY_RGB;
+		for (Point enemy : world.getEnemiesInArea(minX, minY, maxX, maxY)) {
+			plot(enemy.x, enemy.y, cameraX, cameraY, cellsPerPixel, size, enemyRgb);
+		}
+		return frame;
+	}
+
+	/**
+	 * Fills the square of pixels that shows a cell.
+	 *
+	 * @param x The X coordinate of the cell.
+	 * @param y The Y coordinate of the cell.
+	 * @param cameraX The world X coordinate shown at the left edge of the frame.
+	 * @param cameraY The world Y coordinate shown at the top edge of the frame.
+	 * @param cellsPerPixel The number of cells covered by one pixel.
+	 * @param size The size of the square in pixels.
+	 * @param rgb The color of the square.
+	 */
+	private void plot(int x, int y, double cameraX, double cameraY, double cellsPerPixel, int size, int rgb) {
+		int width = frame.getWidth();
+		int height = frame.getHeight();
+		int left = (int) ((x - cameraX) / cellsPerPixel);
+		int top = (int) ((y - cameraY) / cellsPerPixel);
+		for (int py = Math.max(top, 0); py < Math.min(top + size, height); py++) {
+			for (int px = Math.max(left, 0); px < Math.min(left + size, width); px++) {
+				pixels[py * width + px] = rgb;
+			}
+		}
+	}
+}
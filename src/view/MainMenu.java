@@ -19,6 +19,9 @@ public class MainMenu extends JPanel {
     /** Radio button for selecting Hard difficulty. */
     private JRadioButton hardButton;
 
+    /** Check box for playing in fog-of-war mode. */
+    private JCheckBox fogOfWarBox;
+
     /** Button to start the game with the selected difficulty. */
     private JButton startButton;
     /** A ButtonGroup to ensure only one difficulty radio button can be selected at a time. */
@@ -31,7 +34,7 @@ public class MainMenu extends JPanel {
      */
     public MainMenu() {
         JPanel panel = new JPanel();
-        panel.setLayout(new GridLayout(4, 1, 10, 10)); // 4 rows: Easy, Medium, Hard, Start Button
+        panel.setLayout(new GridLayout(5, 1, 10, 10)); // 5 rows: Easy, Medium, Hard, Fog of War, Start Button
         panel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20)); // Add padding around the content
         panel.setOpaque(false); // Make this inner panel transparent
 
@@ -40,6 +43,9 @@ public class MainMenu extends JPanel {
         mediumButton = new JRadioButton("Medium");
         hardButton = new JRadioButton("Hard");
 
+        // Initialize the fog-of-war option
+        fogOfWarBox = new JCheckBox("Fog of War");
+
         // Initialize the start game button
         startButton = new JButton("Start Game");
 
@@ -56,12 +62,14 @@ public class MainMenu extends JPanel {
         panel.add(easyButton);
         panel.add(mediumButton);
         panel.add(hardButton);
+        panel.add(fogOfWarBox);
         panel.add(startButton);
 
         // Apply custom styling to the radio buttons
         styleRadioButton(easyButton);
         styleRadioButton(mediumButton);
         styleRadioButton(hardButton);
+        styleRadioButton(fogOfWarBox);
 
         // Apply custom styling to the start button
         styleButton(startButton);
@@ -72,14 +80,14 @@ public class MainMenu extends JPanel {
 
         // Make the MainMenu JPanel transparent so any background behind it can be seen.
         setOpaque(false);
-        setPreferredSize(new Dimension(300, 250));
+        setPreferredSize(new Dimension(300, 300));
     }
 
     /**
-     * Applies a consistent style to a given JRadioButton.
-     * @param radioButton The JRadioButton to be styled.
+     * Applies a consistent style to a given JRadioButton or JCheckBox.
+     * @param radioButton The button to be styled.
      */
-    private void styleRadioButton(JRadioButton radioButton) {
+    private void styleRadioButton(JToggleButton radioButton) {
         radioButton.setFont(new Font("Arial", Font.BOLD, 16));
         radioButton.setForeground(Color.WHITE); // Set text color to white
         radioButton.setOpaque(false); // Make background transparent
@@ -123,6 +131,14 @@ public class MainMenu extends JPanel {
         return Difficulty.MEDIUM.name(); // Default to Medium if no other is selected
     }
 
+    /**
+     * Returns whether the fog-of-war mode is selected.
+     * @return true if only the cells in the player's line of sight should be shown.
+     */
+    public boolean isFogOfWarSelected() {
+        return fogOfWarBox.isSelected();
+    }
+
     /**
      * Adds an {@link ActionListener} to the "Start Game" button.
      * This listener will be notified when the button is clicked.
@@ -0,0 +1,228 @@
+package view;
+
+import java.awt.Point;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.List;
+import model.WallGrid;
+import model.World;
+
+/**
+ * A small overview of the whole maze, drawn as an overlay by {@link GraphicView}.
+ * Every pixel covers a square block of cells. The pixels are written directly into the {@code int[]} raster
+ * of a {@link BufferedImage}: the walls once per level in a single pass over the packed wall words,
+ * and afterwards only the pixels whose player, enemy or exit marker changed since the previous frame.
+ */
+class Minimap {
+
+	/** The largest width or height of the minimap in pixels. Larger mazes are scaled down to fit. */
+	static final int MAX_SIZE = 180;
+
+	/** The pixel color of blocks that are all floor. */
+	private static final int FLOOR_RGB = 0x202020;
+	/** The pixel color of blocks that are all walls. */
+	private static final int WALL_RGB = 0x9A9A9A;
+	/** The pixel color of the player. */
+	private static final int PLAYER_RGB = 0xFFFFFF;
+	/** The pixel color of enemies. */
+	private static final int ENEMY_RGB = 0xE03030;
+	/** The pixel color of the exit. */
+	private static final int EXIT_RGB = 0x30E030;
+
+	/** The world the minimap was built for. */
+	private World world;
+	/** The walls the minimap was built from, to notice when a new level starts. */
+	private WallGrid walls;
+	/** The enemy list the minimap was built from, to notice when a new level starts. */
+	private List<Point> enemies;
+	/** The width and height of the block of cells covered by one pixel. */
+	private int cellsPerPixel;
+	/** The image the minimap is drawn into. */
+	private BufferedImage image;
+	/** The raster of {@link #image}. */
+	private int[] pixels;
+	/** The wall shading of every pixel, without any markers. */
+	private int[] background;
+	/** The number of enemies inside the block of every pixel. */
+	private int[] enemyCounts;
+	/** The pixel every enemy was drawn at, parallel to {@link #enemies}. */
+	private int[] enemyPixels;
+	/** The pixel the player was drawn at. */
+	private int playerPixel;
+	/** The pixel the exit was drawn at. */
+	private int exitPixel;
+	/** The enemy move count of the world when the enemy markers were last brought up to date. */
+	private long enemyMoveCount;
+	/** Receives the indices of the enemies that moved since the last update. */
+	private final int[] movedEnemies = new int[World.ENEMY_MOVE_LOG_SIZE];
+
+	/**
+	 * Brings the minimap up to date with the world. A new level rebuilds the whole image,
+	 * otherwise only the enemies the world reports as moved are looked at and only the pixels of moved markers
+	 * are rewritten.
+	 *
+	 * @param world The world to show.
+	 * @return The minimap image. It is reused by the next call.
+	 */
+	BufferedImage update(World world) {
+		if (world != this.world || world.getWalls() != walls || world.getEnemies() != enemies) {
+			rebuild(world);
+			return image;
+		}
+		int newPlayerPixel = pixelOf(world.getPlayerX(), world.getPlayerY());
+		if (newPlayerPixel != playerPixel) {
+			int oldPlayerPixel = playerPixel;
+			playerPixel = newPlayerPixel;
+			refresh(oldPlayerPixel);
+			refresh(newPlayerPixel);
+		}
+		long newEnemyMoveCount = world.getEnemyMoveCount();
+		if (newEnemyMoveCount != enemyMoveCount) {
+			int count = world.getMovedEnemies(enemyMoveCount, movedEnemies);
+			if (count < 0) {
+				// Too many moves since the last frame, e.g. after the window was hidden: look at every enemy
+				for (int i = 0; i < enemyPixels.length; i++) {
+					updateEnemy(i);
+				}
+			} else {
+				for (int i = 0; i < count; i++) {
+					updateEnemy(movedEnemies[i]);
+				}
+			}
+			enemyMoveCount = newEnemyMoveCount;
+		}
+		return image;
+	}
+
+	/**
+	 * Moves the marker of an enemy if it is shown by another pixel now.
+	 * @param index The index of the enemy.
+	 */
+	private void updateEnemy(int index) {
+		Point enemy = enemies.get(index);
+		int pixel = pixelOf(enemy.x, enemy.y);
+		if (pixel != enemyPixels[index]) {
+			int oldPixel = enemyPixels[index];
+			enemyPixels[index] = pixel;
+			enemyCounts[oldPixel]--;
+			enemyCounts[pixel]++;
+			refresh(oldPixel);
+			refresh(pixel);
+		}
+	}
+
+	/**
+	 * Draws the minimap from scratch for the current level of the world.
+	 * @param world The world to show.
+	 */
+	private void rebuild(World world) {
+		this.world = world;
+		this.walls = world.getWalls();
+		this.enemies = world.getEnemies();
+		this.enemyMoveCount = world.getEnemyMoveCount();
+		int width = walls.getWidth();
+		int height = walls.getHeight();
+		cellsPerPixel = Math.max(1, (Math.max(width, height) + MAX_SIZE - 1) / MAX_SIZE);
+		int imageWidth = (width + cellsPerPixel - 1) / cellsPerPixel;
+		int imageHeight = (height + cellsPerPixel - 1) / cellsPerPixel;
+		if (image == null || image.getWidth() != imageWidth || image.getHeight() != imageHeight) {
+			image = new BufferedImage(imageWidth, imageHeight, BufferedImage.TYPE_INT_RGB);
+			pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+			background = new int[pixels.length];
+			enemyCounts = new int[pixels.length];
+		} else {
+			Arrays.fill(enemyCounts, 0);
+		}
+		buildBackground(imageWidth, imageHeight);
+
+		playerPixel = pixelOf(world.getPlayerX(), world.getPlayerY());
+		exitPixel = pixelOf(world.getEndX(), world.getEndY());
+		enemyPixels = new int[enemies.size()];
+		for (int i = 0; i < enemyPixels.length; i++) {
+			Point enemy = enemies.get(i);
+			enemyPixels[i] = pixelOf(enemy.x, enemy.y);
+			enemyCounts[enemyPixels[i]]++;
+		}
+		System.arraycopy(background, 0, pixels, 0, pixels.length);
+		refresh(exitPixel);
+		for (int pixel : enemyPixels) {
+			refresh(pixel);
+		}
+		refresh(playerPixel);
+	}
+
+	/**
+	 * Shades every pixel by the share of floor cells in its block, in one pass over the wall words.
+	 * Only the zero bits of a word (the floor cells) are visited, the padding bits are always set.
+	 *
+	 * @param imageWidth The width of the image in pixels.
+	 * @param imageHeight The height of the image in pixels.
+	 */
+	private void buildBackground(int imageWidth, int imageHeight) {
+		int[] floorCounts = new int[imageWidth * imageHeight];
+		int wordsPerRow = walls.getWordsPerRow();
+		for (int y = 0; y < walls.getHeight(); y++) {
+			int pixelRow = (y / cellsPerPixel) * imageWidth;
+			int rowStart = y * wordsPerRow;
+			for (int w = 0; w < wordsPerRow; w++) {
+				long floor = ~walls.getWord(rowStart + w);
+				while (floor != 0) {
+					int x = (w << 6) + Long.numberOfTrailingZeros(floor);
+					floorCounts[pixelRow + x / cellsPerPixel]++;
+					floor &= floor - 1;
+				}
+			}
+		}
+		// Blocks at the right and bottom edge may cover fewer cells than the others
+		for (int py = 0; py < imageHeight; py++) {
+			int blockHeight = Math.min(cellsPerPixel, walls.getHeight() - py * cellsPerPixel);
+			for (int px = 0; px < imageWidth; px++) {
+				int blockWidth = Math.min(cellsPerPixel, walls.getWidth() - px * cellsPerPixel);
+				int pixel = py * imageWidth + px;
+				background[pixel] = blend(floorCounts[pixel] * 255 / (blockWidth * blockHeight));
+			}
+		}
+	}
+
+	/**
+	 * Mixes the floor and the wall color.
+	 * @param floorShare The share of floor from 0 (only walls) to 255 (only floor).
+	 * @return The mixed color.
+	 */
+	private static int blend(int floorShare) {
+		int rgb = 0;
+		for (int shift = 0; shift <= 16; shift += 8) {
+			int floor = (FLOOR_RGB >> shift) & 0xFF;
+			int wall = (WALL_RGB >> shift) & 0xFF;
+			rgb |= (wall + (floor - wall) * floorShare / 255) << shift;
+		}
+		return rgb;
+	}
+
+	/**
+	 * Rewrites one pixel from its markers, the player being on top of enemies and enemies on top of the exit.
+	 * @param pixel The index of the pixel.
+	 */
+	private void refresh(int pixel) {
+		if (pixel == playerPixel) {
+			pixels[pixel] = PLAYER_RGB;
+		} else if (enemyCounts[pixel] > 0) {
+			pixels[pixel] = ENEMY_RGB;
+		} else if (pixel == exitPixel) {
+			pixels[pixel] = EXIT_RGB;
+		} else {
+			pixels[pixel] = background[pixel];
+		}
+	}
+
+	/**
+	 * Returns the pixel that shows the given cell.
+	 * @param x The X coordinate of the cell.
+	 * @param y The Y coordinate of the cell.
+	 * @return The index of the pixel in the raster.
+	 */
+	private int pixelOf(int x, int y) {
+		return (y / cellsPerPixel) * image.getWidth() + x / cellsPerPixel;
+	}
+}
@@ -0,0 +1,266 @@
+package view;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.stream.IntStream;
+import model.World;
+
+/**
+ * Renders the tile layer of the viewport (floor, walls, exit and the space around the maze) into the
+ * {@code int[]} raster of one {@link BufferedImage}, which is then drawn with a single call.
+ * The tile images are scaled to the tile size once and every tile is copied into the frame row by row
+ * with {@link System#arraycopy}. Large frames are split into horizontal bands of tile rows, which are
+ * rendered in parallel on all cores.
+ */
+class TileRasterizer {
+
+	/** Frames with fewer pixels are rendered on the calling thread, splitting them would cost more than it saves. */
+	private static final int PARALLEL_MIN_PIXELS = 1 << 18;
+	/** The number of bands per core, so that cores that finish early can take over another band. */
+	private static final int BANDS_PER_CORE = 2;
+	/** Tile kind: open floor. */
+	private static final int FLOOR = 0;
+	/** Tile kind: wall. */
+	private static final int WALL = 1;
+	/** Tile kind: the exit. */
+	private static final int EXIT = 2;
+	/** Added to a tile kind for remembered tiles that are out of sight in fog-of-war mode. */
+	private static final int FOGGED = 3;
+	/** Tile kind: black, for unexplored tiles and the space outside the maze. */
+	private static final int BLACK = 6;
+	/** The number of tile kinds. */
+	private static final int KINDS = 7;
+	/** The pixel color of the stars drawn into the space outside the maze. */
+	private static final int STAR_RGB = 0xFFFFFF;
+
+	/** The image of open floor, or null to use a plain color. */
+	private final BufferedImage floorImage;
+	/** The image of walls, or null to use a plain color. */
+	private final BufferedImage wallImage;
+	/** The image of the exit, or null to use a plain color. */
+	private final BufferedImage endImage;
+	/** The color laid over remembered tiles in fog-of-war mode. */
+	private final Color fogColor;
+	/** The frame the tiles are rendered into, reused as long as the size does not change. */
+	private BufferedImage frame;
+	/** The raster of {@link #frame}. */
+	private int[] pixels;
+	/** The smaller of the two tile widths of the current frame. Tiles are this or one pixel wider. */
+	private int tileWidth = -1;
+	/** The smaller of the two tile heights of the current frame. Tiles are this or one pixel higher. */
+	private int tileHeight = -1;
+	/** The scaled pixels of every tile kind in all four tile sizes, see {@link #tileIndex(int, int, int)}. */
+	private final int[][] tiles = new int[KINDS * 4][];
+
+	/**
+	 * Creates a new rasterizer.
+	 *
+	 * @param floorImage The image of open floor, or null.
+	 * @param wallImage The image of walls, or null.
+	 * @param endImage The image of the exit, or null.
+	 * @param fogColor The color laid over remembered tiles in fog-of-war mode.
+	 */
+	TileRasterizer(BufferedImage floorImage, BufferedImage wallImage, BufferedImage endImage, Color fogColor) {
+		this.floorImage = floorImage;
+		this.wallImage = wallImage;
+		this.endImage = endImage;
+		this.fogColor = fogColor;
+	}
+
+	/**
+	 * Renders the tiles of the viewport.
+	 *
+	 * @param world The world to render.
+	 * @param cameraTileX The world X coordinate of the leftmost tile column.
+	 * @param cameraTileY The world Y coordinate of the topmost tile row.
+	 * @param tilesAcross The number of tile columns.
+	 * @param tilesDown The number of tile rows.
+	 * @param width The width of the frame in pixels.
+	 * @param height The height of the frame in pixels.
+	 * @return The rendered frame. It is reused by the next call.
+	 */
+	BufferedImage render(World world, int cameraTileX, int cameraTileY, int tilesAcross, int tilesDown, int width, int height) {
+		if (frame == null || frame.getWidth() != width || frame.getHeight() != height) {
+			frame = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+			pixels = ((DataBufferInt) frame.getRaster().getDataBuffer()).getData();
+		}
+		if (tileWidth != width / tilesAcross || tileHeight != height / tilesDown) {
+			tileWidth = width / tilesAcross;
+			tileHeight = height / tilesDown;
+			scaleTiles();
+		}
+
+		int bands = 1;
+		if (width * height >= PARALLEL_MIN_PIXELS) {
+			bands = Math.min(tilesDown, Runtime.getRuntime().availableProcessors() * BANDS_PER_CORE);
+		}
+		if (bands <= 1) {
+			renderRows(world, 0, tilesDown, cameraTileX, cameraTileY, tilesAcross, tilesDown, width, height);
+		} else {
+			// The bands cover disjoint rows of the frame. The world is only read, the timers that change it
+			// run on the event dispatch thread, which waits here until all bands are done.
+			int bandCount = bands;
+			IntStream.range(0, bandCount).parallel().forEach(band -> renderRows(world,
+					band * tilesDown / bandCount, (band + 1) * tilesDown / bandCount,
+					cameraTileX, cameraTileY, tilesAcross, tilesDown, width, height));
+		}
+		return frame;
+	}
+
+	/**
+	 * Renders a range of tile rows.
+	 *
+	 * @param world The world to render.
+	 * @param fromRow The first tile row (inclusive).
+	 * @param toRow The last tile row (exclusive).
+	 * @param cameraTileX The world X coordinate of the leftmost tile column.
+	 * @param cameraTileY The world Y coordinate of the topmost tile row.
+	 * @param tilesAcross The number of tile columns.
+	 * @param tilesDown The number of tile rows.
+	 * @param width The width of the frame in pixels.
+	 * @param height The height of the frame in pixels.
+	 */
+	private void renderRows(World world, int fromRow, int toRow, int cameraTileX, int cameraTileY,
+			int tilesAcross, int tilesDown, int width, int height) {
+		boolean fogOfWar = world.isFogOfWar();
+		for (int y = fromRow; y < toRow; y++) {
+			int worldY = cameraTileY + y;
+			int screenY = y * height / tilesDown;
+			int currentTileHeight = (y + 1) * height / tilesDown - screenY;
+			for (int x = 0; x < tilesAcross; x++) {
+				int worldX = cameraTileX + x;
+				int screenX = x * width / tilesAcross;
+				int currentTileWidth = (x + 1) * width / tilesAcross - screenX;
+
+				boolean inside = worldX >= 0 && worldX < world.getWidth() && worldY >= 0 && worldY < world.getHeight();
+				int kind = BLACK;
+				if (inside && (!fogOfWar || world.isExplored(worldX, worldY))) {
+					if (world.isWall(worldX, worldY)) {
+						kind = WALL;
+					} else if (worldX == world.getEndX() && worldY == world.getEndY()) {
+						kind = EXIT;
+					} else {
+						kind = FLOOR;
+					}
+					if (fogOfWar && !world.isVisible(worldX, worldY)) {
+						kind += FOGGED;
+					}
+				}
+
+				int[] tile = tiles[tileIndex(kind, currentTileWidth, currentTileHeight)];
+				int target = screenY * width + screenX;
+				for (int row = 0; row < currentTileHeight; row++) {
+					System.arraycopy(tile, row * currentTileWidth, pixels, target, currentTileWidth);
+					target += width;
+				}
+
+				if (!inside) {
+					// Some "stars" in the space around the maze
+					if ((worldX * worldX + worldY * worldY) % 31 == 0) {
+						fillRect(screenX + currentTileWidth * 8 / 45, screenY + currentTileHeight * 8 / 45, 3, 3, width, height);
+					}
+					if ((worldX * 5 + worldY * 3) % 17 == 0) {
+						fillRect(screenX + currentTileWidth * 18 / 45, screenY + currentTileHeight * 15 / 45, 2, 2, width, height);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Fills a small rectangle with the star color, clipped to the frame.
+	 *
+	 * @param x The left edge.
+	 * @param y The top edge.
+	 * @param rectWidth The width of the rectangle.
+	 * @param rectHeight The height of the rectangle.
+	 * @param width The width of the frame.
+	 * @param height The height of the frame.
+	 */
+	private void fillRect(int x, int y, int rectWidth, int rectHeight, int width, int height) {
+		for (int py = Math.max(y, 0); py < Math.min(y + rectHeight, height); py++) {
+			for (int px = Math.max(x, 0); px < Math.min(x + rectWidth, width); px++) {
+				pixels[py * width + px] = STAR_RGB;
+			}
+		}
+	}
+
+	/**
+	 * Returns the index of a tile in {@link #tiles}.
+	 *
+	 * @param kind The tile kind.
+	 * @param width The width of the tile, {@link #tileWidth} or one more.
+	 * @param height The height of the tile, {@link #tileHeight} or one more.
+	 * @return The index.
+	 */
+	private int tileIndex(int kind, int width, int height) {
+		return kind * 4 + (width - tileWidth) * 2 + (height - tileHeight);
+	}
+
+	/**
+	 * Scales the tile images to the current tile sizes, the same way {@link java.awt.Graphics#drawImage} scales them
+	 * when drawing tile by tile.
+	 */
+	private void scaleTiles() {
+		for (int kind = 0; kind < KINDS; kind++) {
+			for (int extraWidth = 0; extraWidth <= 1; extraWidth++) {
+				for (int extraHeight = 0; extraHeight <= 1; extraHeight++) {
+					int width = tileWidth + extraWidth;
+					int height = tileHeight + extraHeight;
+					tiles[tileIndex(kind, width, height)] = scaleTile(kind, width, height);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Draws one tile kind in the given size.
+	 *
+	 * @param kind The tile kind.
+	 * @param width The width of the tile.
+	 * @param height The height of the tile.
+	 * @return The pixels of the tile, row by row.
+	 */
+	private int[] scaleTile(int kind, int width, int height) {
+		int[] result = new int[width * height];
+		if (width == 0 || height == 0 || kind == BLACK) {
+			return result;
+		}
+		BufferedImage tile = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = tile.createGraphics();
+		int baseKind = kind % FOGGED;
+		drawScaled(g, floorImage, Color.DARK_GRAY, width, height);
+		if (baseKind == WALL) {
+			drawScaled(g, wallImage, Color.GRAY, width, height);
+		} else if (baseKind == EXIT) {
+			drawScaled(g, endImage, Color.GREEN, width, height);
+		}
+		if (kind >= FOGGED) {
+			g.setColor(fogColor);
+			g.fillRect(0, 0, width, height);
+		}
+		g.dispose();
+		tile.getRGB(0, 0, width, height, result, 0, width);
+		return result;
+	}
+
+	/**
+	 * Draws an image over a whole tile, or fills the tile with a color if there is no image.
+	 *
+	 * @param g The graphics of the tile.
+	 * @param image The image, or null.
+	 * @param fallback The color used without image.
+	 * @param width The width of the tile.
+	 * @param height The height of the tile.
+	 */
+	private static void drawScaled(Graphics2D g, BufferedImage image, Color fallback, int width, int height) {
+		if (image != null) {
+			g.drawImage(image, 0, 0, width, height, null);
+		} else {
+			g.setColor(fallback);
+			g.fillRect(0, 0, width, height);
+		}
+	}
+}
@@ -0,0 +1,158 @@
+package view;
+
+import model.WallGrid;
+
+/**
+ * A mipmap pyramid of a maze's wall bitmap, used to draw zoomed-out views of large mazes.
+ * Level 0 is the wall grid itself. Every texel of level {@code k >= 1} covers {@code 2^k x 2^k} cells and
+ * stores the share of walls in that area as a value from 0 (only floor) to 255 (only walls).
+ * Cells outside the maze count as walls. The whole pyramid is built in one pass per level,
+ * starting with a word-wise pass over the packed wall bits.
+ */
+class WallMipmap {
+
+	/** The wall grid the pyramid was built from (level 0). */
+	private final WallGrid walls;
+	/** The wall densities of every level, row by row. Index 0 is unused, level 0 is read from {@link #walls}. */
+	private final byte[][] levels;
+	/** The width in texels of every level. */
+	private final int[] levelWidths;
+	/** The height in texels of every level. */
+	private final int[] levelHeights;
+
+	/**
+	 * Builds the pyramid for the given wall grid.
+	 * @param walls The wall grid of the maze.
+	 */
+	WallMipmap(WallGrid walls) {
+		this.walls = walls;
+		int count = 1;
+		while ((Math.max(walls.getWidth(), walls.getHeight()) - 1) >> count > 0) {
+			count++;
+		}
+		count++; // Include the 1x1 level
+		levels = new byte[count][];
+		levelWidths = new int[count];
+		levelHeights = new int[count];
+		levelWidths[0] = walls.getWidth();
+		levelHeights[0] = walls.getHeight();
+		if (count > 1) {
+			buildFirstLevel();
+		}
+		for (int level = 2; level < count; level++) {
+			buildLevel(level);
+		}
+	}
+
+	/**
+	 * Builds level 1 directly from the packed wall words: every texel counts the walls of a 2x2 block of cells.
+	 */
+	private void buildFirstLevel() {
+		int width = (walls.getWidth() + 1) >> 1;
+		int height = (walls.getHeight() + 1) >> 1;
+		byte[] texels = new byte[width * height];
+		int wordsPerRow = walls.getWordsPerRow();
+		for (int ty = 0; ty < height; ty++) {
+			int upperRow = (ty * 2) * wordsPerRow;
+			int lowerRow = ty * 2 + 1 < walls.getHeight() ? upperRow + wordsPerRow : -1;
+			for (int w = 0; w < wordsPerRow; w++) {
+				long upper = walls.getWord(upperRow + w);
+				long lower = lowerRow >= 0 ? walls.getWord(lowerRow + w) : -1L;
+				// Count the walls of every adjacent pair of bits, 2 bits per pair
+				long upperPairs = (upper & 0x5555555555555555L) + ((upper >>> 1) & 0x5555555555555555L);
+				long lowerPairs = (lower & 0x5555555555555555L) + ((lower >>> 1) & 0x5555555555555555L);
+				int firstTexel = w * 32;
+				int texelsInWord = Math.min(32, width - firstTexel);
+				for (int j = 0; j < texelsInWord; j++) {
+					int wallCount = (int) ((upperPairs >>> (2 * j)) & 3) + (int) ((lowerPairs >>> (2 * j)) & 3);
+					texels[ty * width + firstTexel + j] = (byte) (wallCount * 255 / 4);
+				}
+			}
+		}
+		levels[1] = texels;
+		levelWidths[1] = width;
+		levelHeights[1] = height;
+	}
+
+	/**
+	 * Builds a level by averaging 2x2 blocks of the previous level.
+	 * @param level The level to build, at least 2.
+	 */
+	private void buildLevel(int level) {
+		byte[] source = levels[level - 1];
+		int sourceWidth = levelWidths[level - 1];
+		int sourceHeight = levelHeights[level - 1];
+		int width = (sourceWidth + 1) >> 1;
+		int height = (sourceHeight + 1) >> 1;
+		byte[] texels = new byte[width * height];
+		for (int ty = 0; ty < height; ty++) {
+			int y0 = ty * 2;
+			int y1 = y0 + 1;
+			for (int tx = 0; tx < width; tx++) {
+				int x0 = tx * 2;
+				int x1 = x0 + 1;
+				int sum = (source[y0 * sourceWidth + x0] & 0xFF)
+						+ (x1 < sourceWidth ? source[y0 * sourceWidth + x1] & 0xFF : 255)
+						+ (y1 < sourceHeight ? source[y1 * sourceWidth + x0] & 0xFF : 255)
+						+ (x1 < sourceWidth && y1 < sourceHeight ? source[y1 * sourceWidth + x1] & 0xFF : 255);
+				texels[ty * width + tx] = (byte) (sum >> 2);
+			}
+		}
+		levels[level] = texels;
+		levelWidths[level] = width;
+		levelHeights[level] = height;
+	}
+
+	/**
+	 * Returns the wall grid the pyramid was built from.
+	 * @return The wall grid.
+	 */
+	WallGrid getWalls() {
+		return walls;
+	}
+
+	/**
+	 * Returns the number of levels, including level 0.
+	 * @return The number of levels.
+	 */
+	int getLevelCount() {
+		return levels.length;
+	}
+
+	/**
+	 * Returns where a row of a level {@code >= 1} starts in {@link #getTexels(int)}; add {@code x} to get a texel.
+	 * @param level The mipmap level, at least 1.
+	 * @param y The Y coordinate of the row, must be inside the level.
+	 * @return The offset of the row inside {@link #getTexels(int)}.
+	 */
+	int getRowOffset(int level, int y) {
+		return y * levelWidths[level];
+	}
+
+	/**
+	 * Returns the raw texels of a level {@code >= 1}.
+	 * @param level The mipmap level, at least 1.
+	 * @return The wall densities as unsigned bytes, row by row.
+	 */
+	byte[] getTexels(int level) {
+		return levels[level];
+	}
+
+	/**
+	 * Returns the width of a level in texels.
+	 * @param level The mipmap level.
+	 * @return The width of the level.
+	 */
+	int getLevelWidth(int level) {
+		return levelWidths[level];
+	}
+
+	/**
+	 * Returns the height of a level in texels.
+	 * @param level The mipmap level.
+	 * @return The height of the level.
+	 */
+	int getLevelHeight(int level) {
+		return levelHeights[level];
+	}
+}